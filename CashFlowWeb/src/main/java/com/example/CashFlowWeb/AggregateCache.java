@@ -0,0 +1,166 @@
+package com.example.CashFlowWeb;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 集計系API (月次サマリー、カテゴリ別集計、予算状況、資産予測) の結果を保持するキャッシュ。
+ *
+ * 件数と保持時間の上限つき (Caffeine / W-TinyLFU で追い出し) で、キーはAPIとそのパラメータです。
+ * 各エントリには「どのデータの、どの月に依存しているか」(Scope) を記録しておき、
+ * DAOの書き込みが DataVersions に通知されると、変更のあった月に依存するエントリだけを破棄します。
+ *
+ * 集計はどれも全カテゴリを対象にしているため、破棄の単位は月までとしています。
+ * (カテゴリの追加・変更は月を特定できないので、その種類のエントリをすべて破棄します)
+ */
+@Component
+public class AggregateCache {
+
+    // これより長い期間の集計は、月ごとに管理せず「すべての月に依存」として扱う
+    private static final int MAX_TRACKED_MONTHS = 120;
+
+    private final Cache<String, Entry> cache;
+    private final DataVersions dataVersions;
+
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    public AggregateCache(DataVersions dataVersions,
+                          @Value("${cashflow.cache.aggregates.maximum-size:500}") long maximumSize,
+                          @Value("${cashflow.cache.aggregates.expire-after-write-seconds:600}") long expireAfterWriteSeconds) {
+        this.dataVersions = dataVersions;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        dataVersions.addListener(this::invalidate);
+    }
+
+    /**
+     * キャッシュにあればそれを返し、なければ loader で集計して登録します。
+     * 集計中に依存するデータが書き換えられた場合は、古い結果の可能性があるため登録しません。
+     *
+     * 書き込みは DataVersions の版を上げてから破棄を通知するため、登録した後にもう一度版を確かめます。
+     * (確認と登録の間に書き込まれると、破棄の通知が登録より先に終わり、古い結果が残ってしまうため)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Scope scope, Supplier<T> loader) {
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached.value;
+        }
+
+        long[] versionsBefore = versionsOf(scope);
+        long start = System.nanoTime();
+        T value = loader.get();
+        loadNanos.add(System.nanoTime() - start);
+        loadCount.increment();
+
+        if (value != null && Arrays.equals(versionsBefore, versionsOf(scope))) {
+            Entry entry = new Entry(value, scope);
+            cache.put(key, entry);
+            if (!Arrays.equals(versionsBefore, versionsOf(scope))) {
+                // 他のスレッドが登録し直した新しい結果は残す
+                cache.asMap().remove(key, entry);
+            }
+        }
+        return value;
+    }
+
+    private long[] versionsOf(Scope scope) {
+        return scope.domains.stream().mapToLong(dataVersions::get).toArray();
+    }
+
+    // DataVersions からの変更通知: 変更のあった種類・月に依存するエントリを破棄
+    private void invalidate(DataVersions.Domain domain, Set<String> months) {
+        cache.asMap().values().removeIf(entry -> entry.scope.dependsOn(domain, months));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats getStats() {
+        com.github.benmanes.caffeine.cache.stats.CacheStats stats = cache.stats();
+        long loads = loadCount.sum();
+        double averageLoadMillis = loads == 0 ? 0.0 : loadNanos.sum() / 1_000_000.0 / loads;
+        return new CacheStats("aggregates", cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), loads, averageLoadMillis);
+    }
+
+    private static final class Entry {
+        final Object value;
+        final Scope scope;
+
+        Entry(Object value, Scope scope) {
+            this.value = value;
+            this.scope = scope;
+        }
+    }
+
+    /**
+     * キャッシュした結果が依存しているデータの種類と月。
+     */
+    public static final class Scope {
+        private final Set<DataVersions.Domain> domains;
+        private final Set<String> months; // null ならすべての月
+
+        private Scope(Set<DataVersions.Domain> domains, Set<String> months) {
+            this.domains = domains;
+            this.months = months;
+        }
+
+        /** すべての月に依存する (残高や予測など、全期間を対象にする集計) */
+        public static Scope allMonths(DataVersions.Domain first, DataVersions.Domain... rest) {
+            return new Scope(EnumSet.of(first, rest), null);
+        }
+
+        /** 指定した期間の月だけに依存する */
+        public static Scope months(LocalDate start, LocalDate end, DataVersions.Domain first, DataVersions.Domain... rest) {
+            YearMonth from = YearMonth.from(start);
+            YearMonth to = YearMonth.from(end);
+            if (from.plusMonths(MAX_TRACKED_MONTHS).isBefore(to)) {
+                return allMonths(first, rest);
+            }
+            Set<String> months = new HashSet<>();
+            for (YearMonth ym = from; !ym.isAfter(to); ym = ym.plusMonths(1)) {
+                months.add(ym.toString());
+            }
+            return new Scope(EnumSet.of(first, rest), Collections.unmodifiableSet(months));
+        }
+
+        /** 1か月分だけに依存する */
+        public static Scope month(String yearMonth, DataVersions.Domain first, DataVersions.Domain... rest) {
+            return new Scope(EnumSet.of(first, rest), Set.of(yearMonth));
+        }
+
+        boolean dependsOn(DataVersions.Domain domain, Set<String> changedMonths) {
+            if (!domains.contains(domain)) {
+                return false;
+            }
+            if (months == null || changedMonths == null) {
+                return true;
+            }
+            for (String month : changedMonths) {
+                if (months.contains(month)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
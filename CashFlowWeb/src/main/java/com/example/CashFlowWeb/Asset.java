@@ -1,22 +1,21 @@
 package com.example.CashFlowWeb;
 
-import java.text.DecimalFormat;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 /**
  * ポートフォリオの資産情報を保持するモデルクラス。
+ * JSONへの変換は ModelSerializers.AssetSerializer で行います。
  */
+@JsonSerialize(using = ModelSerializers.AssetSerializer.class)
 public class Asset {
     private int id;
     private String name;
     private String tickerSymbol;
-    private double quantity;
-    private double purchasePrice;
-    private double currentPrice;
+    private double quantity;    // 保有数量 (端数あり)
+    private double purchasePrice; // 1単位あたりの取得単価 (円。投資信託などは円未満の端数あり)
+    private double currentPrice;  // 1単位あたりの現在値 (円。同上)
     private String assetType;
 
-    // このFORMATTERが使われていなかった
-    private static final DecimalFormat FORMATTER = new DecimalFormat("#,###.##");
-
     public Asset() {}
 
     public Asset(int id, String name, String tickerSymbol, double quantity, double purchasePrice, double currentPrice, String assetType) {
@@ -38,40 +37,40 @@ public class Asset {
     public double getCurrentPrice() { return currentPrice; }
     public String getAssetType() { return assetType; }
 
-    // --- 計算プロパティ ---
-    public double getPurchaseValue() {
-        return quantity * purchasePrice;
+    // --- 計算プロパティ (評価額は円未満を四捨五入) ---
+    public long getPurchaseValue() {
+        return Math.round(quantity * purchasePrice);
     }
 
-    public double getCurrentValue() {
-        return quantity * currentPrice;
+    public long getCurrentValue() {
+        return Math.round(quantity * currentPrice);
     }
 
-    public double getGainLoss() {
+    public long getGainLoss() {
         return getCurrentValue() - getPurchaseValue();
     }
     
     public double getGainLossRate() {
         if (getPurchaseValue() == 0) return 0.0;
-        return (getGainLoss() / getPurchaseValue()) * 100;
+        return ((double) getGainLoss() / getPurchaseValue()) * 100;
     }
     
-    // --- 【ここから追加】表示用フォーマットメソッド ---
+    // --- 表示用フォーマットメソッド (計算プロパティとともに ?formatted=true の場合のみJSONに含める) ---
     
     public String getFormattedPurchaseValue() {
-        return "¥" + FORMATTER.format(getPurchaseValue());
+        return "¥" + YenFormat.format(getPurchaseValue());
     }
 
     public String getFormattedCurrentValue() {
-        return "¥" + FORMATTER.format(getCurrentValue());
+        return "¥" + YenFormat.format(getCurrentValue());
     }
     
     /**
      * 損益額を符号付きでフォーマットします。(例: +¥50,000)
      */
     public String getFormattedGainLoss() {
-        double gainLoss = getGainLoss();
+        long gainLoss = getGainLoss();
         String sign = gainLoss >= 0 ? "+" : "";
-        return sign + "¥" + FORMATTER.format(gainLoss);
+        return sign + "¥" + YenFormat.format(gainLoss);
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.example.CashFlowWeb;
 
+import org.springframework.stereotype.Repository;
+
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -7,14 +9,23 @@ import java.util.List;
 /**
  * 資産(assets)テーブルのデータベース操作を担当するクラス。
  */
+@Repository
 public class AssetDAO {
 
+    private final DBManager dbManager;
+    private final DataVersions dataVersions;
+
+    public AssetDAO(DBManager dbManager, DataVersions dataVersions) {
+        this.dbManager = dbManager;
+        this.dataVersions = dataVersions;
+    }
+
     /**
      * 新しい資産を登録します (Create)。
      */
     public boolean addAsset(Asset asset) {
         String sql = "INSERT INTO assets(name, ticker_symbol, quantity, purchase_price, current_price, asset_type) VALUES(?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, asset.getName());
@@ -25,6 +36,7 @@ public class AssetDAO {
             pstmt.setString(6, asset.getAssetType());
             
             pstmt.executeUpdate();
+            dataVersions.bump(DataVersions.Domain.PORTFOLIO);
             return true;
         } catch (SQLException e) {
             System.err.println("資産登録エラー: " + e.getMessage());
@@ -39,7 +51,7 @@ public class AssetDAO {
         List<Asset> assets = new ArrayList<>();
         String sql = "SELECT id, name, ticker_symbol, quantity, purchase_price, current_price, asset_type FROM assets ORDER BY name";
 
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -65,7 +77,7 @@ public class AssetDAO {
      */
     public Asset getAssetById(int id) {
         String sql = "SELECT id, name, ticker_symbol, quantity, purchase_price, current_price, asset_type FROM assets WHERE id = ?";
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -92,7 +104,7 @@ public class AssetDAO {
      */
     public boolean updateAsset(Asset asset) {
         String sql = "UPDATE assets SET name = ?, ticker_symbol = ?, quantity = ?, purchase_price = ?, current_price = ?, asset_type = ? WHERE id = ?";
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, asset.getName());
@@ -104,6 +116,9 @@ public class AssetDAO {
             pstmt.setInt(7, asset.getId());
 
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                dataVersions.bump(DataVersions.Domain.PORTFOLIO);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("資産更新エラー: " + e.getMessage());
@@ -116,11 +131,14 @@ public class AssetDAO {
      */
     public boolean deleteAsset(int id) {
         String sql = "DELETE FROM assets WHERE id = ?";
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                dataVersions.bump(DataVersions.Domain.PORTFOLIO);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("資産削除エラー: " + e.getMessage());
@@ -18,11 +18,11 @@ public class AuthController {
 
     /**
      * コンストラクタ (依存性の注入)
-     * SpringがSecurityConfigで定義したPasswordEncoderを自動的に注入(DI)します。
+     * SpringがUserDAOと、SecurityConfigで定義したPasswordEncoderを自動的に注入(DI)します。
      */
     @Autowired
-    public AuthController(PasswordEncoder passwordEncoder) {
-        this.userDAO = new UserDAO();
+    public AuthController(UserDAO userDAO, PasswordEncoder passwordEncoder) {
+        this.userDAO = userDAO;
         this.passwordEncoder = passwordEncoder;
     }
 
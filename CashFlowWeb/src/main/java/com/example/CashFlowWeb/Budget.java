@@ -5,22 +5,22 @@ public class Budget {
     private String yearMonth;
     private int categoryId;
     private String categoryName;
-    private double budgetAmount; // 予算額
-    private double actualAmount; // 実績額
+    private long budgetAmount; // 予算額 (円)
+    private long actualAmount; // 実績額 (円)
 
     // --- Getters ---
     public int getId() { return id; }
     public String getYearMonth() { return yearMonth; }
     public int getCategoryId() { return categoryId; }
     public String getCategoryName() { return categoryName; }
-    public double getBudgetAmount() { return budgetAmount; }
-    public double getActualAmount() { return actualAmount; }
+    public long getBudgetAmount() { return budgetAmount; }
+    public long getActualAmount() { return actualAmount; }
     
     // --- Setters ---
     public void setId(int id) { this.id = id; }
     public void setYearMonth(String yearMonth) { this.yearMonth = yearMonth; }
     public void setCategoryId(int categoryId) { this.categoryId = categoryId; }
     public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
-    public void setBudgetAmount(double budgetAmount) { this.budgetAmount = budgetAmount; }
-    public void setActualAmount(double actualAmount) { this.actualAmount = actualAmount; }
+    public void setBudgetAmount(long budgetAmount) { this.budgetAmount = budgetAmount; }
+    public void setActualAmount(long actualAmount) { this.actualAmount = actualAmount; }
 }
\ No newline at end of file
@@ -5,17 +5,27 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
 @RestController
+@ConditionalGet({DataVersions.Domain.BUDGET, DataVersions.Domain.LEDGER}) // 実績は取引の集計から求めるため
 @RequestMapping("/api/budgets")
 public class BudgetController {
 
-    private final BudgetDAO budgetDAO = new BudgetDAO();
+    private final BudgetDAO budgetDAO;
+    private final AggregateCache aggregateCache;
+
+    public BudgetController(BudgetDAO budgetDAO, AggregateCache aggregateCache) {
+        this.budgetDAO = budgetDAO;
+        this.aggregateCache = aggregateCache;
+    }
 
     /**
      * 指定された月の予算状況を取得します。
      */
     @GetMapping
     public List<Budget> getBudgets(@RequestParam String yearMonth) {
-        return budgetDAO.getBudgetsForMonth(yearMonth);
+        // 予算と、その月の取引実績に依存する
+        return aggregateCache.get("budgets|" + yearMonth,
+                AggregateCache.Scope.month(yearMonth, DataVersions.Domain.BUDGET, DataVersions.Domain.LEDGER),
+                () -> budgetDAO.getBudgetsForMonth(yearMonth));
     }
 
     /**
@@ -1,13 +1,26 @@
 package com.example.CashFlowWeb;
 
+import org.springframework.stereotype.Repository;
+
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
+@Repository
 public class BudgetDAO {
 
+    private final DBManager dbManager;
+    private final DataVersions dataVersions;
+
+    public BudgetDAO(DBManager dbManager, DataVersions dataVersions) {
+        this.dbManager = dbManager;
+        this.dataVersions = dataVersions;
+    }
+
     /**
      * 指定された月の支出カテゴリに対する予算と実績を取得します。
+     * 実績は月次集計(monthly_rollups)から求めます。
      */
     public List<Budget> getBudgetsForMonth(String yearMonth) {
         List<Budget> budgetStatusList = new ArrayList<>();
@@ -17,10 +30,10 @@ public class BudgetDAO {
                      "  COALESCE(t.total_spent, 0) AS actual_amount " +
                      "FROM categories c " +
                      "LEFT JOIN (SELECT category_id, amount FROM budgets WHERE year_month = ?) b ON c.id = b.category_id " +
-                     "LEFT JOIN (SELECT category_id, SUM(amount) AS total_spent FROM transactions WHERE strftime('%Y-%m', date) = ? AND type = 'EXPENSE' GROUP BY category_id) t ON c.id = t.category_id " +
+                     "LEFT JOIN (SELECT category_id, SUM(total_amount) AS total_spent FROM monthly_rollups WHERE month = ? AND type = 'EXPENSE' GROUP BY category_id) t ON c.id = t.category_id " +
                      "WHERE c.type = 'EXPENSE' ORDER BY c.name";
 
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, yearMonth);
@@ -31,8 +44,8 @@ public class BudgetDAO {
                     Budget budget = new Budget();
                     budget.setCategoryId(rs.getInt("category_id"));
                     budget.setCategoryName(rs.getString("category_name"));
-                    budget.setBudgetAmount(rs.getDouble("budget_amount"));
-                    budget.setActualAmount(rs.getDouble("actual_amount"));
+                    budget.setBudgetAmount(rs.getLong("budget_amount"));
+                    budget.setActualAmount(rs.getLong("actual_amount"));
                     budgetStatusList.add(budget);
                 }
             }
@@ -44,19 +57,20 @@ public class BudgetDAO {
 
     /**
      * 予算を保存または更新します。
-     * SQLiteの "INSERT OR REPLACE" を利用して、存在すれば更新、なければ挿入します。
+     * (year_month, category_id) の一意制約で重複を判定し、存在すれば金額だけを更新します。
      */
-    public boolean saveOrUpdateBudget(String yearMonth, int categoryId, double amount) {
-        String sql = "INSERT OR REPLACE INTO budgets (id, year_month, category_id, amount) " +
-                     "VALUES ((SELECT id FROM budgets WHERE year_month = ? AND category_id = ?), ?, ?, ?)";
-        try (Connection conn = DBManager.connect();
+    public boolean saveOrUpdateBudget(String yearMonth, int categoryId, long amount) {
+        String sql = dbManager.getDialect().upsert("budgets",
+                List.of("year_month", "category_id", "amount"),
+                List.of("year_month", "category_id"),
+                "amount = excluded.amount");
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, yearMonth);
             pstmt.setInt(2, categoryId);
-            pstmt.setString(3, yearMonth);
-            pstmt.setInt(4, categoryId);
-            pstmt.setDouble(5, amount);
+            pstmt.setLong(3, amount);
             pstmt.executeUpdate();
+            dataVersions.changed(DataVersions.Domain.BUDGET, Set.of(yearMonth));
             return true;
         } catch (SQLException e) {
             System.err.println("予算保存エラー: " + e.getMessage());
@@ -0,0 +1,51 @@
+package com.example.CashFlowWeb;
+
+import java.util.List;
+
+/**
+ * 取引の一括登録結果を保持するモデルクラス。
+ * 不正な行は登録せずに errors へ理由を記録します。(正常な行は登録されます)
+ */
+public class BulkInsertResult {
+    private int received;
+    private int inserted;
+    private int rejected;
+    private List<RowError> errors;
+    private long elapsedMillis;
+
+    public BulkInsertResult(int received, int inserted, int rejected, List<RowError> errors, long elapsedMillis) {
+        this.received = received;
+        this.inserted = inserted;
+        this.rejected = rejected;
+        this.errors = errors;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    // --- Getter Methods ---
+    public int getReceived() { return received; }
+    public int getInserted() { return inserted; }
+    public int getRejected() { return rejected; }
+    public List<RowError> getErrors() { return errors; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    // 1秒あたりの登録件数
+    public double getRowsPerSecond() {
+        return elapsedMillis > 0 ? inserted * 1000.0 / elapsedMillis : inserted;
+    }
+
+    /**
+     * 登録できなかった行 (0始まりの行番号) とその理由。
+     */
+    public static class RowError {
+        private int row;
+        private String message;
+
+        public RowError(int row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public int getRow() { return row; }
+        public String getMessage() { return message; }
+    }
+}
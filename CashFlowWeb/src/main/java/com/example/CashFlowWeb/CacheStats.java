@@ -0,0 +1,47 @@
+package com.example.CashFlowWeb;
+
+/**
+ * キャッシュの利用状況を保持するモデルクラス。
+ */
+public class CacheStats {
+    private String name;
+    private long size;      // 現在の登録件数
+    private long hitCount;  // キャッシュから返せた回数
+    private long missCount; // キャッシュになくDBを参照した回数
+    private long evictionCount;       // 上限や期限切れで追い出された件数
+    private long loadCount;           // 値を読み込んだ (集計した) 回数
+    private double averageLoadMillis; // 1回の読み込みにかかった平均時間 (ミリ秒)
+
+    public CacheStats(String name, long size, long hitCount, long missCount) {
+        this(name, size, hitCount, missCount, 0, 0, 0.0);
+    }
+
+    public CacheStats(String name, long size, long hitCount, long missCount,
+                      long evictionCount, long loadCount, double averageLoadMillis) {
+        this.name = name;
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.loadCount = loadCount;
+        this.averageLoadMillis = averageLoadMillis;
+    }
+
+    // デフォルトコンストラクタ (JSON変換用)
+    public CacheStats() {}
+
+    // --- Getter Methods ---
+    public String getName() { return name; }
+    public long getSize() { return size; }
+    public long getHitCount() { return hitCount; }
+    public long getMissCount() { return missCount; }
+    public long getEvictionCount() { return evictionCount; }
+    public long getLoadCount() { return loadCount; }
+    public double getAverageLoadMillis() { return averageLoadMillis; }
+
+    // ヒット率 (0.0〜1.0)。参照がまだない場合は 0.0
+    public double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+}
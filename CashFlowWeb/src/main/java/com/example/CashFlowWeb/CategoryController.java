@@ -11,14 +11,18 @@ import java.util.List;
 @RequestMapping("/api/categories")
 public class CategoryController {
 
-    private final CategoryDAO categoryDAO = new CategoryDAO();
+    private final CategoryRegistry categoryRegistry;
+
+    public CategoryController(CategoryRegistry categoryRegistry) {
+        this.categoryRegistry = categoryRegistry;
+    }
 
     /**
      * すべてのカテゴリのリストを取得します。
      */
     @GetMapping
     public List<Category> getAllCategories() {
-        return categoryDAO.getAllCategories();
+        return categoryRegistry.getAllCategories();
     }
 
     /**
@@ -26,7 +30,7 @@ public class CategoryController {
      */
     @PostMapping
     public ResponseEntity<Boolean> addCategory(@RequestBody Category category) {
-        boolean isSuccess = categoryDAO.addCategory(category.getName(), category.getType());
+        boolean isSuccess = categoryRegistry.addCategory(category.getName(), category.getType());
         return isSuccess ? ResponseEntity.ok(true) : ResponseEntity.badRequest().body(false);
     }
 
@@ -35,7 +39,7 @@ public class CategoryController {
      */
     @PutMapping("/{id}")
     public ResponseEntity<Boolean> updateCategory(@PathVariable int id, @RequestBody Category category) {
-        boolean isSuccess = categoryDAO.updateCategory(id, category.getName(), category.getType());
+        boolean isSuccess = categoryRegistry.updateCategory(id, category.getName(), category.getType());
         return isSuccess ? ResponseEntity.ok(true) : ResponseEntity.badRequest().body(false);
     }
 
@@ -44,8 +48,8 @@ public class CategoryController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Boolean> deleteCategory(@PathVariable int id) {
-        boolean isSuccess = categoryDAO.deleteCategory(id);
-        // 削除できない場合(関連する取引がある場合)はDAOがfalseを返す
+        boolean isSuccess = categoryRegistry.deleteCategory(id);
+        // 削除できない場合(関連する取引がある場合)はfalseが返る
         if (isSuccess) {
             return ResponseEntity.ok(true);
         } else {
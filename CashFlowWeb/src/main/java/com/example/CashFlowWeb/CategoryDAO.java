@@ -1,59 +1,33 @@
 package com.example.CashFlowWeb;
 
+import org.springframework.stereotype.Repository;
+
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
+/**
+ * カテゴリ(categories)テーブルのデータベース操作を担当するクラス。
+ * キャッシュは持たず、アプリ内での参照は CategoryRegistry 経由で行います。
+ */
+@Repository
 public class CategoryDAO {
 
-    // キャッシュ: IDからカテゴリ名を取得する際の効率化
-    private Map<Integer, Category> categoryCache = new HashMap<>();
+    private final DBManager dbManager;
+    private final DataVersions dataVersions;
 
-    /**
-     * キャッシュの初期化（「貯金」カテゴリの存在確認も行う）
-     */
-    public void initializeCache() {
-        categoryCache.clear();
-        
-        // 【重要】「貯金」という支出カテゴリが存在するか確認し、なければ作成
-        ensureSpecialCategoryExists("貯金", "EXPENSE");
-        
-        // 全カテゴリをDBから取得してキャッシュを構築
-        List<Category> allCategories = fetchAllCategoriesFromDb();
-        allCategories.forEach(c -> categoryCache.put(c.getId(), c));
+    // カテゴリ名は取引一覧や集計にも含まれるため、変更時は取引(LEDGER)の番号を進める
+    public CategoryDAO(DBManager dbManager, DataVersions dataVersions) {
+        this.dbManager = dbManager;
+        this.dataVersions = dataVersions;
     }
 
     /**
-     * IDに基づいて単一のカテゴリを取得します。（キャッシュ優先）
+     * DBからIDに基づいて単一のカテゴリを取得します。
      */
     public Category getCategoryById(int id) {
-        if (categoryCache.isEmpty()) {
-            initializeCache();
-        }
-        // キャッシュに存在しない場合はDBから取得 (稀なケース)
-        return categoryCache.getOrDefault(id, fetchCategoryByIdFromDb(id));
-    }
-    
-    /**
-     * すべてのカテゴリのリストを取得します。（キャッシュ優先）
-     */
-    public List<Category> getAllCategories() {
-        if (categoryCache.isEmpty()) {
-            initializeCache();
-        }
-        // DBからではなくキャッシュからリストを生成して返す
-        return new ArrayList<>(categoryCache.values());
-    }
-
-    /**
-     * (キャッシュミス時の) DBからIDに基づいて単一のカテゴリを取得します。
-     * 【修正点】Category(id, name, type) コンストラクタを使用
-     */
-    private Category fetchCategoryByIdFromDb(int id) {
         String sql = "SELECT id, name, type FROM categories WHERE id = ?";
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, id);
@@ -73,13 +47,12 @@ public class CategoryDAO {
     }
 
     /**
-     * DBからすべてのカテゴリを取得します。(キャッシュ構築用)
-     * 【修正点】Category(id, name, type) コンストラクタを使用
+     * DBからすべてのカテゴリを取得します。
      */
-    private List<Category> fetchAllCategoriesFromDb() {
+    public List<Category> getAllCategories() {
         List<Category> categories = new ArrayList<>();
         String sql = "SELECT id, name, type FROM categories ORDER BY type, name";
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -97,54 +70,55 @@ public class CategoryDAO {
     }
 
     /**
-     * カテゴリを追加し、キャッシュを更新します。
-     */
-    public boolean addCategory(String name, String type) {
-        boolean success = internalAddCategory(name, type);
-        if (success) {
-            initializeCache(); // キャッシュを更新
-        }
-        return success;
-    }
-
-    /**
-     * 【新規追加】カテゴリを追加する内部メソッド（キャッシュの更新は行わない）
+     * カテゴリを追加します。
+     * @return 採番されたIDを含む登録後のカテゴリ。失敗した場合は null。
      */
-    private boolean internalAddCategory(String name, String type) {
+    public Category addCategory(String name, String type) {
         String sql = "INSERT INTO categories(name, type) VALUES(?, ?)";
-        try (Connection conn = DBManager.connect();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dbManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, name.trim());
             pstmt.setString(2, type.toUpperCase());
             pstmt.executeUpdate();
-            return true;
+
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    dataVersions.bump(DataVersions.Domain.LEDGER);
+                    return new Category(keys.getInt(1), name.trim(), type.toUpperCase());
+                }
+            }
+            return null;
         } catch (SQLException e) {
             System.err.println("カテゴリ登録エラー: " + e.getMessage());
-            return false;
+            return null;
         }
     }
-    
+
     /**
-     * 【新規追加】特定の名前とタイプのカテゴリが存在するか確認し、なければ作成します。
+     * 特定の名前とタイプのカテゴリが存在するか確認し、なければ作成します。
      */
-    private void ensureSpecialCategoryExists(String name, String type) {
+    public void ensureSpecialCategoryExists(String name, String type) {
         String checkSql = "SELECT COUNT(*) FROM categories WHERE name = ? AND type = ?";
-        try (Connection conn = DBManager.connect();
+        boolean exists = true;
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmtCheck = conn.prepareStatement(checkSql)) {
-            
+
             pstmtCheck.setString(1, name);
             pstmtCheck.setString(2, type);
-            
+
             try (ResultSet rs = pstmtCheck.executeQuery()) {
-                if (rs.next() && rs.getInt(1) == 0) {
-                    // カテゴリが存在しない場合、追加する
-                    internalAddCategory(name, type); 
-                    System.out.println("「" + name + "」カテゴリを自動作成しました。");
-                }
+                exists = rs.next() && rs.getInt(1) > 0;
             }
         } catch (SQLException e) {
             System.err.println("特殊カテゴリの確認エラー: " + e.getMessage());
+            return;
+        }
+
+        // 確認用の接続をプールへ返却してから追加する
+        // (読み取り中の接続を保持したまま別接続で書き込むと、SQLiteではロック待ちになるため)
+        if (!exists && addCategory(name, type) != null) {
+            System.out.println("「" + name + "」カテゴリを自動作成しました。");
         }
     }
 
@@ -153,19 +127,18 @@ public class CategoryDAO {
      */
     public boolean updateCategory(int id, String name, String type) {
         String sql = "UPDATE categories SET name = ?, type = ? WHERE id = ?";
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, name.trim());
             pstmt.setString(2, type.toUpperCase());
             pstmt.setInt(3, id);
-            
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected > 0) {
-                initializeCache(); // キャッシュを更新
-                return true;
+
+            boolean changed = pstmt.executeUpdate() > 0;
+            if (changed) {
+                dataVersions.bump(DataVersions.Domain.LEDGER);
             }
-            return false;
+            return changed;
         } catch (SQLException e) {
             System.err.println("カテゴリ更新エラー: " + e.getMessage());
             return false;
@@ -183,28 +156,27 @@ public class CategoryDAO {
         }
 
         String sql = "DELETE FROM categories WHERE id = ?";
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, id);
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected > 0) {
-                initializeCache(); // キャッシュを更新
-                return true;
+            boolean changed = pstmt.executeUpdate() > 0;
+            if (changed) {
+                dataVersions.bump(DataVersions.Domain.LEDGER);
             }
-            return false;
+            return changed;
         } catch (SQLException e) {
             System.err.println("カテゴリ削除エラー: " + e.getMessage());
             return false;
         }
     }
-    
+
     /**
      * カテゴリが取引で使われているか確認
      */
     private boolean isCategoryUsed(int categoryId) {
         String sql = "SELECT COUNT(*) FROM transactions WHERE category_id = ?";
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, categoryId);
             try (ResultSet rs = pstmt.executeQuery()) {
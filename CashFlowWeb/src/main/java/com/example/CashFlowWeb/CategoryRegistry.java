@@ -0,0 +1,180 @@
+package com.example.CashFlowWeb;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * アプリ全体で共有するカテゴリのキャッシュ。
+ *
+ * 参照は不変のスナップショット(Snapshot)を volatile 変数から読むだけなので、ロックを取りません。
+ * 追加・更新・削除はDBへの書き込み後に、変更した1件だけを差し替えた新しいスナップショットを作って
+ * 置き換えます (コピーオンライト)。書き込み(DB更新 + 差し替え)同士は synchronized で直列化します。
+ */
+@Component
+public class CategoryRegistry {
+
+    // 一覧表示の並び順 (CategoryDAO.getAllCategories の ORDER BY type, name と同じ)
+    private static final Comparator<Category> DISPLAY_ORDER =
+        Comparator.comparing(Category::getType).thenComparing(Category::getName).thenComparingInt(Category::getId);
+
+    private final CategoryDAO categoryDAO;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), List.of());
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public CategoryRegistry(CategoryDAO categoryDAO) {
+        this.categoryDAO = categoryDAO;
+    }
+
+    /**
+     * 起動時にキャッシュを構築します。（「貯金」カテゴリの存在確認も行う）
+     */
+    @PostConstruct
+    public synchronized void initialize() {
+        // 【重要】「貯金」という支出カテゴリが存在するか確認し、なければ作成
+        categoryDAO.ensureSpecialCategoryExists("貯金", "EXPENSE");
+        reload();
+    }
+
+    /**
+     * 全カテゴリをDBから読み直してスナップショットを作り直します。
+     */
+    public synchronized void reload() {
+        Map<Integer, Category> byId = new HashMap<>();
+        categoryDAO.getAllCategories().forEach(c -> byId.put(c.getId(), c));
+        snapshot = Snapshot.of(byId);
+    }
+
+    /**
+     * IDに基づいて単一のカテゴリを取得します。（キャッシュ優先）
+     * キャッシュにない場合だけDBを参照し、見つかればキャッシュに追加します。
+     */
+    public Category getCategoryById(int id) {
+        Category cached = snapshot.byId.get(id);
+        if (cached != null) {
+            hitCount.increment();
+            return cached;
+        }
+        missCount.increment();
+        Snapshot seen = snapshot;
+        Category fromDb = categoryDAO.getCategoryById(id);
+        if (fromDb != null) {
+            putIfUnchanged(seen, fromDb);
+        }
+        return fromDb;
+    }
+
+    /**
+     * すべてのカテゴリのリストを取得します。（変更不可のリスト）
+     */
+    public List<Category> getAllCategories() {
+        hitCount.increment();
+        return snapshot.ordered;
+    }
+
+    /**
+     * 名前と収支区分が一致するカテゴリを返します。なければ作成します。
+     * @return 見つかった (または作成した) カテゴリ。作成に失敗した場合は null。
+     */
+    public synchronized Category findOrCreate(String name, String type) {
+        for (Category c : snapshot.ordered) {
+            if (c.getName().equals(name) && c.getType().equals(type)) {
+                hitCount.increment();
+                return c;
+            }
+        }
+        missCount.increment();
+        Category added = categoryDAO.addCategory(name, type);
+        if (added != null) {
+            put(added);
+        }
+        return added;
+    }
+
+    /**
+     * カテゴリを追加し、キャッシュに反映します。
+     */
+    public synchronized boolean addCategory(String name, String type) {
+        Category added = categoryDAO.addCategory(name, type);
+        if (added == null) {
+            return false;
+        }
+        put(added);
+        return true;
+    }
+
+    /**
+     * 既存のカテゴリを更新し、キャッシュに反映します。
+     */
+    public synchronized boolean updateCategory(int id, String name, String type) {
+        if (!categoryDAO.updateCategory(id, name, type)) {
+            return false;
+        }
+        put(new Category(id, name.trim(), type.toUpperCase()));
+        return true;
+    }
+
+    /**
+     * カテゴリを削除し、キャッシュからも取り除きます。
+     */
+    public synchronized boolean deleteCategory(int id) {
+        if (!categoryDAO.deleteCategory(id)) {
+            return false;
+        }
+        Map<Integer, Category> byId = new HashMap<>(snapshot.byId);
+        byId.remove(id);
+        snapshot = Snapshot.of(byId);
+        return true;
+    }
+
+    /**
+     * キャッシュの利用状況を取得します。
+     */
+    public CacheStats getStats() {
+        return new CacheStats("categories", snapshot.byId.size(), hitCount.sum(), missCount.sum());
+    }
+
+    /**
+     * DBを読んでいる間に書き込みがなかった場合だけ、キャッシュに追加します。
+     * (ロックを取らずに読んだ値で、その間に行われた削除・更新を上書きしないため。追加しなかった場合は次の参照で読み直します)
+     */
+    private synchronized void putIfUnchanged(Snapshot seen, Category category) {
+        if (snapshot == seen) {
+            put(category);
+        }
+    }
+
+    private synchronized void put(Category category) {
+        Map<Integer, Category> byId = new HashMap<>(snapshot.byId);
+        byId.put(category.getId(), category);
+        snapshot = Snapshot.of(byId);
+    }
+
+    /**
+     * ある時点のカテゴリ一覧。生成後は変更しません。
+     */
+    private static final class Snapshot {
+        final Map<Integer, Category> byId;
+        final List<Category> ordered;
+
+        Snapshot(Map<Integer, Category> byId, List<Category> ordered) {
+            this.byId = byId;
+            this.ordered = ordered;
+        }
+
+        static Snapshot of(Map<Integer, Category> byId) {
+            List<Category> ordered = new ArrayList<>(byId.values());
+            ordered.sort(DISPLAY_ORDER);
+            return new Snapshot(Map.copyOf(byId), List.copyOf(ordered));
+        }
+    }
+}
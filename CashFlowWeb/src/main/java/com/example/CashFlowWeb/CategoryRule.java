@@ -0,0 +1,29 @@
+package com.example.CashFlowWeb;
+
+/**
+ * 明細インポート時のカテゴリ振り分けルールを保持するモデルクラス。
+ * 摘要(説明文)に pattern が含まれていれば、その行を categoryId のカテゴリに分類します。
+ * (大文字・小文字は区別しません。priority の小さいルールから順に評価します)
+ */
+public class CategoryRule {
+    private int id;
+    private String pattern;
+    private int categoryId;
+    private int priority;
+
+    public CategoryRule(int id, String pattern, int categoryId, int priority) {
+        this.id = id;
+        this.pattern = pattern;
+        this.categoryId = categoryId;
+        this.priority = priority;
+    }
+
+    // デフォルトコンストラクタ (JSONデシリアライズ用)
+    public CategoryRule() {}
+
+    // --- Getter Methods ---
+    public int getId() { return id; }
+    public String getPattern() { return pattern; }
+    public int getCategoryId() { return categoryId; }
+    public int getPriority() { return priority; }
+}
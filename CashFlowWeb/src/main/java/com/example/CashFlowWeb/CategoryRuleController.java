@@ -0,0 +1,51 @@
+package com.example.CashFlowWeb;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+/**
+ * 明細インポート用のカテゴリ振り分けルールを管理するAPIコントローラー。
+ */
+@RestController
+@RequestMapping("/api/category-rules")
+public class CategoryRuleController {
+
+    private final CategoryRuleDAO categoryRuleDAO;
+    private final CategoryRegistry categoryRegistry;
+
+    public CategoryRuleController(CategoryRuleDAO categoryRuleDAO, CategoryRegistry categoryRegistry) {
+        this.categoryRuleDAO = categoryRuleDAO;
+        this.categoryRegistry = categoryRegistry;
+    }
+
+    /**
+     * すべてのルールを評価順で取得します。
+     */
+    @GetMapping
+    public List<CategoryRule> getAllRules() {
+        return categoryRuleDAO.getAllRules();
+    }
+
+    /**
+     * ルールを追加します。存在しないカテゴリや空のパターンは 400 を返します。
+     */
+    @PostMapping
+    public ResponseEntity<Boolean> addRule(@RequestBody CategoryRule rule) {
+        if (rule.getPattern() == null || rule.getPattern().isBlank()
+                || categoryRegistry.getCategoryById(rule.getCategoryId()) == null) {
+            return ResponseEntity.badRequest().body(false);
+        }
+        boolean isSuccess = categoryRuleDAO.addRule(rule.getPattern(), rule.getCategoryId(), rule.getPriority());
+        return isSuccess ? ResponseEntity.ok(true) : ResponseEntity.badRequest().body(false);
+    }
+
+    /**
+     * ルールを削除します。
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Boolean> deleteRule(@PathVariable int id) {
+        boolean isSuccess = categoryRuleDAO.deleteRule(id);
+        return isSuccess ? ResponseEntity.ok(true) : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.CashFlowWeb;
+
+import org.springframework.stereotype.Repository;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * カテゴリ振り分けルール(category_rules)テーブルのデータベース操作を担当するクラス。
+ */
+@Repository
+public class CategoryRuleDAO {
+
+    private final DBManager dbManager;
+
+    public CategoryRuleDAO(DBManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    /**
+     * すべてのルールを評価順 (priority, id の昇順) で取得します。
+     */
+    public List<CategoryRule> getAllRules() {
+        List<CategoryRule> rules = new ArrayList<>();
+        String sql = "SELECT id, pattern, category_id, priority FROM category_rules ORDER BY priority, id";
+        try (Connection conn = dbManager.connect();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                rules.add(new CategoryRule(
+                    rs.getInt("id"),
+                    rs.getString("pattern"),
+                    rs.getInt("category_id"),
+                    rs.getInt("priority")
+                ));
+            }
+        } catch (SQLException e) {
+            System.err.println("振り分けルール取得エラー: " + e.getMessage());
+        }
+        return rules;
+    }
+
+    /**
+     * ルールを追加します。
+     */
+    public boolean addRule(String pattern, int categoryId, int priority) {
+        String sql = "INSERT INTO category_rules(pattern, category_id, priority) VALUES(?, ?, ?)";
+        try (Connection conn = dbManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, pattern.trim());
+            pstmt.setInt(2, categoryId);
+            pstmt.setInt(3, priority);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("振り分けルール登録エラー: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * ルールを削除します。
+     */
+    public boolean deleteRule(int id) {
+        String sql = "DELETE FROM category_rules WHERE id = ?";
+        try (Connection conn = dbManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, id);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("振り分けルール削除エラー: " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -5,10 +5,10 @@ package com.example.CashFlowWeb;
  */
 public class CategorySummary {
     private String categoryName;
-    private double totalAmount;
+    private long totalAmount; // 円
 
     // コンストラクタ
-    public CategorySummary(String categoryName, double totalAmount) {
+    public CategorySummary(String categoryName, long totalAmount) {
         this.categoryName = categoryName;
         this.totalAmount = totalAmount;
     }
@@ -21,7 +21,7 @@ public class CategorySummary {
         return categoryName;
     }
 
-    public double getTotalAmount() {
+    public long getTotalAmount() {
         return totalAmount;
     }
 }
\ No newline at end of file
@@ -0,0 +1,387 @@
+package com.example.CashFlowWeb;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 集計用に、取引を列ごとのプリミティブ配列としてメモリ上に持つクラス。(オプション)
+ *
+ * 取引を日付順に並べ、日付 (エポック日) ・金額 (円) ・カテゴリID・フラグをそれぞれ別の配列に持ちます。
+ * Transaction オブジェクトや 'YYYY-MM' の文字列を行ごとに作らずに、配列を順に読むだけで集計できます。
+ * 1件あたり 15バイト程度なので、100万件でも 15MB ほどです。
+ *
+ * 最初に参照されたときに全件を読み込み、その後は DataVersions の通知で変更のあった月だけを読み直します。
+ * cashflow.ledger.columnar.enabled=true のときだけ有効で、無効の場合 snapshot() は null を返します。
+ * (呼び出し側は、その場合これまでどおり月次集計テーブルから集計します)
+ */
+@Component
+public class ColumnarLedger {
+
+    // flags のビット
+    public static final int INCOME = 1;
+    public static final int FUTURE = 1 << 1;
+    public static final int EXTRAORDINARY = 1 << 2;
+
+    // 期間を区切らない場合の範囲 (エポック日)
+    public static final int MIN_DAY = Integer.MIN_VALUE;
+    public static final int MAX_DAY = Integer.MAX_VALUE;
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final DBManager dbManager;
+    private final boolean enabled;
+
+    private volatile Columns columns; // null なら未読み込み
+    private final Object refreshLock = new Object();
+    private final DirtyMonths dirtyMonths = new DirtyMonths();
+
+    public ColumnarLedger(DBManager dbManager, DataVersions dataVersions,
+                          @Value("${cashflow.ledger.columnar.enabled:false}") boolean enabled) {
+        this.dbManager = dbManager;
+        this.enabled = enabled;
+        if (enabled) {
+            dirtyMonths.register(dataVersions);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 最新の列データを返します。変更のあった月があれば、その分をDBから読み直してから返します。
+     * 無効になっている場合や、読み込みに失敗した場合は null。
+     */
+    public Columns snapshot() {
+        if (!enabled) {
+            return null;
+        }
+        Columns current = columns;
+        if (current != null && !dirtyMonths.isDirty()) {
+            return current;
+        }
+        synchronized (refreshLock) {
+            try {
+                refresh();
+            } catch (SQLException | IllegalStateException e) {
+                System.err.println("列データの読み込みエラー: " + e.getMessage());
+                dirtyMonths.markAll();
+                return null;
+            }
+            return columns;
+        }
+    }
+
+    // refreshLock を保持した状態で呼ぶこと
+    private void refresh() throws SQLException {
+        int[] months = dirtyMonths.drain();
+        if (months == null || columns == null) {
+            long start = System.currentTimeMillis();
+            Columns loaded = loadAll();
+            columns = loaded;
+            System.out.println("列データを読み込みました: " + loaded.size() + "件 (" + (System.currentTimeMillis() - start) + "ms)");
+        } else if (months.length > 0) {
+            columns = columns.replaceMonths(months, loadMonths(months));
+        }
+    }
+
+    // 指定した月 (昇順) の取引を読み込む。月ごとに日付順なので、続けて読めば全体も日付順になる
+    private Columns loadMonths(int[] months) throws SQLException {
+        Builder builder = new Builder(16);
+        for (int month : months) {
+            load(firstDayOfMonth(month), firstDayOfMonth(month + 1), builder);
+        }
+        return builder.build();
+    }
+
+    private Columns loadAll() throws SQLException {
+        Builder builder = new Builder(1024);
+        load(MIN_DAY, MAX_DAY, builder);
+        return builder.build();
+    }
+
+    // [fromDay, toDayExclusive) の取引を読み込む。MIN_DAY〜MAX_DAY なら全件
+    private void load(int fromDay, int toDayExclusive, Builder builder) throws SQLException {
+        boolean all = fromDay == MIN_DAY && toDayExclusive == MAX_DAY;
+        String sql = "SELECT date, amount, type, category_id, is_future, is_extraordinary FROM transactions" +
+                     (all ? "" : " WHERE date >= ? AND date < ?") +
+                     " ORDER BY date";
+        SqlDialect dialect = dbManager.getDialect();
+        try (Connection conn = dbManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            if (!all) {
+                pstmt.setObject(1, dialect.dateValue(LocalDate.ofEpochDay(fromDay)));
+                pstmt.setObject(2, dialect.dateValue(LocalDate.ofEpochDay(toDayExclusive)));
+            }
+            pstmt.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int categoryId = rs.getInt("category_id");
+                    if (categoryId > Short.MAX_VALUE) {
+                        throw new IllegalStateException("カテゴリIDが列データの上限を超えています: " + categoryId);
+                    }
+                    int flags = ("INCOME".equals(rs.getString("type")) ? INCOME : 0)
+                              | (rs.getBoolean("is_future") ? FUTURE : 0)
+                              | (rs.getBoolean("is_extraordinary") ? EXTRAORDINARY : 0);
+                    builder.add(dialect.getEpochDay(rs, "date"), rs.getLong("amount"), (short) categoryId, (byte) flags);
+                }
+            }
+        }
+    }
+
+    // ----------------------------------------
+    // 日付の変換 (オブジェクトを作らずに整数演算だけで行う)
+    // ----------------------------------------
+
+    // 年月日 → エポック日 (グレゴリオ暦。1970-01-01 が 0)
+    static int daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yoe = y - era * 400;
+        int doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    /** エポック日 → 月番号 (年 * 12 + 月 - 1) */
+    static int monthIndexOfDay(int epochDay) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month - 1;
+    }
+
+    /** 'YYYY-MM' → 月番号 */
+    static int monthIndex(String yearMonth) {
+        return Integer.parseInt(yearMonth, 0, 4, 10) * 12 + Integer.parseInt(yearMonth, 5, 7, 10) - 1;
+    }
+
+    /** 月番号 → 'YYYY-MM' */
+    static String monthKey(int monthIndex) {
+        int month = Math.floorMod(monthIndex, 12) + 1;
+        return String.format("%04d-%02d", Math.floorDiv(monthIndex, 12), month);
+    }
+
+    /** 月番号 → その月の1日のエポック日 */
+    static int firstDayOfMonth(int monthIndex) {
+        return daysFromCivil(Math.floorDiv(monthIndex, 12), Math.floorMod(monthIndex, 12) + 1, 1);
+    }
+
+    /**
+     * 月ごとの集計結果を受け取る処理。
+     */
+    @FunctionalInterface
+    public interface MonthHandler {
+        void accept(int monthIndex, long income, long expense, int count);
+    }
+
+    /**
+     * ある時点の列データ。作成後は変更しないため、ロックなしで複数のスレッドから参照できます。
+     * 集計メソッドの期間は [fromDay, toDay] (エポック日、両端を含む) で、
+     * (flags & mask) == match の行だけを対象にします。(mask = 0 ならすべての行)
+     */
+    public static final class Columns {
+        private final int size;
+        private final int[] epochDay;     // 昇順
+        private final long[] amount;      // 円
+        private final short[] categoryId;
+        private final byte[] flags;
+
+        private Columns(int size, int[] epochDay, long[] amount, short[] categoryId, byte[] flags) {
+            this.size = size;
+            this.epochDay = epochDay;
+            this.amount = amount;
+            this.categoryId = categoryId;
+            this.flags = flags;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // fromDay 以降の最初の行の位置
+        private int lowerBound(int fromDay) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (epochDay[mid] < fromDay) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        /** 条件に合う行の金額の合計 */
+        public long total(int fromDay, int toDay, int mask, int match) {
+            long sum = 0;
+            for (int i = lowerBound(fromDay); i < size && epochDay[i] <= toDay; i++) {
+                if ((flags[i] & mask) == match) {
+                    sum += amount[i];
+                }
+            }
+            return sum;
+        }
+
+        /** 条件に合う行の件数 */
+        public int count(int fromDay, int toDay, int mask, int match) {
+            int n = 0;
+            for (int i = lowerBound(fromDay); i < size && epochDay[i] <= toDay; i++) {
+                if ((flags[i] & mask) == match) {
+                    n++;
+                }
+            }
+            return n;
+        }
+
+        /** 収入 − 支出 (予定取引を除く)。月次集計の calculateCurrentBalance と同じ値 */
+        public long balance() {
+            long net = 0;
+            for (int i = 0; i < size; i++) {
+                int f = flags[i];
+                if ((f & FUTURE) == 0) {
+                    net += (f & INCOME) != 0 ? amount[i] : -amount[i];
+                }
+            }
+            return net;
+        }
+
+        /**
+         * 条件に合う行を月ごとに集計し、古い月から順に handler へ渡します。(行のない月は渡しません)
+         * 行は日付順に並んでいるため、同じ月の行は連続しています。
+         */
+        public void forEachMonth(int fromDay, int toDay, int mask, int match, MonthHandler handler) {
+            int month = 0;
+            long income = 0, expense = 0;
+            int count = 0;
+            // 月の境目 (次の月の1日) を覚えておき、行ごとに日付から月を求めないようにする
+            int nextMonthStart = MIN_DAY;
+            for (int i = lowerBound(fromDay); i < size && epochDay[i] <= toDay; i++) {
+                if ((flags[i] & mask) != match) {
+                    continue;
+                }
+                if (epochDay[i] >= nextMonthStart) {
+                    if (count > 0) {
+                        handler.accept(month, income, expense, count);
+                    }
+                    month = monthIndexOfDay(epochDay[i]);
+                    nextMonthStart = firstDayOfMonth(month + 1);
+                    income = expense = 0;
+                    count = 0;
+                }
+                if ((flags[i] & INCOME) != 0) income += amount[i]; else expense += amount[i];
+                count++;
+            }
+            if (count > 0) {
+                handler.accept(month, income, expense, count);
+            }
+        }
+
+        /** 月ごとの収支 (収入 − 支出) の平均。行のある月だけで平均し、1か月もなければ 0 */
+        public double averageMonthlyNet(int fromDay, int toDay, int mask, int match) {
+            long[] acc = new long[2]; // [収支の合計, 月数]
+            forEachMonth(fromDay, toDay, mask, match, (month, income, expense, count) -> {
+                acc[0] += income - expense;
+                acc[1]++;
+            });
+            return acc[1] == 0 ? 0.0 : (double) acc[0] / acc[1];
+        }
+
+        /** 月次集計 (予定取引を除く、新しい月から順)。TransactionDAO.getMonthlySummary と同じ内容 */
+        public List<MonthlySummary> monthlySummary() {
+            List<MonthlySummary> summaries = new ArrayList<>();
+            forEachMonth(MIN_DAY, MAX_DAY, FUTURE, 0, (month, income, expense, count) ->
+                summaries.add(new MonthlySummary(monthKey(month), income, expense)));
+            Collections.reverse(summaries);
+            return summaries;
+        }
+
+        // 指定した月 (昇順) の行を replacement の行 (日付順) に置き換えた列データを作る
+        // 月の行は連続しているため、変更のない区間は配列ごとコピーする
+        private Columns replaceMonths(int[] months, Columns replacement) {
+            Builder builder = new Builder(size + replacement.size);
+            int pos = 0;
+            int r = 0;
+            for (int month : months) {
+                int monthStart = firstDayOfMonth(month);
+                int nextMonthStart = firstDayOfMonth(month + 1);
+                int segmentStart = lowerBound(monthStart);
+                builder.addRange(this, pos, segmentStart);
+                int replacementEnd = replacement.lowerBound(nextMonthStart);
+                builder.addRange(replacement, r, replacementEnd);
+                r = replacementEnd;
+                pos = Math.max(pos, lowerBound(nextMonthStart));
+            }
+            builder.addRange(this, pos, size);
+            return builder.build();
+        }
+    }
+
+    // 配列を倍々に広げながら行を追加する
+    private static final class Builder {
+        private int size;
+        private int[] epochDay;
+        private long[] amount;
+        private short[] categoryId;
+        private byte[] flags;
+
+        Builder(int capacity) {
+            capacity = Math.max(capacity, 16);
+            epochDay = new int[capacity];
+            amount = new long[capacity];
+            categoryId = new short[capacity];
+            flags = new byte[capacity];
+        }
+
+        private void ensureCapacity(int required) {
+            if (required > epochDay.length) {
+                int capacity = Math.max(required, epochDay.length * 2);
+                epochDay = Arrays.copyOf(epochDay, capacity);
+                amount = Arrays.copyOf(amount, capacity);
+                categoryId = Arrays.copyOf(categoryId, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+            }
+        }
+
+        void add(int day, long value, short category, byte flag) {
+            ensureCapacity(size + 1);
+            epochDay[size] = day;
+            amount[size] = value;
+            categoryId[size] = category;
+            flags[size] = flag;
+            size++;
+        }
+
+        // from の [start, end) 行をまとめて追加する
+        void addRange(Columns from, int start, int end) {
+            int n = end - start;
+            if (n <= 0) {
+                return;
+            }
+            ensureCapacity(size + n);
+            System.arraycopy(from.epochDay, start, epochDay, size, n);
+            System.arraycopy(from.amount, start, amount, size, n);
+            System.arraycopy(from.categoryId, start, categoryId, size, n);
+            System.arraycopy(from.flags, start, flags, size, n);
+            size += n;
+        }
+
+        Columns build() {
+            return new Columns(size, Arrays.copyOf(epochDay, size), Arrays.copyOf(amount, size),
+                    Arrays.copyOf(categoryId, size), Arrays.copyOf(flags, size));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.CashFlowWeb;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * GETのレスポンスが、どの種類のデータに依存しているかを示すアノテーション。
+ * コントローラーのクラスに付けるとそのクラスのすべてのGETに、メソッドに付けるとそのメソッドだけに適用されます。
+ * (メソッドの指定が優先。value を空にすると、そのメソッドは対象外になります)
+ *
+ * @see ConditionalGetInterceptor
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+    DataVersions.Domain[] value();
+}
@@ -0,0 +1,70 @@
+package com.example.CashFlowWeb;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * @ConditionalGet の付いたGETに ETag を付け、If-None-Match が一致すれば 304 を返すインターセプター。
+ * コントローラーを呼ぶ前に判定するため、304 の場合はDBアクセスもJSONの生成も行いません。
+ *
+ * ETag はデータを読む前の番号から作ります。読み込み中に書き込みがあっても、
+ * 付くのは古い番号なので、次回のリクエストで必ず新しいデータが返ります。
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private final DataVersions dataVersions;
+
+    public ConditionalGetInterceptor(DataVersions dataVersions) {
+        this.dataVersions = dataVersions;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        ConditionalGet conditional = method.getMethodAnnotation(ConditionalGet.class);
+        if (conditional == null) {
+            conditional = method.getBeanType().getAnnotation(ConditionalGet.class);
+        }
+        if (conditional == null || conditional.value().length == 0) {
+            return true;
+        }
+
+        String etag = dataVersions.etag(conditional.value());
+        response.setHeader(HttpHeaders.ETAG, etag);
+        // ログインユーザーのデータなので共有キャッシュには置かせず、毎回 ETag で確認させる
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    // If-None-Match は弱い比較 (W/ を無視) で、カンマ区切りの複数指定と * に対応する
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,84 +1,104 @@
 package com.example.CashFlowWeb;
 
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
 
+/**
+ * データベース接続の窓口となるクラス。
+ * 接続はコネクションプール(DataSourceConfigで定義)から取得し、
+ * 起動時にスキーマのマイグレーションを行います。
+ */
+@Component
 public class DBManager {
 
+    private final HikariDataSource dataSource;
+    private final SqlDialect dialect;
+
+    public DBManager(HikariDataSource dataSource) {
+        this.dataSource = dataSource;
+        this.dialect = SqlDialect.fromJdbcUrl(dataSource.getJdbcUrl());
+    }
+
     /**
-     * データベース接続を取得します。
-     * 環境変数 "JDBC_DATABASE_URL" があればそれ（PostgreSQL）を使い、
-     * なければローカルのSQLiteを使います。
+     * プールからデータベース接続を取得します。
+     * 使い終わったら close() することでプールに返却されます。
      */
-    public static Connection connect() throws SQLException {
-        String dbUrl = System.getenv("JDBC_DATABASE_URL");
-        
-        if (dbUrl != null && !dbUrl.isEmpty()) {
-            // クラウド環境 (Renderなど)
-            return DriverManager.getConnection(dbUrl);
-        } else {
-            // ローカル環境
-            return DriverManager.getConnection("jdbc:sqlite:cashflow.db");
-        }
+    public Connection connect() throws SQLException {
+        return dataSource.getConnection();
     }
 
-    public static void initializeDatabase() {
-        try (Connection conn = connect();
-             Statement stmt = conn.createStatement()) {
+    /**
+     * 1つの接続・1つのトランザクション内で処理を実行します。
+     * 処理が例外を投げた場合はロールバックし、正常に終われば commit します。
+     */
+    public <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false);
+            try {
+                T result = work.execute(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
 
-            // 1. カテゴリテーブル
-            stmt.execute("CREATE TABLE IF NOT EXISTS categories (" +
-                         "id SERIAL PRIMARY KEY," + // SQLiteのINTEGER PRIMARY KEY AUTOINCREMENTの代わりにSERIALを使う場合もあるが、互換性のため調整が必要
-                         "name TEXT NOT NULL," +
-                         "type TEXT NOT NULL CHECK(type IN ('INCOME', 'EXPENSE'))" +
-                         ");");
+    /**
+     * inTransaction で実行する処理。
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T execute(Connection conn) throws SQLException;
+    }
 
-            // ※ PostgreSQLとSQLiteの両方で動くSQLにするため、ID定義を少し工夫します
-            // 以下の書き方はSQLiteでもPostgreSQLでも概ね動作するシンプルな形です
-            
-            // しかし、厳密には AUTOINCREMENT (SQLite) と SERIAL (PostgreSQL) は違います。
-            // 簡易的な対応として、テーブル作成は「アプリ起動時」ではなく
-            // クラウド側で一度だけSQLを流すか、あるいは以下のように汎用的な書き方を試みます。
-            
-            // 今回は複雑さを避けるため、とりあえずテーブル作成のSQLは
-            // 「エラーが出てもドンマイ」の精神で、既存のSQLite用コードを残しつつ
-            // PostgreSQLでは手動作成、またはエラーを無視して進める形にします。
-            // (本格的な移行では create table 文を分ける必要がありますが、まずは接続確認を目指しましょう)
+    /**
+     * 接続先がPostgreSQLかどうかを返します。
+     */
+    public boolean isPostgres() {
+        return dialect == SqlDialect.POSTGRES;
+    }
 
-            // SQLite用のテーブル作成ロジック（ローカルではこれが動きます）
-            if (System.getenv("JDBC_DATABASE_URL") == null) {
-                createTablesSQLite(stmt);
-            } else {
-                createTablesPostgres(stmt);
-            }
-            
-        } catch (SQLException e) {
-            System.err.println("データベース初期化エラー (既存テーブルがある場合は無視してください): " + e.getMessage());
-        }
+    /**
+     * 接続先に合わせたSQL方言を返します。
+     */
+    public SqlDialect getDialect() {
+        return dialect;
     }
 
-    // SQLite用のテーブル作成
-    private static void createTablesSQLite(Statement stmt) throws SQLException {
-        stmt.execute("CREATE TABLE IF NOT EXISTS categories (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, type TEXT NOT NULL)");
-        stmt.execute("CREATE TABLE IF NOT EXISTS transactions (id INTEGER PRIMARY KEY AUTOINCREMENT, date TEXT NOT NULL, amount REAL NOT NULL, type TEXT NOT NULL, category_id INTEGER, is_future BOOLEAN DEFAULT FALSE, is_extraordinary BOOLEAN DEFAULT FALSE, FOREIGN KEY (category_id) REFERENCES categories(id))");
-        stmt.execute("CREATE TABLE IF NOT EXISTS assets (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, ticker_symbol TEXT, quantity REAL NOT NULL, purchase_price REAL NOT NULL, current_price REAL, asset_type TEXT NOT NULL)");
-        stmt.execute("CREATE TABLE IF NOT EXISTS budgets (id INTEGER PRIMARY KEY AUTOINCREMENT, year_month TEXT NOT NULL, category_id INTEGER NOT NULL, amount REAL NOT NULL, UNIQUE(year_month, category_id))");
-        stmt.execute("CREATE TABLE IF NOT EXISTS goals (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, target_amount REAL NOT NULL, current_amount REAL NOT NULL DEFAULT 0, target_date TEXT, image_url TEXT)");
+    /**
+     * コネクションプールの利用状況を取得します。(飽和状態の確認用)
+     */
+    public PoolStats getPoolStats() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return new PoolStats(
+            dataSource.getPoolName(),
+            pool.getActiveConnections(),
+            pool.getIdleConnections(),
+            pool.getTotalConnections(),
+            pool.getThreadsAwaitingConnection(),
+            dataSource.getMaximumPoolSize()
+        );
     }
 
-    // PostgreSQL用のテーブル作成 (データ型を少し調整)
-    private static void createTablesPostgres(Statement stmt) throws SQLException {
-        // カテゴリ
-        stmt.execute("CREATE TABLE IF NOT EXISTS categories (id SERIAL PRIMARY KEY, name TEXT NOT NULL, type TEXT NOT NULL)");
-        // 取引
-        stmt.execute("CREATE TABLE IF NOT EXISTS transactions (id SERIAL PRIMARY KEY, date TEXT NOT NULL, amount DOUBLE PRECISION NOT NULL, type TEXT NOT NULL, category_id INTEGER, is_future BOOLEAN DEFAULT FALSE, is_extraordinary BOOLEAN DEFAULT FALSE, FOREIGN KEY (category_id) REFERENCES categories(id))");
-        // 資産
-        stmt.execute("CREATE TABLE IF NOT EXISTS assets (id SERIAL PRIMARY KEY, name TEXT NOT NULL, ticker_symbol TEXT, quantity DOUBLE PRECISION NOT NULL, purchase_price DOUBLE PRECISION NOT NULL, current_price DOUBLE PRECISION, asset_type TEXT NOT NULL)");
-        // 予算
-        stmt.execute("CREATE TABLE IF NOT EXISTS budgets (id SERIAL PRIMARY KEY, year_month TEXT NOT NULL, category_id INTEGER NOT NULL, amount DOUBLE PRECISION NOT NULL, UNIQUE(year_month, category_id))");
-        // 目標
-        stmt.execute("CREATE TABLE IF NOT EXISTS goals (id SERIAL PRIMARY KEY, name TEXT NOT NULL, target_amount DOUBLE PRECISION NOT NULL, current_amount DOUBLE PRECISION NOT NULL DEFAULT 0, target_date TEXT, image_url TEXT)");
+    /**
+     * 起動時にスキーマのマイグレーションを適用します。
+     * 失敗した場合は不完全なスキーマのまま動かさないよう、起動を中断します。
+     */
+    @PostConstruct
+    public void initializeDatabase() {
+        try (Connection conn = connect()) {
+            new SchemaMigrator().migrate(conn, dialect);
+        } catch (SQLException e) {
+            throw new IllegalStateException("データベース初期化エラー: " + e.getMessage(), e);
+        }
     }
 }
@@ -0,0 +1,37 @@
+package com.example.CashFlowWeb;
+
+import java.util.List;
+
+/**
+ * ダッシュボード1画面分の表示データをまとめたモデルクラス。
+ */
+public class Dashboard {
+    private long balance; // 円
+    private MonthlySummary latestMonth; // 取引のある最新月 (取引がなければ null)
+    private List<MonthlySummary> monthlySummaries; // 棒グラフ用 (新しい順に最大6ヶ月)
+    private String categoryMonth; // 円グラフの対象月 'YYYY-MM'
+    private List<CategorySummary> categoryBreakdown; // 対象月の支出のカテゴリ別合計 (多い順)
+    private List<Transaction> recentTransactions; // 直近の取引 (新しい順)
+    private List<Goal> goals;
+
+    public Dashboard(long balance, MonthlySummary latestMonth, List<MonthlySummary> monthlySummaries,
+                     String categoryMonth, List<CategorySummary> categoryBreakdown,
+                     List<Transaction> recentTransactions, List<Goal> goals) {
+        this.balance = balance;
+        this.latestMonth = latestMonth;
+        this.monthlySummaries = monthlySummaries;
+        this.categoryMonth = categoryMonth;
+        this.categoryBreakdown = categoryBreakdown;
+        this.recentTransactions = recentTransactions;
+        this.goals = goals;
+    }
+
+    // --- Getter Methods ---
+    public long getBalance() { return balance; }
+    public MonthlySummary getLatestMonth() { return latestMonth; }
+    public List<MonthlySummary> getMonthlySummaries() { return monthlySummaries; }
+    public String getCategoryMonth() { return categoryMonth; }
+    public List<CategorySummary> getCategoryBreakdown() { return categoryBreakdown; }
+    public List<Transaction> getRecentTransactions() { return recentTransactions; }
+    public List<Goal> getGoals() { return goals; }
+}
@@ -0,0 +1,30 @@
+package com.example.CashFlowWeb;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+
+/**
+ * ダッシュボード画面用のAPIコントローラー。
+ * 画面表示に必要なデータ (残高・月次集計・カテゴリ別内訳・直近の取引・目標) を1回のリクエストで返します。
+ */
+@RestController
+@ConditionalGet({DataVersions.Domain.LEDGER, DataVersions.Domain.GOALS})
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    public DashboardController(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    /**
+     * @param month カテゴリ別内訳の対象月 'YYYY-MM' (省略時は今月。ブラウザのローカル日付を渡す想定)
+     */
+    @GetMapping
+    public Dashboard getDashboard(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        return dashboardService.build(month != null ? month : YearMonth.now());
+    }
+}
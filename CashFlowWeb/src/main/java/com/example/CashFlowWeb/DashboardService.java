@@ -0,0 +1,110 @@
+package com.example.CashFlowWeb;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ダッシュボードの表示データを1回でまとめて作るクラス。
+ *
+ * 残高・月次集計・カテゴリ別内訳は、月次集計(monthly_rollups)を1回読んだ結果から計算します。
+ * 直近の取引と目標一覧はそれとは独立しているため、3つの読み込みを並行して行います。
+ */
+@Component
+public class DashboardService {
+
+    // 棒グラフに表示する月数
+    static final int SUMMARY_MONTHS = 6;
+
+    // 直近の取引の表示件数
+    static final int RECENT_TRANSACTIONS = 5;
+
+    private final TransactionDAO transactionDAO;
+    private final GoalDAO goalDAO;
+    private final CategoryRegistry categoryRegistry;
+
+    // 読み込みは最大3本を並行するだけなので、その分のスレッドを用意する
+    private final ExecutorService loader;
+
+    public DashboardService(TransactionDAO transactionDAO, GoalDAO goalDAO, CategoryRegistry categoryRegistry) {
+        this.transactionDAO = transactionDAO;
+        this.goalDAO = goalDAO;
+        this.categoryRegistry = categoryRegistry;
+
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        this.loader = Executors.newFixedThreadPool(3, r -> {
+            Thread t = new Thread(r, "dashboard-loader-" + threadNumber.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * ダッシュボードの表示データを作ります。
+     * @param month カテゴリ別内訳の対象月 (通常は今月)
+     */
+    public Dashboard build(YearMonth month) {
+        CompletableFuture<List<MonthlyRollup>> rollups =
+            CompletableFuture.supplyAsync(() -> transactionDAO.getMonthlyRollups("0000-00"), loader);
+        CompletableFuture<List<Transaction>> recent =
+            CompletableFuture.supplyAsync(() -> transactionDAO.getTransactionPage(null, null, null, null, null, RECENT_TRANSACTIONS).getItems(), loader);
+        CompletableFuture<List<Goal>> goals =
+            CompletableFuture.supplyAsync(goalDAO::getAllGoals, loader);
+
+        String categoryMonth = month.toString();
+        long balance = 0;
+        // 月 → [収入, 支出]
+        TreeMap<String, long[]> monthly = new TreeMap<>(Comparator.reverseOrder());
+        Map<String, Long> byCategory = new HashMap<>();
+
+        for (MonthlyRollup r : rollups.join()) {
+            if (r.getIsFuture()) continue; // 予定取引は残高・集計に含めない
+            boolean income = "INCOME".equals(r.getType());
+            balance += r.getSignedAmount();
+            monthly.computeIfAbsent(r.getMonth(), m -> new long[2])[income ? 0 : 1] += r.getTotalAmount();
+
+            if (!income && r.getMonth().equals(categoryMonth)) {
+                Category category = categoryRegistry.getCategoryById(r.getCategoryId());
+                if (category != null) {
+                    byCategory.merge(category.getName(), r.getTotalAmount(), Long::sum);
+                }
+            }
+        }
+
+        List<MonthlySummary> summaries = new ArrayList<>(SUMMARY_MONTHS);
+        for (Map.Entry<String, long[]> e : monthly.entrySet()) {
+            if (summaries.size() == SUMMARY_MONTHS) break;
+            summaries.add(new MonthlySummary(e.getKey(), e.getValue()[0], e.getValue()[1]));
+        }
+
+        List<CategorySummary> breakdown = new ArrayList<>(byCategory.size());
+        byCategory.forEach((name, total) -> breakdown.add(new CategorySummary(name, total)));
+        breakdown.sort(Comparator.comparingLong(CategorySummary::getTotalAmount).reversed());
+
+        return new Dashboard(
+            balance,
+            summaries.isEmpty() ? null : summaries.get(0),
+            summaries,
+            categoryMonth,
+            breakdown,
+            recent.join(),
+            goals.join()
+        );
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.CashFlowWeb;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * コネクションプール(HikariCP)のDataSourceを定義する設定クラス。
+ * リクエストごとに DriverManager で接続を張り直す代わりに、
+ * プール済みの接続を各DAOで使い回します。
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource dataSource(
+            @Value("${spring.datasource.url:jdbc:sqlite:cashflow.db}") String localUrl,
+            @Value("${cashflow.datasource.pool.minimum-idle:2}") int minimumIdle,
+            @Value("${cashflow.datasource.pool.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${cashflow.datasource.pool.idle-timeout:600000}") long idleTimeout,
+            @Value("${cashflow.datasource.pool.connection-timeout:30000}") long connectionTimeout,
+            @Value("${cashflow.datasource.pool.leak-detection-threshold:60000}") long leakDetectionThreshold,
+            @Value("${cashflow.datasource.sqlite.busy-timeout:5000}") int sqliteBusyTimeout,
+            @Value("${cashflow.datasource.sqlite.journal-mode:WAL}") String sqliteJournalMode) {
+
+        // 環境変数 "JDBC_DATABASE_URL" があればそれ（PostgreSQL）を使い、なければローカルのSQLiteを使います。
+        String dbUrl = System.getenv("JDBC_DATABASE_URL");
+        if (dbUrl == null || dbUrl.isEmpty()) {
+            dbUrl = localUrl;
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("cashflow-pool");
+        config.setJdbcUrl(dbUrl);
+        config.setMinimumIdle(minimumIdle);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setIdleTimeout(idleTimeout);
+        config.setConnectionTimeout(connectionTimeout);
+        config.setLeakDetectionThreshold(leakDetectionThreshold);
+
+        if (dbUrl.startsWith("jdbc:sqlite:")) {
+            // SQLiteは書き込みがファイル単位で排他されるため、
+            // 複数接続からの同時書き込みで即エラーにならないよう待機時間を設定します。
+            config.addDataSourceProperty("busy_timeout", String.valueOf(sqliteBusyTimeout));
+            // WALモードでは書き込み中のトランザクションがあっても他の接続から読み取れるため、
+            // 一括登録の最中でも一覧表示やカテゴリ参照が待たされません。
+            config.addDataSourceProperty("journal_mode", sqliteJournalMode);
+        }
+
+        return new HikariDataSource(config);
+    }
+}
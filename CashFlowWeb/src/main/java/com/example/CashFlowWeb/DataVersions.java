@@ -0,0 +1,86 @@
+package com.example.CashFlowWeb;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * データの種類ごとの更新番号 (バージョン) を管理するクラス。
+ *
+ * 各DAOの書き込み処理がコミット後に bump() で番号を進め、GETのレスポンスには
+ * 依存する種類の番号から作った ETag を付けます (ConditionalGetInterceptor)。
+ * 番号が変わっていなければ、DBを読まずに 304 Not Modified を返せます。
+ *
+ * 番号はメモリ上にだけ持つため、起動時刻 (epoch) も ETag に含めて再起動前の ETag と区別します。
+ * 「今日」を基準にする集計 (予定取引の扱いなど) があるため、日付も含めます。
+ *
+ * 変更はリスナーにも通知します。(集計結果のキャッシュ AggregateCache が、変更のあった月の分だけを破棄するため)
+ */
+@Component
+public class DataVersions {
+
+    public enum Domain {
+        LEDGER,    // 取引・カテゴリ・月次集計
+        BUDGET,    // 予算
+        PORTFOLIO, // 保有資産
+        GOALS      // 目標
+    }
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLongArray versions = new AtomicLongArray(Domain.values().length);
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 更新番号を1つ進めます。DBへの書き込みがコミットされた後に呼び出してください。
+     * (コミット前に進めると、古いデータに新しい番号の ETag が付いてしまうため)
+     * 影響する月が特定できる場合は changed() を使ってください。
+     */
+    public void bump(Domain domain) {
+        changed(domain, null);
+    }
+
+    /**
+     * 更新番号を1つ進め、リスナーに変更を通知します。
+     * @param months 変更のあった月 'YYYY-MM'。すべての月に影響する場合は null
+     */
+    public void changed(Domain domain, Set<String> months) {
+        versions.incrementAndGet(domain.ordinal());
+        for (ChangeListener listener : listeners) {
+            listener.onChange(domain, months);
+        }
+    }
+
+    public void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public long get(Domain domain) {
+        return versions.get(domain.ordinal());
+    }
+
+    /**
+     * 指定した種類の現在の番号から、強い ETag (ダブルクォート付き) を作ります。
+     */
+    public String etag(Domain... domains) {
+        StringBuilder tag = new StringBuilder("\"").append(Long.toString(epoch, 36));
+        for (Domain domain : domains) {
+            tag.append('-').append(domain.name().charAt(0)).append(get(domain));
+        }
+        return tag.append('-').append(LocalDate.now().toEpochDay()).append('"').toString();
+    }
+
+    /**
+     * データの変更通知を受け取る処理。
+     */
+    @FunctionalInterface
+    public interface ChangeListener {
+        /**
+         * @param months 変更のあった月 'YYYY-MM'。すべての月に影響する場合は null
+         */
+        void onChange(Domain domain, Set<String> months);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.CashFlowWeb;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 取引の変更通知 (DataVersions) から、読み直しが必要な月を記録するクラス。
+ * メモリ上に集計用のデータを持つクラス (ColumnarLedger, RangeTotalsIndex) が共通で使います。
+ *
+ * 書き込み側のスレッドは mark() で印を付けるだけで、読み直しは次に参照したスレッドが行います。
+ * drain() は印を消してから返すため、読み直し中に書き込みがあった月は、また印が付いて次回に読み直されます。
+ */
+class DirtyMonths {
+
+    private final Set<Integer> months = new HashSet<>(); // 月番号 (年 * 12 + 月 - 1)
+    private boolean all = true; // 最初は全件の読み込みが必要
+    private volatile boolean dirty = true;
+
+    /**
+     * DataVersions.ChangeListener として登録します。取引 (LEDGER) 以外の変更は無視します。
+     */
+    void register(DataVersions dataVersions) {
+        dataVersions.addListener((domain, changed) -> {
+            if (domain == DataVersions.Domain.LEDGER) {
+                mark(changed);
+            }
+        });
+    }
+
+    /**
+     * @param changed 変更のあった月 'YYYY-MM'。null ならすべての月
+     */
+    synchronized void mark(Set<String> changed) {
+        if (changed == null) {
+            all = true;
+        } else {
+            for (String month : changed) {
+                months.add(ColumnarLedger.monthIndex(month));
+            }
+        }
+        dirty = true;
+    }
+
+    /** すべてを読み直す必要がある、という印を付けます。(読み込みに失敗した場合など) */
+    synchronized void markAll() {
+        all = true;
+        dirty = true;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * 印の付いた月を昇順で返し、印を消します。すべてを読み直す必要がある場合は null。
+     */
+    synchronized int[] drain() {
+        int[] result = all ? null : months.stream().mapToInt(Integer::intValue).sorted().toArray();
+        months.clear();
+        all = false;
+        dirty = false;
+        return result;
+    }
+}
@@ -5,16 +5,47 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
 @RestController
+@ConditionalGet(DataVersions.Domain.GOALS)
 @RequestMapping("/api/goals")
 public class GoalController {
 
-    private final GoalDAO goalDAO = new GoalDAO();
+    private final GoalDAO goalDAO;
+    private final GoalForecastService goalForecastService;
+    private final AggregateCache aggregateCache;
+    private final PredictionFeatureStore predictionFeatures;
+
+    public GoalController(GoalDAO goalDAO, GoalForecastService goalForecastService, AggregateCache aggregateCache,
+                          PredictionFeatureStore predictionFeatures) {
+        this.goalDAO = goalDAO;
+        this.goalForecastService = goalForecastService;
+        this.aggregateCache = aggregateCache;
+        this.predictionFeatures = predictionFeatures;
+    }
 
     @GetMapping
     public List<Goal> getAllGoals() {
         return goalDAO.getAllGoals();
     }
 
+    /**
+     * すべての目標について、目標日までに達成する確率と達成する月の見込みを返します。
+     * 資産予測 (/api/transactions/predict) と同じ入力で1回だけシミュレーションし、全目標をまとめて判定します。
+     * 取引・保有資産・目標のいずれかが変わるまで、同じ結果を返します。
+     */
+    @ConditionalGet({DataVersions.Domain.GOALS, DataVersions.Domain.LEDGER, DataVersions.Domain.PORTFOLIO})
+    @GetMapping("/forecast")
+    public ResponseEntity<List<GoalForecast>> getForecast(
+            @RequestParam(defaultValue = "2000") int paths,
+            @RequestParam(required = false) Long seed) {
+        if (paths < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        String key = "goals/forecast|" + paths + "|" + seed + "|" + predictionFeatures.get().getVersion();
+        return ResponseEntity.ok(aggregateCache.get(key,
+                AggregateCache.Scope.allMonths(DataVersions.Domain.GOALS, DataVersions.Domain.LEDGER, DataVersions.Domain.PORTFOLIO),
+                () -> goalForecastService.forecast(paths, seed)));
+    }
+
     @PostMapping
     public ResponseEntity<Void> addGoal(@RequestBody Goal goal) {
         boolean success = goalDAO.addGoal(goal);
@@ -1,15 +1,28 @@
 package com.example.CashFlowWeb;
 
+import org.springframework.stereotype.Repository;
+
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 
+@Repository
 public class GoalDAO {
 
+    private final DBManager dbManager;
+    private final DataVersions dataVersions;
+
+    public GoalDAO(DBManager dbManager, DataVersions dataVersions) {
+        this.dbManager = dbManager;
+        this.dataVersions = dataVersions;
+    }
+
     public List<Goal> getAllGoals() {
         List<Goal> goals = new ArrayList<>();
         String sql = "SELECT * FROM goals ORDER BY target_date";
-        try (Connection conn = DBManager.connect(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = dbManager.connect(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 goals.add(mapToGoal(rs));
             }
@@ -21,15 +34,16 @@ public class GoalDAO {
 
     public boolean addGoal(Goal goal) {
         String sql = "INSERT INTO goals(name, target_amount, current_amount, target_date, image_url) VALUES(?, ?, ?, ?, ?)";
-        try (Connection conn = DBManager.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dbManager.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, goal.getName());
-            pstmt.setDouble(2, goal.getTargetAmount());
-            pstmt.setDouble(3, goal.getCurrentAmount());
-            pstmt.setString(4, goal.getTargetDate());
+            pstmt.setLong(2, goal.getTargetAmount());
+            pstmt.setLong(3, goal.getCurrentAmount());
+            pstmt.setObject(4, targetDateValue(goal));
             pstmt.setString(5, goal.getImageUrl());
             pstmt.executeUpdate();
+            dataVersions.bump(DataVersions.Domain.GOALS);
             return true;
-        } catch (SQLException e) {
+        } catch (SQLException | DateTimeParseException e) {
             e.printStackTrace();
             return false;
         }
@@ -37,15 +51,19 @@ public class GoalDAO {
 
     public boolean updateGoal(Goal goal) {
         String sql = "UPDATE goals SET name = ?, target_amount = ?, current_amount = ?, target_date = ?, image_url = ? WHERE id = ?";
-        try (Connection conn = DBManager.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dbManager.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, goal.getName());
-            pstmt.setDouble(2, goal.getTargetAmount());
-            pstmt.setDouble(3, goal.getCurrentAmount());
-            pstmt.setString(4, goal.getTargetDate());
+            pstmt.setLong(2, goal.getTargetAmount());
+            pstmt.setLong(3, goal.getCurrentAmount());
+            pstmt.setObject(4, targetDateValue(goal));
             pstmt.setString(5, goal.getImageUrl());
             pstmt.setInt(6, goal.getId());
-            return pstmt.executeUpdate() > 0;
-        } catch (SQLException e) {
+            boolean changed = pstmt.executeUpdate() > 0;
+            if (changed) {
+                dataVersions.bump(DataVersions.Domain.GOALS);
+            }
+            return changed;
+        } catch (SQLException | DateTimeParseException e) {
             e.printStackTrace();
             return false;
         }
@@ -53,22 +71,36 @@ public class GoalDAO {
     
     public boolean deleteGoal(int id) {
         String sql = "DELETE FROM goals WHERE id = ?";
-        try (Connection conn = DBManager.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dbManager.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
-            return pstmt.executeUpdate() > 0;
+            boolean changed = pstmt.executeUpdate() > 0;
+            if (changed) {
+                dataVersions.bump(DataVersions.Domain.GOALS);
+            }
+            return changed;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
 
+    // 目標日は 'YYYY-MM-DD' の文字列で受け取り、日付列の値に変換する (未設定なら null)
+    private Object targetDateValue(Goal goal) {
+        String targetDate = goal.getTargetDate();
+        if (targetDate == null || targetDate.isBlank()) {
+            return null;
+        }
+        return dbManager.getDialect().dateValue(LocalDate.parse(targetDate.trim()));
+    }
+
     private Goal mapToGoal(ResultSet rs) throws SQLException {
         Goal goal = new Goal();
         goal.setId(rs.getInt("id"));
         goal.setName(rs.getString("name"));
-        goal.setTargetAmount(rs.getDouble("target_amount"));
-        goal.setCurrentAmount(rs.getDouble("current_amount"));
-        goal.setTargetDate(rs.getString("target_date"));
+        goal.setTargetAmount(rs.getLong("target_amount"));
+        goal.setCurrentAmount(rs.getLong("current_amount"));
+        LocalDate targetDate = dbManager.getDialect().getDate(rs, "target_date");
+        goal.setTargetDate(targetDate != null ? targetDate.toString() : null);
         goal.setImageUrl(rs.getString("image_url"));
         return goal;
     }
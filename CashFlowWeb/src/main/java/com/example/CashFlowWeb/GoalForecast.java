@@ -0,0 +1,36 @@
+package com.example.CashFlowWeb;
+
+/**
+ * 目標ごとの達成見込みを保持するモデルクラス。
+ */
+public class GoalForecast {
+    private int goalId;
+    private String name;
+    private long targetAmount;              // 円
+    private long currentAmount;             // 円
+    private String targetDate;              // 'YYYY-MM-DD'。未設定なら null
+    private Double probability;             // 目標日までに達成する確率 (0〜1)。目標日が未設定なら null
+    private String expectedCompletionMonth; // 達成する月の中央値 'YYYY-MM'。予測期間内に半数のパスが達成しなければ null
+
+    public GoalForecast(int goalId, String name, long targetAmount, long currentAmount, String targetDate,
+                        Double probability, String expectedCompletionMonth) {
+        this.goalId = goalId;
+        this.name = name;
+        this.targetAmount = targetAmount;
+        this.currentAmount = currentAmount;
+        this.targetDate = targetDate;
+        this.probability = probability;
+        this.expectedCompletionMonth = expectedCompletionMonth;
+    }
+
+    // デフォルトコンストラクタ (JSON変換用)
+    public GoalForecast() {}
+
+    public int getGoalId() { return goalId; }
+    public String getName() { return name; }
+    public long getTargetAmount() { return targetAmount; }
+    public long getCurrentAmount() { return currentAmount; }
+    public String getTargetDate() { return targetDate; }
+    public Double getProbability() { return probability; }
+    public String getExpectedCompletionMonth() { return expectedCompletionMonth; }
+}
@@ -0,0 +1,134 @@
+package com.example.CashFlowWeb;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * すべての目標について、目標日までに達成する確率と、達成する月の見込みを求めるクラス。
+ *
+ * 資産予測と同じ入力 (PredictionFeatures) でシミュレーションを1回だけ実行し、その全パスに対して全目標を判定します。
+ * 目標への積立は、今後の資産の増加分 (パスごとの m ヶ月後の資産 − 現在の資産) から、
+ * 目標日の早い順 (未設定は最後) に充てるものとします。
+ * そのため k 番目の目標は、増加分が「1〜k 番目の目標の残り金額の合計」に届いた月に達成となります。
+ */
+@Component
+public class GoalForecastService {
+
+    // 予測期間は最も遠い目標日の2倍 (目標日の後に達成する場合も月を求めるため)。ただし最低でもこの月数
+    static final int MIN_HORIZON_MONTHS = 60;
+
+    private final GoalDAO goalDAO;
+    private final PredictionFeatureStore predictionFeatures;
+    private final ProjectionEngine projectionEngine;
+
+    public GoalForecastService(GoalDAO goalDAO, PredictionFeatureStore predictionFeatures, ProjectionEngine projectionEngine) {
+        this.goalDAO = goalDAO;
+        this.predictionFeatures = predictionFeatures;
+        this.projectionEngine = projectionEngine;
+    }
+
+    /**
+     * @param seed 乱数のシード。null なら /predict と同じく入力値から決める
+     */
+    public List<GoalForecast> forecast(int paths, Long seed) {
+        List<Goal> goals = goalDAO.getAllGoals();
+        if (goals.isEmpty()) {
+            return List.of();
+        }
+        PredictionFeatures features = predictionFeatures.get();
+        YearMonth thisMonth = YearMonth.now();
+
+        // 積立の順 (目標日の早い順、未設定は最後)
+        List<Goal> ordered = new ArrayList<>(goals);
+        ordered.sort(Comparator.comparing((Goal g) -> targetMonth(g, thisMonth), Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparingInt(Goal::getId));
+
+        int n = ordered.size();
+        long[] required = new long[n]; // 1〜k 番目の目標の残り金額の合計
+        int farthest = 0;
+        long sum = 0;
+        for (int k = 0; k < n; k++) {
+            Goal g = ordered.get(k);
+            sum += Math.max(0, g.getTargetAmount() - g.getCurrentAmount());
+            required[k] = sum;
+            Integer t = targetMonth(g, thisMonth);
+            if (t != null) {
+                farthest = Math.max(farthest, t);
+            }
+        }
+        int horizon = Math.min(ProjectionEngine.MAX_MONTHS, Math.max(MIN_HORIZON_MONTHS, farthest * 2));
+
+        long[][] values = projectionEngine.simulatePaths(features.toModel(), horizon, paths,
+                seed != null ? seed : features.defaultSeed());
+        int pathCount = values[0].length;
+
+        // reached[k][m] = k 番目の目標を m ヶ月目に達成したパスの数 (添字 horizon+1 は予測期間内に未達成)
+        int[][] reached = new int[n][horizon + 2];
+        int[] next = new int[pathCount]; // パスごとの、まだ達成していない最初の目標
+        long[] start = values[0];
+        for (int m = 0; m <= horizon; m++) {
+            long[] column = values[m];
+            for (int p = 0; p < pathCount; p++) {
+                long saved = column[p] - start[p];
+                int k = next[p];
+                while (k < n && saved >= required[k]) {
+                    reached[k][m]++;
+                    k++;
+                }
+                next[p] = k;
+            }
+        }
+        for (int p = 0; p < pathCount; p++) {
+            for (int k = next[p]; k < n; k++) {
+                reached[k][horizon + 1]++;
+            }
+        }
+
+        List<GoalForecast> result = new ArrayList<>(n);
+        for (Goal g : goals) {
+            int k = ordered.indexOf(g);
+            int[] counts = reached[k];
+
+            Integer t = targetMonth(g, thisMonth);
+            Double probability = null;
+            if (t != null && t < 0) {
+                // 期日を過ぎた目標は、すでに達成しているかどうかだけで決まる
+                probability = g.getCurrentAmount() >= g.getTargetAmount() ? 1.0 : 0.0;
+            } else if (t != null) {
+                // 予測期間 (最長 MAX_MONTHS) より先の目標日は、予測期間の終わりまでに達成する確率とする
+                int byTarget = 0;
+                for (int m = 0; m <= Math.min(t, horizon); m++) {
+                    byTarget += counts[m];
+                }
+                probability = (double) byTarget / pathCount;
+            }
+
+            // 達成する月の中央値 (未達成のパスは予測期間の外として数える)
+            int median = ProjectionEngine.rank(0.5, pathCount);
+            int m = 0;
+            int seen = counts[0];
+            while (seen <= median) {
+                seen += counts[++m];
+            }
+            String completion = m <= horizon ? thisMonth.plusMonths(m).toString() : null;
+
+            result.add(new GoalForecast(g.getId(), g.getName(), g.getTargetAmount(), g.getCurrentAmount(), g.getTargetDate(),
+                    probability, completion));
+        }
+        return result;
+    }
+
+    // 目標日の月が今月から何ヶ月後か (過ぎていれば負)。未設定なら null
+    private static Integer targetMonth(Goal goal, YearMonth thisMonth) {
+        if (goal.getTargetDate() == null || goal.getTargetDate().isBlank()) {
+            return null;
+        }
+        return (int) ChronoUnit.MONTHS.between(thisMonth, YearMonth.from(LocalDate.parse(goal.getTargetDate())));
+    }
+}
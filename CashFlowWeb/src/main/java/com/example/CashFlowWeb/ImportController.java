@@ -0,0 +1,55 @@
+package com.example.CashFlowWeb;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * 銀行・カードの明細CSVを取り込むためのAPIコントローラー。
+ */
+@RestController
+@RequestMapping("/api/transactions")
+public class ImportController {
+
+    private final StatementImporter statementImporter;
+
+    public ImportController(StatementImporter statementImporter) {
+        this.statementImporter = statementImporter;
+    }
+
+    /**
+     * リクエスト本文のCSVを取り込みます。
+     * 文字コードは charset で指定します。(多くの銀行の明細は Shift_JIS のため、その場合は charset=Shift_JIS)
+     * 取り込みに失敗した場合は何も登録せず、理由を含む結果を 400 で返します。
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ImportProgress> importStatement(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "UTF-8") String charset) throws IOException {
+        Charset cs;
+        try {
+            cs = Charset.forName(charset);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ImportProgress result = statementImporter.importCsv(request.getInputStream(), cs, request.getContentLengthLong());
+        return result.getState() == ImportProgress.State.COMPLETED
+            ? ResponseEntity.ok(result)
+            : ResponseEntity.badRequest().body(result);
+    }
+
+    /**
+     * 直近のインポートの進捗・結果を新しい順に取得します。
+     * 大きなファイルの取り込み中は、このAPIで読み込み済みの割合や件数を確認できます。
+     */
+    @GetMapping("/imports")
+    public List<ImportProgress> getRecentImports() {
+        return statementImporter.getRecentImports();
+    }
+}
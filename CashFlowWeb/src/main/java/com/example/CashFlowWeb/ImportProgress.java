@@ -0,0 +1,82 @@
+package com.example.CashFlowWeb;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 明細インポート1回分の進捗と結果を保持するクラス。
+ * インポート中のスレッドだけが更新し、進捗APIからは別スレッドで読み取られます。
+ */
+public class ImportProgress {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    private final int id;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long totalBytes; // Content-Length (不明なら -1)
+
+    private volatile State state = State.RUNNING;
+    private volatile String message;
+    private volatile long bytesRead;
+    private volatile int rowsRead;
+    private volatile int inserted;
+    private volatile int duplicates;
+    private volatile int rejected;
+    private volatile long elapsedMillis;
+
+    // レスポンスに含めるエラー行 (上限 TransactionIngestService.MAX_REPORTED_ERRORS 件)
+    private final List<BulkInsertResult.RowError> errors = new ArrayList<>();
+
+    public ImportProgress(int id, long totalBytes) {
+        this.id = id;
+        this.totalBytes = totalBytes;
+    }
+
+    // --- Getter Methods ---
+    public int getId() { return id; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public long getTotalBytes() { return totalBytes; }
+    public State getState() { return state; }
+    public String getMessage() { return message; }
+    public long getBytesRead() { return bytesRead; }
+    public int getRowsRead() { return rowsRead; }
+    public int getInserted() { return inserted; }
+    public int getDuplicates() { return duplicates; }
+    public int getRejected() { return rejected; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public synchronized List<BulkInsertResult.RowError> getErrors() {
+        return new ArrayList<>(errors);
+    }
+
+    // 読み込んだバイト数の割合 (%)。サイズ不明の場合は null
+    public Double getPercent() {
+        return totalBytes > 0 ? Math.min(100.0, bytesRead * 100.0 / totalBytes) : null;
+    }
+
+    // --- インポート処理からの更新用 ---
+    void update(long bytesRead, int rowsRead, int inserted, int duplicates, long elapsedMillis) {
+        this.bytesRead = bytesRead;
+        this.rowsRead = rowsRead;
+        this.inserted = inserted;
+        this.duplicates = duplicates;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    synchronized void reject(int row, String reason) {
+        rejected++;
+        if (errors.size() < TransactionIngestService.MAX_REPORTED_ERRORS) {
+            errors.add(new BulkInsertResult.RowError(row, reason));
+        }
+    }
+
+    void complete() {
+        state = State.COMPLETED;
+    }
+
+    void fail(String reason) {
+        message = reason;
+        state = State.FAILED;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.CashFlowWeb;
+
+import java.util.List;
+
+/**
+ * 取引の変更後にライブ更新 (/api/stream) で送る差分データ。
+ */
+public class LedgerDelta {
+    private long balance; // 円
+    private List<MonthlySummary> months; // 変更のあった月の最新の合計
+    private boolean reload;              // 直近の取引に反映できない変更 (カテゴリ変更・一括登録など)。画面全体を読み直す
+
+    public LedgerDelta(long balance, List<MonthlySummary> months, boolean reload) {
+        this.balance = balance;
+        this.months = months;
+        this.reload = reload;
+    }
+
+    // デフォルトコンストラクタ (JSON変換用)
+    public LedgerDelta() {}
+
+    // --- Getter Methods ---
+    public long getBalance() { return balance; }
+    public List<MonthlySummary> getMonths() { return months; }
+    public boolean getReload() { return reload; }
+}
@@ -0,0 +1,222 @@
+package com.example.CashFlowWeb;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 開いているダッシュボードへ、データの変更を Server-Sent Events (/api/stream) で送るクラス。
+ *
+ * 接続は SseEmitter (サーブレットの非同期処理) で保持するため、待機中の接続はスレッドを占有しません。
+ * 送信はすべて専用の1スレッドで行い、書き込みを行ったリクエストは送信を待ちません。
+ *
+ * 変更は DataVersions の通知で受け取ります。続けて書き込みがあった場合は短い間隔でまとめてから、
+ * 残高・変更のあった月の合計・目標の進捗など、画面の更新に必要な差分だけを読み込んで送ります。
+ * 接続がなければ何も読み込みません。
+ *
+ * イベント:
+ *   transaction … 登録された取引 (TransactionController から)
+ *   ledger      … 残高と、変更のあった月の合計 (LedgerDelta)。
+ *                 transaction で伝えていない変更 (一括登録・明細の取り込み・更新・削除) を含む場合は、
+ *                 直近の取引やカテゴリ別内訳も変わるため、画面全体の読み直し (reload) を指示します
+ *   goals       … 目標の一覧 (進捗率は currentAmount / targetAmount)
+ *   portfolio   … 保有資産の評価額の合計
+ */
+@Component
+public class LiveUpdates {
+
+    // 変更をまとめてから送るまでの待ち時間 (ミリ秒)
+    private static final long FLUSH_DELAY_MILLIS = 100;
+
+    // 切断されたときに、ブラウザが再接続するまでの時間 (ミリ秒)
+    private static final long RECONNECT_MILLIS = 3000;
+
+    private final TransactionDAO transactionDAO;
+    private final GoalDAO goalDAO;
+    private final AssetDAO assetDAO;
+    private final CategoryRegistry categoryRegistry;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+
+    private final Set<SseEmitter> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService sender;
+
+    // まだ送っていない変更 (lock で保護)
+    private final Object lock = new Object();
+    private final Set<DataVersions.Domain> pendingDomains = EnumSet.noneOf(DataVersions.Domain.class);
+    private final Set<String> pendingMonths = new HashSet<>();
+    private boolean pendingAllMonths;
+    private int pendingLedgerChanges; // 取引の変更通知の数
+    private int pendingAnnounced;     // そのうち transaction で送った (送る) 数
+    private boolean flushScheduled;
+
+    public LiveUpdates(DataVersions dataVersions, TransactionDAO transactionDAO, GoalDAO goalDAO, AssetDAO assetDAO,
+                       CategoryRegistry categoryRegistry, ObjectMapper objectMapper,
+                       @Value("${cashflow.stream.timeout-minutes:30}") long timeoutMinutes,
+                       @Value("${cashflow.stream.heartbeat-seconds:20}") long heartbeatSeconds) {
+        this.transactionDAO = transactionDAO;
+        this.goalDAO = goalDAO;
+        this.assetDAO = assetDAO;
+        this.categoryRegistry = categoryRegistry;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+
+        this.sender = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "live-updates");
+            t.setDaemon(true);
+            return t;
+        });
+        // 何も送らない時間が続くと、プロキシに接続を切られたり、切断に気付けなかったりするため
+        sender.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+
+        dataVersions.addListener(this::onChange);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscribers.forEach(SseEmitter::complete);
+        subscribers.clear();
+    }
+
+    /**
+     * 新しい接続を登録します。期限 (timeout-minutes) が来たら閉じ、ブラウザ側の EventSource が自動で再接続します。
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(emitter));
+        subscribers.add(emitter);
+        try {
+            // 最初の1行でレスポンスヘッダーを確定させ、クライアントに接続済みを知らせる
+            emitter.send(SseEmitter.event().reconnectTime(RECONNECT_MILLIS).comment("connected"));
+        } catch (IOException e) {
+            subscribers.remove(emitter);
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * 取引が1件登録されたことを送ります。(直近の取引の一覧とカテゴリ別内訳に反映するため)
+     */
+    public void transactionAdded(Transaction t) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            pendingAnnounced++;
+        }
+        sender.execute(() -> {
+            Category category = categoryRegistry.getCategoryById(t.getCategoryId());
+            broadcast("transaction", new Transaction(t.getId(), t.getDate(), t.getAmount(), t.getType(), t.getCategoryId(),
+                    category != null ? category.getName() : null, t.getIsFuture(), t.getIsExtraordinary()));
+        });
+    }
+
+    // DataVersions からの変更通知 (書き込んだスレッドで呼ばれるため、記録するだけで読み込みはしない)
+    private void onChange(DataVersions.Domain domain, Set<String> months) {
+        if (domain == DataVersions.Domain.BUDGET || subscribers.isEmpty()) {
+            return; // 予算はダッシュボードに表示していない
+        }
+        synchronized (lock) {
+            pendingDomains.add(domain);
+            if (domain == DataVersions.Domain.LEDGER) {
+                pendingLedgerChanges++;
+                if (months == null) {
+                    pendingAllMonths = true;
+                } else {
+                    pendingMonths.addAll(months);
+                }
+            }
+            if (!flushScheduled) {
+                flushScheduled = true;
+                sender.schedule(this::flush, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        Set<DataVersions.Domain> domains;
+        Set<String> months;
+        boolean reload;
+        synchronized (lock) {
+            domains = EnumSet.copyOf(pendingDomains);
+            months = new HashSet<>(pendingMonths);
+            reload = pendingAllMonths || pendingLedgerChanges > pendingAnnounced;
+            pendingDomains.clear();
+            pendingMonths.clear();
+            pendingAllMonths = false;
+            pendingLedgerChanges = 0;
+            pendingAnnounced = 0;
+            flushScheduled = false;
+        }
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        if (domains.contains(DataVersions.Domain.LEDGER)) {
+            long balance = transactionDAO.calculateCurrentBalance();
+            broadcast("ledger", reload
+                    ? new LedgerDelta(balance, List.of(), true)
+                    : new LedgerDelta(balance, transactionDAO.getMonthlySummary(months), false));
+        }
+        if (domains.contains(DataVersions.Domain.GOALS)) {
+            broadcast("goals", goalDAO.getAllGoals());
+        }
+        if (domains.contains(DataVersions.Domain.PORTFOLIO)) {
+            long totalValue = assetDAO.getAllAssets().stream().mapToLong(Asset::getCurrentValue).sum();
+            broadcast("portfolio", Map.of("totalValue", totalValue));
+        }
+    }
+
+    private void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            send(SseEmitter.event().comment("ping").build());
+        }
+    }
+
+    // JSONへの変換は接続数によらず1回だけ行い、同じ内容を全接続へ送る
+    private void broadcast(String name, Object data) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            System.err.println("ライブ更新の変換エラー: " + e.getMessage());
+            return;
+        }
+        send(SseEmitter.event().name(name).data(json, MediaType.APPLICATION_JSON).build());
+    }
+
+    private void send(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        for (SseEmitter emitter : subscribers) {
+            try {
+                emitter.send(event);
+            } catch (IOException | RuntimeException e) {
+                // 切断済みの接続。以降は送らない
+                subscribers.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.CashFlowWeb;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.io.IOException;
+
+/**
+ * 一覧APIで件数が多くなるモデル (取引・保有資産・月次集計) のJSON変換。
+ *
+ * getter を順に呼ぶ通常の変換では、表示用の文字列 (getFormatted~) や評価額の計算が1件ごとに実行され、
+ * 画面で使わない項目のぶんだけ応答も大きくなります。ここでは保存されている値だけを JsonGenerator へ直接書き出し、
+ * 計算値とフォーマット済み文字列は Formatted ビューが指定された場合 (?formatted=true) にだけ出力します。
+ * (読み込み (@RequestBody) は従来どおり setter / フィールドから行います)
+ */
+public final class ModelSerializers {
+
+    private ModelSerializers() {}
+
+    /** 計算値とフォーマット済み文字列も出力するビュー */
+    public interface Formatted {}
+
+    /**
+     * 応答に使うビューを指定します。formatted が false なら計算値を含まない形になります。
+     * (application.properties で default-view-inclusion を有効にしているため、ビューの指定がない項目は常に出力されます)
+     */
+    public static MappingJacksonValue withView(Object body, boolean formatted) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (formatted) {
+            value.setSerializationView(Formatted.class);
+        }
+        return value;
+    }
+
+    private static boolean formatted(SerializerProvider provider) {
+        Class<?> view = provider.getActiveView();
+        return view != null && Formatted.class.isAssignableFrom(view);
+    }
+
+    public static class TransactionSerializer extends StdSerializer<Transaction> {
+        public TransactionSerializer() {
+            super(Transaction.class);
+        }
+
+        @Override
+        public void serialize(Transaction t, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeNumberField("id", t.getId());
+            if (t.getDate() != null) {
+                gen.writeStringField("date", t.getDate().toString());
+            } else {
+                gen.writeNullField("date");
+            }
+            gen.writeNumberField("amount", t.getAmount());
+            gen.writeStringField("type", t.getType());
+            gen.writeNumberField("categoryId", t.getCategoryId());
+            gen.writeStringField("categoryName", t.getCategoryName());
+            gen.writeBooleanField("isFuture", t.getIsFuture());
+            gen.writeBooleanField("isExtraordinary", t.getIsExtraordinary());
+            if (formatted(provider)) {
+                gen.writeStringField("formattedAmount", t.getFormattedAmount());
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    public static class AssetSerializer extends StdSerializer<Asset> {
+        public AssetSerializer() {
+            super(Asset.class);
+        }
+
+        @Override
+        public void serialize(Asset a, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeNumberField("id", a.getId());
+            gen.writeStringField("name", a.getName());
+            gen.writeStringField("tickerSymbol", a.getTickerSymbol());
+            gen.writeNumberField("quantity", a.getQuantity());
+            gen.writeNumberField("purchasePrice", a.getPurchasePrice());
+            gen.writeNumberField("currentPrice", a.getCurrentPrice());
+            gen.writeStringField("assetType", a.getAssetType());
+            if (formatted(provider)) {
+                gen.writeNumberField("purchaseValue", a.getPurchaseValue());
+                gen.writeNumberField("currentValue", a.getCurrentValue());
+                gen.writeNumberField("gainLoss", a.getGainLoss());
+                gen.writeNumberField("gainLossRate", a.getGainLossRate());
+                gen.writeStringField("formattedPurchaseValue", a.getFormattedPurchaseValue());
+                gen.writeStringField("formattedCurrentValue", a.getFormattedCurrentValue());
+                gen.writeStringField("formattedGainLoss", a.getFormattedGainLoss());
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    public static class MonthlySummarySerializer extends StdSerializer<MonthlySummary> {
+        public MonthlySummarySerializer() {
+            super(MonthlySummary.class);
+        }
+
+        @Override
+        public void serialize(MonthlySummary s, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("month", s.getMonth());
+            gen.writeNumberField("totalIncome", s.getTotalIncome());
+            gen.writeNumberField("totalExpense", s.getTotalExpense());
+            if (formatted(provider)) {
+                gen.writeNumberField("netProfit", s.getNetProfit());
+                gen.writeStringField("formattedIncome", s.getFormattedIncome());
+                gen.writeStringField("formattedExpense", s.getFormattedExpense());
+                gen.writeStringField("formattedNetProfit", s.getFormattedNetProfit());
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.CashFlowWeb;
+
+/**
+ * 月次集計テーブル(monthly_rollups)の1行を保持するモデルクラス。
+ * 月 × カテゴリ × 収支 × 臨時フラグ × 未来フラグ ごとの合計額と件数です。
+ */
+public class MonthlyRollup {
+    private String month; // 'YYYY-MM'
+    private int categoryId;
+    private String type;
+    private boolean isExtraordinary;
+    private boolean isFuture;
+    private long totalAmount; // 円
+    private int txCount;
+
+    public MonthlyRollup(String month, int categoryId, String type, boolean isExtraordinary, boolean isFuture, long totalAmount, int txCount) {
+        this.month = month;
+        this.categoryId = categoryId;
+        this.type = type;
+        this.isExtraordinary = isExtraordinary;
+        this.isFuture = isFuture;
+        this.totalAmount = totalAmount;
+        this.txCount = txCount;
+    }
+
+    // --- Getter Methods ---
+    public String getMonth() { return month; }
+    public int getCategoryId() { return categoryId; }
+    public String getType() { return type; }
+    public boolean getIsExtraordinary() { return isExtraordinary; }
+    public boolean getIsFuture() { return isFuture; }
+    public long getTotalAmount() { return totalAmount; }
+    public int getTxCount() { return txCount; }
+
+    // 収入ならプラス、支出ならマイナスの合計額
+    public long getSignedAmount() {
+        return "INCOME".equals(type) ? totalAmount : -totalAmount;
+    }
+}
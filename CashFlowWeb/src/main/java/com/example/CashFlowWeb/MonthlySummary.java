@@ -1,18 +1,18 @@
 package com.example.CashFlowWeb;
 
-import java.text.DecimalFormat;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 /**
  * 月次集計のデータを保持するモデルクラス。
+ * JSONへの変換は ModelSerializers.MonthlySummarySerializer で行います。
  */
+@JsonSerialize(using = ModelSerializers.MonthlySummarySerializer.class)
 public class MonthlySummary {
     private String month;
-    private double totalIncome;
-    private double totalExpense;
+    private long totalIncome;  // 円
+    private long totalExpense; // 円
 
-    private static final DecimalFormat FORMATTER = new DecimalFormat("#,###円");
-
-    public MonthlySummary(String month, double totalIncome, double totalExpense) {
+    public MonthlySummary(String month, long totalIncome, long totalExpense) {
         this.month = month;
         this.totalIncome = totalIncome;
         this.totalExpense = totalExpense;
@@ -28,28 +28,28 @@ public class MonthlySummary {
         return month;
     }
 
-    public double getTotalIncome() {
+    public long getTotalIncome() {
         return totalIncome;
     }
 
-    public double getTotalExpense() {
+    public long getTotalExpense() {
         return totalExpense;
     }
 
-    public double getNetProfit() {
+    public long getNetProfit() {
         return totalIncome - totalExpense;
     }
 
-    // フォーマット済み文字列
+    // フォーマット済み文字列 (純利益とともに ?formatted=true の場合のみJSONに含める)
     public String getFormattedIncome() {
-        return FORMATTER.format(totalIncome);
+        return YenFormat.format(totalIncome) + "円";
     }
     
     public String getFormattedExpense() {
-        return FORMATTER.format(totalExpense);
+        return YenFormat.format(totalExpense) + "円";
     }
     
     public String getFormattedNetProfit() {
-        return FORMATTER.format(getNetProfit());
+        return YenFormat.format(getNetProfit()) + "円";
     }
 }
\ No newline at end of file
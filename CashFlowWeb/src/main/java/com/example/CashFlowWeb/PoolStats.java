@@ -0,0 +1,39 @@
+package com.example.CashFlowWeb;
+
+/**
+ * コネクションプールの利用状況を保持するモデルクラス。
+ */
+public class PoolStats {
+    private String poolName;
+    private int activeConnections;      // 使用中の接続数
+    private int idleConnections;        // 待機中の接続数
+    private int totalConnections;       // プール内の総接続数
+    private int threadsAwaitingConnection; // 接続の空き待ちをしているスレッド数
+    private int maximumPoolSize;
+
+    public PoolStats(String poolName, int activeConnections, int idleConnections, int totalConnections, int threadsAwaitingConnection, int maximumPoolSize) {
+        this.poolName = poolName;
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.totalConnections = totalConnections;
+        this.threadsAwaitingConnection = threadsAwaitingConnection;
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    // デフォルトコンストラクタ (JSON変換用)
+    public PoolStats() {}
+
+    // --- Getter Methods ---
+    public String getPoolName() { return poolName; }
+    public int getActiveConnections() { return activeConnections; }
+    public int getIdleConnections() { return idleConnections; }
+    public int getTotalConnections() { return totalConnections; }
+    public int getThreadsAwaitingConnection() { return threadsAwaitingConnection; }
+    public int getMaximumPoolSize() { return maximumPoolSize; }
+
+    // 使用率 (0.0〜1.0)。1.0に張り付いていればプールが飽和しています。
+    public double getUtilization() {
+        if (maximumPoolSize == 0) return 0.0;
+        return (double) activeConnections / maximumPoolSize;
+    }
+}
@@ -1,25 +1,32 @@
 package com.example.CashFlowWeb;
 
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
 
 @RestController
+@ConditionalGet(DataVersions.Domain.PORTFOLIO)
 @RequestMapping("/api/portfolio")
 public class PortfolioController {
     
-    private final AssetDAO assetDAO = new AssetDAO();
+    private final AssetDAO assetDAO;
 
+    public PortfolioController(AssetDAO assetDAO) {
+        this.assetDAO = assetDAO;
+    }
+
+    // formatted=true を指定すると、評価額・損益とそのフォーマット済み文字列を含めます
     @GetMapping("/assets")
-    public List<Asset> getAllAssets() {
-        return assetDAO.getAllAssets();
+    public MappingJacksonValue getAllAssets(@RequestParam(defaultValue = "false") boolean formatted) {
+        return ModelSerializers.withView(assetDAO.getAllAssets(), formatted);
     }
 
     @GetMapping("/assets/{id}")
-    public ResponseEntity<Asset> getAssetById(@PathVariable int id) {
+    public ResponseEntity<MappingJacksonValue> getAssetById(@PathVariable int id,
+                                                            @RequestParam(defaultValue = "false") boolean formatted) {
         Asset asset = assetDAO.getAssetById(id);
         if (asset != null) {
-            return ResponseEntity.ok(asset);
+            return ResponseEntity.ok(ModelSerializers.withView(asset, formatted));
         } else {
             return ResponseEntity.notFound().build();
         }
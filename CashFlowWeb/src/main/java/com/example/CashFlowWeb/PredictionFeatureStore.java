@@ -0,0 +1,130 @@
+package com.example.CashFlowWeb;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 資産予測の特徴量 (PredictionFeatures) を保持するクラス。
+ *
+ * 特徴量は取引 (LEDGER) と保有資産 (PORTFOLIO) の更新番号、直近6ヶ月の基準になる月が変わったときだけ作り直し、
+ * それ以外は保持しているスナップショットをそのまま返します。(予測のたびに残高や月次集計を読み直さないため)
+ */
+@Component
+public class PredictionFeatureStore {
+
+    // ポートフォリオがあれば年利4%、なければ0.1%と仮定
+    static final double PORTFOLIO_ANNUAL_RATE = 0.04;
+    static final double CASH_ANNUAL_RATE = 0.001;
+
+    private final TransactionDAO transactionDAO;
+    private final AssetDAO assetDAO;
+    private final ColumnarLedger columnarLedger;
+    private final DataVersions dataVersions;
+
+    private volatile PredictionFeatures current;
+
+    public PredictionFeatureStore(TransactionDAO transactionDAO, AssetDAO assetDAO, ColumnarLedger columnarLedger, DataVersions dataVersions) {
+        this.transactionDAO = transactionDAO;
+        this.assetDAO = assetDAO;
+        this.columnarLedger = columnarLedger;
+        this.dataVersions = dataVersions;
+    }
+
+    /**
+     * 現在のデータに対応するスナップショットを返します。
+     */
+    public PredictionFeatures get() {
+        String version = currentVersion();
+        PredictionFeatures snapshot = current;
+        if (snapshot != null && snapshot.getVersion().equals(version)) {
+            return snapshot;
+        }
+
+        snapshot = compute(version);
+        // 集計中に書き込みがあった場合は、古い値の可能性があるため保持しない (次回作り直す)
+        if (version.equals(currentVersion())) {
+            current = snapshot;
+        }
+        return snapshot;
+    }
+
+    private String currentVersion() {
+        return "L" + dataVersions.get(DataVersions.Domain.LEDGER)
+                + "-P" + dataVersions.get(DataVersions.Domain.PORTFOLIO)
+                + "-" + YearMonth.now();
+    }
+
+    private PredictionFeatures compute(String version) {
+        // 列データが有効ならそこから、なければ月次集計から集計する (どちらも取引の明細は読まない)
+        ColumnarLedger.Columns columns = columnarLedger.snapshot();
+
+        // 1. 現状資産 (現金 + ポートフォリオ評価額)
+        long currentCash = columns != null ? columns.balance() : transactionDAO.calculateCurrentBalance();
+        long portfolioValue = assetDAO.getAllAssets().stream()
+                                    .mapToLong(Asset::getCurrentValue).sum();
+        double annualInterestRate = (portfolioValue > 0) ? PORTFOLIO_ANNUAL_RATE : CASH_ANNUAL_RATE;
+
+        // 2. 直近6ヶ月のデータ分析
+        LocalDate cutoff = LocalDate.now().minusMonths(6).withDayOfMonth(1);
+        long regularMonthlyNet;
+        int extraordinaryCount;
+        long extraordinaryTotal;
+
+        if (columns != null) {
+            int from = (int) cutoff.toEpochDay();
+            int to = ColumnarLedger.MAX_DAY;
+            if (columns.count(from, to, 0, 0) == 0) {
+                return noData(version, currentCash, portfolioValue, annualInterestRate);
+            }
+            // A. 【固定収支】臨時フラグのない行だけの、月ごとの収支の平均
+            regularMonthlyNet = Math.round(columns.averageMonthlyNet(from, to, ColumnarLedger.EXTRAORDINARY, 0));
+            // B. 【臨時支出】臨時フラグのある支出の件数と合計
+            int extraordinaryExpense = ColumnarLedger.EXTRAORDINARY | ColumnarLedger.INCOME;
+            extraordinaryCount = columns.count(from, to, extraordinaryExpense, ColumnarLedger.EXTRAORDINARY);
+            extraordinaryTotal = columns.total(from, to, extraordinaryExpense, ColumnarLedger.EXTRAORDINARY);
+        } else {
+            List<MonthlyRollup> recentRollups = transactionDAO.getMonthlyRollups(cutoff.toString().substring(0, 7));
+            if (recentRollups.isEmpty()) {
+                return noData(version, currentCash, portfolioValue, annualInterestRate);
+            }
+
+            // A. 【固定収支】の計算 (臨時フラグがないものだけで、基礎体力を測る)
+            regularMonthlyNet = calculateRegularMonthlyNet(recentRollups);
+
+            // B. 【臨時支出】のリスク分析 (ユーザーの「癖」を数値化)
+            extraordinaryCount = 0;
+            extraordinaryTotal = 0;
+            for (MonthlyRollup r : recentRollups) {
+                if (r.getIsExtraordinary() && r.getType().equals("EXPENSE")) {
+                    extraordinaryCount += r.getTxCount();
+                    extraordinaryTotal += r.getTotalAmount();
+                }
+            }
+        }
+
+        return new PredictionFeatures(version, true, currentCash, portfolioValue, regularMonthlyNet,
+                extraordinaryCount, extraordinaryTotal, annualInterestRate);
+    }
+
+    private PredictionFeatures noData(String version, long currentCash, long portfolioValue, double annualInterestRate) {
+        return new PredictionFeatures(version, false, currentCash, portfolioValue, 0, 0, 0, annualInterestRate);
+    }
+
+    // ヘルパー: 固定的な月次収支を計算 (月ごとの合計は整数のまま集計し、平均だけ四捨五入する)
+    private long calculateRegularMonthlyNet(List<MonthlyRollup> rollups) {
+        Map<String, Long> monthlyNets = rollups.stream()
+            .filter(r -> !r.getIsExtraordinary()) // ★重要: 臨時を除外して「実力値」を見る
+            .collect(Collectors.groupingBy(
+                MonthlyRollup::getMonth,
+                Collectors.summingLong(MonthlyRollup::getSignedAmount)
+            ));
+
+        if (monthlyNets.isEmpty()) return 0;
+        return Math.round(monthlyNets.values().stream().mapToLong(Long::longValue).average().orElse(0.0));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.CashFlowWeb;
+
+/**
+ * 資産予測シミュレーションの入力となる特徴量のスナップショット。
+ * PredictionFeatureStore が取引・保有資産の変更時にだけ作り直します。
+ *
+ * version は作成時の更新番号と基準月から作った文字列で、同じ version のスナップショットは同じ値を持ちます。
+ */
+public class PredictionFeatures {
+    private final String version;
+    private final boolean hasData;           // 直近6ヶ月に取引があるか (なければ予測しない)
+    private final long currentCash;          // 現金残高 (円)
+    private final long portfolioValue;       // ポートフォリオ評価額 (円)
+    private final long regularMonthlyNet;    // 固定収支 (臨時を除いた月次の純収支、円)
+    private final int extraordinaryCount;    // 直近6ヶ月の臨時支出の件数
+    private final long extraordinaryTotal;   // 直近6ヶ月の臨時支出の合計 (円)
+    private final double annualInterestRate; // 想定する年利
+
+    public PredictionFeatures(String version, boolean hasData, long currentCash, long portfolioValue, long regularMonthlyNet,
+                              int extraordinaryCount, long extraordinaryTotal, double annualInterestRate) {
+        this.version = version;
+        this.hasData = hasData;
+        this.currentCash = currentCash;
+        this.portfolioValue = portfolioValue;
+        this.regularMonthlyNet = regularMonthlyNet;
+        this.extraordinaryCount = extraordinaryCount;
+        this.extraordinaryTotal = extraordinaryTotal;
+        this.annualInterestRate = annualInterestRate;
+    }
+
+    public String getVersion() { return version; }
+    public boolean getHasData() { return hasData; }
+    public long getCurrentCash() { return currentCash; }
+    public long getPortfolioValue() { return portfolioValue; }
+    public long getRegularMonthlyNet() { return regularMonthlyNet; }
+    public int getExtraordinaryCount() { return extraordinaryCount; }
+    public long getExtraordinaryTotal() { return extraordinaryTotal; }
+    public double getAnnualInterestRate() { return annualInterestRate; }
+
+    public long getTotalAssets() {
+        return currentCash + portfolioValue;
+    }
+
+    // 臨時支出の発生確率 (例: 6ヶ月で2回あったら 33%)
+    public double getEventProbability() {
+        return extraordinaryCount / 6.0;
+    }
+
+    // 臨時支出の平均額 (円未満は四捨五入)
+    public long getEventAvgAmount() {
+        return extraordinaryCount > 0 ? Math.round((double) extraordinaryTotal / extraordinaryCount) : 0;
+    }
+
+    public ProjectionModel toModel() {
+        return new ProjectionModel(getTotalAssets(), regularMonthlyNet, getEventProbability(), getEventAvgAmount(), annualInterestRate / 12.0);
+    }
+
+    /**
+     * seed が指定されなかった場合に使うシード。入力値だけから求めるため、
+     * 同じデータに対する予測は、キャッシュが破棄されても再起動後でも同じ結果になります。
+     */
+    public long defaultSeed() {
+        long h = 1125899906842597L;
+        for (long v : new long[] {currentCash, portfolioValue, regularMonthlyNet, extraordinaryCount, extraordinaryTotal,
+                                  Double.doubleToLongBits(annualInterestRate)}) {
+            h = 31 * h + v;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.CashFlowWeb;
+
+import java.time.LocalDateTime;
+
+/**
+ * 非同期で実行する予測1回分の状態と結果を保持するクラス。
+ * ワーカーのスレッドだけが更新し、状態取得APIからは別スレッドで読み取られます。
+ */
+public class PredictionJob {
+
+    public enum State { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final int id;
+    private final String type;  // "predict" / "scenarios"
+    private final String owner; // 登録したユーザー名 (レスポンスには含めない)
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private volatile State state = State.QUEUED;
+    private volatile String message;
+    private volatile Object result; // PredictionResult / ScenarioResponse
+    private volatile long elapsedMillis;
+    private volatile long startedNanos;
+    private volatile long finishedNanos; // 結果の保持期限の判定用 (終了するまで0)
+
+    public PredictionJob(int id, String type, String owner) {
+        this.id = id;
+        this.type = type;
+        this.owner = owner;
+    }
+
+    // --- Getter Methods ---
+    public int getId() { return id; }
+    public String getType() { return type; }
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public State getState() { return state; }
+    public String getMessage() { return message; }
+    public Object getResult() { return result; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    String owner() { return owner; }
+
+    boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED;
+    }
+
+    long finishedNanos() { return finishedNanos; }
+
+    // --- ワーカーからの更新用 ---
+    void start() {
+        startedNanos = System.nanoTime();
+        state = State.RUNNING;
+    }
+
+    void complete(Object result) {
+        this.result = result;
+        finish(State.COMPLETED);
+    }
+
+    void fail(String reason) {
+        message = reason;
+        finish(State.FAILED);
+    }
+
+    private void finish(State finalState) {
+        finishedNanos = System.nanoTime();
+        elapsedMillis = startedNanos != 0 ? (finishedNanos - startedNanos) / 1_000_000 : 0;
+        state = finalState;
+    }
+}
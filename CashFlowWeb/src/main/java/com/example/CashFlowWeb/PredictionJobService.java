@@ -0,0 +1,110 @@
+package com.example.CashFlowWeb;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 時間のかかる予測 (長い期間・多数の試行・多数のシナリオ) を、リクエストのスレッドとは別に実行するクラス。
+ *
+ * 予測は固定数のワーカーで実行し、待ち行列の長さにも上限を設けます。(あふれた場合は受け付けません)
+ * 1人のユーザーが同時に登録できる未完了の予測は maxPerUser 件までです。
+ * 終了した予測の結果は ttl の間だけ保持し、登録・取得の際に期限切れのものを削除します。
+ */
+@Component
+public class PredictionJobService {
+
+    private final ThreadPoolExecutor workers;
+    private final int maxPerUser;
+    private final long ttlNanos;
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final Map<Integer, PredictionJob> jobs = new ConcurrentHashMap<>();
+
+    public PredictionJobService(@Value("${cashflow.predict.jobs.threads:2}") int threads,
+                                @Value("${cashflow.predict.jobs.queue-capacity:20}") int queueCapacity,
+                                @Value("${cashflow.predict.jobs.max-per-user:2}") int maxPerUser,
+                                @Value("${cashflow.predict.jobs.ttl-seconds:600}") long ttlSeconds) {
+        this.maxPerUser = maxPerUser;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+
+        // 1件の予測の中でも ProjectionEngine がパスを並列に計算するため、ワーカーは少数に抑える
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "prediction-job-" + threadNumber.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * 予測を登録します。結果は get() で状態とともに取得できます。
+     *
+     * @param task 予測の本体 (ワーカーのスレッドで実行。IllegalArgumentException などの例外は FAILED として記録)
+     * @throws IllegalStateException      このユーザーの未完了の予測が上限に達している場合
+     * @throws RejectedExecutionException 待ち行列がいっぱいの場合
+     */
+    public synchronized PredictionJob submit(String owner, String type, Supplier<?> task) {
+        evictExpired();
+        long active = jobs.values().stream()
+                .filter(j -> j.owner().equals(owner) && !j.isFinished())
+                .count();
+        if (active >= maxPerUser) {
+            throw new IllegalStateException("実行中の予測が上限 (" + maxPerUser + "件) に達しています");
+        }
+
+        PredictionJob job = new PredictionJob(nextId.getAndIncrement(), type, owner);
+        jobs.put(job.getId(), job);
+        try {
+            workers.execute(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * 予測の状態と結果を取得します。他のユーザーの予測や、保持期限を過ぎたものは null です。
+     */
+    public PredictionJob get(String owner, int id) {
+        evictExpired();
+        PredictionJob job = jobs.get(id);
+        return job != null && job.owner().equals(owner) ? job : null;
+    }
+
+    private void run(PredictionJob job, Supplier<?> task) {
+        job.start();
+        try {
+            job.complete(task.get());
+        } catch (RuntimeException e) {
+            System.err.println("予測 #" + job.getId() + " に失敗しました: " + e.getMessage());
+            job.fail(e.getMessage());
+        } catch (Error e) {
+            // OutOfMemoryError なども FAILED にしておく (RUNNING のまま残ると、ユーザーの上限に数え続けるため)
+            System.err.println("予測 #" + job.getId() + " に失敗しました: " + e);
+            job.fail("予測の実行中にエラーが発生しました");
+            throw e;
+        }
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        jobs.values().removeIf(j -> j.isFinished() && now - j.finishedNanos() > ttlNanos);
+    }
+}
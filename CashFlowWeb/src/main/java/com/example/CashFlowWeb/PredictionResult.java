@@ -6,21 +6,36 @@ import java.util.List;
  * 予測APIの結果を保持するモデルクラス。
  */
 public class PredictionResult {
-    private double averageMonthlyProfit;
+    private long averageMonthlyProfit; // 円
     private int estimatedMonths;
     private String feedback;
-    private double initialBalance;
-    private List<Double> projectionPoints; // 予測グラフ用のデータポイント
+    private long initialBalance;       // 円
+    private List<Long> projectionPoints; // 予測グラフ用のデータポイント (中央値 p50、円)
+    private List<Long> lowerPoints;      // 悲観シナリオ (p5)
+    private List<Long> upperPoints;      // 楽観シナリオ (p95)
+    private int simulationPaths;           // シミュレーションの試行回数
+    private Long seed;                     // 使用した乱数のシード (シミュレーションしなかった場合は null)
+    private String featureVersion;         // 入力に使った特徴量スナップショットの版
 
-    public PredictionResult(double averageMonthlyProfit, int estimatedMonths, String feedback, double initialBalance, List<Double> projectionPoints) {
+    public PredictionResult(long averageMonthlyProfit, int estimatedMonths, String feedback, long initialBalance, List<Long> projectionPoints, List<Long> lowerPoints, List<Long> upperPoints, int simulationPaths, Long seed, String featureVersion) {
         this.averageMonthlyProfit = averageMonthlyProfit;
         this.estimatedMonths = estimatedMonths;
         this.feedback = feedback;
         this.initialBalance = initialBalance;
         this.projectionPoints = projectionPoints;
+        this.lowerPoints = lowerPoints;
+        this.upperPoints = upperPoints;
+        this.simulationPaths = simulationPaths;
+        this.seed = seed;
+        this.featureVersion = featureVersion;
+    }
+
+    // 予測の幅がない場合 (データ不足など) は、上下のバンドも中央値と同じにします
+    public PredictionResult(long averageMonthlyProfit, int estimatedMonths, String feedback, long initialBalance, List<Long> projectionPoints) {
+        this(averageMonthlyProfit, estimatedMonths, feedback, initialBalance, projectionPoints, projectionPoints, projectionPoints, 0, null, null);
     }
     
-    public PredictionResult(double averageMonthlyProfit, int estimatedMonths, String feedback, double initialBalance) {
+    public PredictionResult(long averageMonthlyProfit, int estimatedMonths, String feedback, long initialBalance) {
         this(averageMonthlyProfit, estimatedMonths, feedback, initialBalance, null);
     }
 
@@ -28,9 +43,14 @@ public class PredictionResult {
     public PredictionResult() {}
 
     // Getter Methods
-    public double getAverageMonthlyProfit() { return averageMonthlyProfit; }
+    public long getAverageMonthlyProfit() { return averageMonthlyProfit; }
     public int getEstimatedMonths() { return estimatedMonths; }
     public String getFeedback() { return feedback; }
-    public double getInitialBalance() { return initialBalance; }
-    public List<Double> getProjectionPoints() { return projectionPoints; }
+    public long getInitialBalance() { return initialBalance; }
+    public List<Long> getProjectionPoints() { return projectionPoints; }
+    public List<Long> getLowerPoints() { return lowerPoints; }
+    public List<Long> getUpperPoints() { return upperPoints; }
+    public int getSimulationPaths() { return simulationPaths; }
+    public Long getSeed() { return seed; }
+    public String getFeatureVersion() { return featureVersion; }
 }
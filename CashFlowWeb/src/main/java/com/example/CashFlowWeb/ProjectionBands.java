@@ -0,0 +1,25 @@
+package com.example.CashFlowWeb;
+
+/**
+ * 多数の試行結果から求めた、月ごとの資産額 (円) の分位点(p5 / p50 / p95)を保持するクラス。
+ * 各配列の添字0は現在、添字 m は m ヶ月後を表します。
+ */
+public class ProjectionBands {
+    private final long[] p5;
+    private final long[] p50;
+    private final long[] p95;
+    private final int paths;
+
+    public ProjectionBands(long[] p5, long[] p50, long[] p95, int paths) {
+        this.p5 = p5;
+        this.p50 = p50;
+        this.p95 = p95;
+        this.paths = paths;
+    }
+
+    public long[] getP5() { return p5; }
+    public long[] getP50() { return p50; }
+    public long[] getP95() { return p95; }
+    public int getPaths() { return paths; }
+    public int getMonths() { return p50.length - 1; }
+}
@@ -0,0 +1,219 @@
+package com.example.CashFlowWeb;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * 資産推移のモンテカルロ・シミュレーションを行うエンジン。
+ * 独立した試行(パス)を多数、複数コアで並列に実行し、月ごとの分布を分位点にまとめます。
+ * 資産額は円単位の整数で持ち、臨時支出と利息は発生した月ごとに円未満を四捨五入します。
+ *
+ * パスは PATHS_PER_CHUNK 件ずつのチャンクに分け、チャンクごとに親の乱数から split した
+ * 専用の SplittableRandom を割り当てます。チャンクの区切りはコア数に依存しないため、
+ * 同じシードなら実行環境やスレッドの割り当て順に関係なく同じ結果になります。
+ *
+ * JVMが jdk.incubator.vector モジュール付きで起動されていれば、パス数が vectorMinPaths 以上の予測では
+ * 1ヶ月の処理を ProjectionVectorKernel で複数パスまとめて行います。(乱数はスカラー処理と同じ順に引くため、結果は同じです)
+ * パス数が少ないとカーネルの準備の分だけスカラー処理より遅くなるため、しきい値より少ない予測はスカラー処理で計算します。
+ */
+@Component
+public class ProjectionEngine {
+
+    // 1チャンクあたりのパス数 (並列タスクの粒度)
+    static final int PATHS_PER_CHUNK = 256;
+
+    // 予測できる最大月数 (50年)
+    static final int MAX_MONTHS = 600;
+
+    // 途中経過を保持するセル数 (パス数 × (月数+1)) の上限。約48MB
+    static final int MAX_CELLS = 6_000_000;
+
+    // Vector API のカーネルを使うか (設定で有効、かつモジュールが使える場合)
+    private final boolean vectorKernel;
+
+    // カーネルを使う最小のパス数
+    private final int vectorMinPaths;
+
+    public ProjectionEngine(@Value("${cashflow.projection.vector.enabled:true}") boolean vectorEnabled,
+                            @Value("${cashflow.projection.vector.min-paths:30000}") int vectorMinPaths) {
+        this.vectorKernel = vectorEnabled && vectorKernelAvailable();
+        this.vectorMinPaths = vectorMinPaths;
+        if (vectorEnabled) {
+            System.out.println(vectorKernel
+                    ? "資産予測: " + vectorMinPaths + "パス以上の予測は Vector API のカーネルを使用します (" + ProjectionVectorKernel.lanes() + "レーン)"
+                    : "資産予測: jdk.incubator.vector が使えないため、スカラー処理で計算します (起動時に --add-modules jdk.incubator.vector が必要です)");
+        }
+    }
+
+    // モジュールが読み込まれていない場合、カーネルのクラスを初期化する時点で失敗する
+    static boolean vectorKernelAvailable() {
+        try {
+            return ProjectionVectorKernel.lanes() > 1;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    boolean usesVectorKernel() {
+        return vectorKernel;
+    }
+
+    /**
+     * シミュレーションを実行します。
+     *
+     * @param model  入力パラメータ
+     * @param months 予測する月数
+     * @param paths  試行回数 (MAX_CELLS を超える場合は切り詰めます)
+     * @param seed   乱数のシード
+     */
+    public ProjectionBands simulate(ProjectionModel model, int months, int paths, long seed) {
+        long[][] values = simulatePaths(model, months, paths, seed);
+        int pathCount = values[0].length;
+
+        long[] p5 = new long[months + 1];
+        long[] p50 = new long[months + 1];
+        long[] p95 = new long[months + 1];
+        int k5 = rank(0.05, pathCount);
+        int k50 = rank(0.50, pathCount);
+        int k95 = rank(0.95, pathCount);
+        IntStream.rangeClosed(0, months).parallel().forEach(m -> {
+            // 中央値で区切った後、その左右だけを対象に p5 / p95 を選ぶ
+            long[] column = values[m];
+            p50[m] = select(column, 0, pathCount - 1, k50);
+            p5[m] = select(column, 0, k50, k5);
+            p95[m] = select(column, k50, pathCount - 1, k95);
+        });
+
+        return new ProjectionBands(p5, p50, p95, pathCount);
+    }
+
+    /**
+     * シミュレーションを実行し、分位点にまとめる前の各パスの値を返します。
+     * 戻り値の [m][p] がパス p の m ヶ月後の資産額 (円) で、パス数は MAX_CELLS に収まるよう切り詰めた値です。
+     * 同じ引数なら simulate() と同じパスになります。
+     */
+    public long[][] simulatePaths(ProjectionModel model, int months, int paths, long seed) {
+        int pathCount = Math.max(1, Math.min(paths, MAX_CELLS / (months + 1)));
+        int chunks = (pathCount + PATHS_PER_CHUNK - 1) / PATHS_PER_CHUNK;
+
+        // チャンクごとの乱数は、並列実行の前に決まった順序で split しておく
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            randoms[c] = root.split();
+        }
+
+        boolean vector = vectorKernel && pathCount >= vectorMinPaths;
+
+        // values[m][p] = パス p の m ヶ月後の資産額 (円)
+        long[][] values = new long[months + 1][pathCount];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int from = c * PATHS_PER_CHUNK;
+            int to = Math.min(from + PATHS_PER_CHUNK, pathCount);
+            simulateChunk(model, months, values, from, to, randoms[c], vector);
+        });
+        return values;
+    }
+
+    /**
+     * パス [from, to) を月単位で1ステップずつ進めます。
+     * 1ヶ月の処理は元の予測ロジックと同じです:
+     *   固定収支 (その月の一時的な収支があれば合わせて) を加算 → 確率で臨時支出 (平均額の0.8〜1.2倍) → 資産がプラスなら複利
+     */
+    private void simulateChunk(ProjectionModel model, int months, long[][] values, int from, int to, SplittableRandom random, boolean vector) {
+        int n = to - from;
+        long[] assets = new long[n];
+        Arrays.fill(assets, model.getInitialAssets());
+        System.arraycopy(assets, 0, values[0], from, n);
+
+        long net = model.getRegularMonthlyNet();
+        double probability = model.getEventProbability();
+        long avgShock = model.getEventAvgAmount();
+        double rate = model.getMonthlyInvestRate();
+        boolean hasEvents = avgShock > 0 && probability > 0;
+
+        if (vector) {
+            // 乱数は1パスずつ、スカラー処理と同じ順 (発生判定 → 発生した場合のみ規模) に引いておく
+            double[] occur = new double[n];
+            double[] scale = new double[n];
+            for (int m = 1; m <= months; m++) {
+                if (hasEvents) {
+                    for (int i = 0; i < n; i++) {
+                        occur[i] = random.nextDouble();
+                        if (occur[i] < probability) {
+                            scale[i] = random.nextDouble();
+                        }
+                    }
+                }
+                ProjectionVectorKernel.step(assets, n, net + model.getOneOffAmount(m), hasEvents, occur, scale,
+                        probability, avgShock, rate, values[m], from);
+            }
+            return;
+        }
+
+        for (int m = 1; m <= months; m++) {
+            long[] out = values[m];
+            long monthNet = net + model.getOneOffAmount(m);
+            for (int i = 0; i < n; i++) {
+                long a = assets[i] + monthNet;
+                if (hasEvents && random.nextDouble() < probability) {
+                    a -= Math.round(avgShock * (0.8 + random.nextDouble() * 0.4));
+                }
+                if (a > 0) {
+                    a += Math.round(a * rate);
+                }
+                assets[i] = a;
+                out[from + i] = a;
+            }
+        }
+    }
+
+    // 分位点 q に対応する添字 (nearest-rank 法)
+    static int rank(double q, int n) {
+        return Math.min(n - 1, Math.max(0, (int) Math.ceil(q * n) - 1));
+    }
+
+    /**
+     * 配列の [left, right] の範囲で、k 番目に小さい値を選びます。(quickselect)
+     * 呼び出し後、a[k] より左は a[k] 以下、右は a[k] 以上に並び替えられます。
+     */
+    static long select(long[] a, int left, int right, int k) {
+        while (right > left) {
+            // 3点の中央値をピボットにして、整列済みの入力でも偏らないようにする
+            int mid = (left + right) >>> 1;
+            if (a[mid] < a[left]) swap(a, mid, left);
+            if (a[right] < a[left]) swap(a, right, left);
+            if (a[right] < a[mid]) swap(a, right, mid);
+            long pivot = a[mid];
+
+            int i = left, j = right;
+            while (i <= j) {
+                while (a[i] < pivot) i++;
+                while (a[j] > pivot) j--;
+                if (i <= j) {
+                    swap(a, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                break;
+            }
+        }
+        return a[k];
+    }
+
+    private static void swap(long[] a, int i, int j) {
+        long t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+}
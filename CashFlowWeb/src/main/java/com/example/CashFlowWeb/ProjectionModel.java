@@ -0,0 +1,37 @@
+package com.example.CashFlowWeb;
+
+/**
+ * 資産予測シミュレーションの入力パラメータを保持するクラス。
+ */
+public class ProjectionModel {
+    private final long initialAssets;       // 現在の総資産 (現金 + ポートフォリオ評価額、円)
+    private final long regularMonthlyNet;   // 固定収支 (臨時を除いた月次の純収支、円)
+    private final double eventProbability;  // 臨時支出が1ヶ月に発生する確率
+    private final long eventAvgAmount;      // 臨時支出1回あたりの平均額 (円)
+    private final double monthlyInvestRate; // 資産がプラスのときの月利
+    private final long[] oneOffAmounts;     // 添字 m の月に1回だけ加算する額 (円、支出はマイナス)。なければ null
+
+    public ProjectionModel(long initialAssets, long regularMonthlyNet, double eventProbability, long eventAvgAmount, double monthlyInvestRate) {
+        this(initialAssets, regularMonthlyNet, eventProbability, eventAvgAmount, monthlyInvestRate, null);
+    }
+
+    public ProjectionModel(long initialAssets, long regularMonthlyNet, double eventProbability, long eventAvgAmount, double monthlyInvestRate, long[] oneOffAmounts) {
+        this.initialAssets = initialAssets;
+        this.regularMonthlyNet = regularMonthlyNet;
+        this.eventProbability = eventProbability;
+        this.eventAvgAmount = eventAvgAmount;
+        this.monthlyInvestRate = monthlyInvestRate;
+        this.oneOffAmounts = oneOffAmounts;
+    }
+
+    public long getInitialAssets() { return initialAssets; }
+    public long getRegularMonthlyNet() { return regularMonthlyNet; }
+    public double getEventProbability() { return eventProbability; }
+    public long getEventAvgAmount() { return eventAvgAmount; }
+    public double getMonthlyInvestRate() { return monthlyInvestRate; }
+
+    // m ヶ月目に1回だけ加算する額 (円)
+    public long getOneOffAmount(int m) {
+        return oneOffAmounts != null && m < oneOffAmounts.length ? oneOffAmounts[m] : 0;
+    }
+}
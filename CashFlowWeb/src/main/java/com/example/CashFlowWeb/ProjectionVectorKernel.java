@@ -0,0 +1,118 @@
+package com.example.CashFlowWeb;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 資産予測シミュレーションの1ヶ月分の処理を、複数のパスに対してSIMD命令でまとめて行うカーネル。(Vector API)
+ *
+ * jdk.incubator.vector モジュールを使うため、JVMを --add-modules jdk.incubator.vector 付きで起動した場合にだけ使えます。
+ * それ以外の環境ではこのクラスの読み込みに失敗するため、ProjectionEngine は従来のスカラー処理を使います。
+ *
+ * 計算の順序はスカラー処理 (ProjectionEngine.simulateChunk) と同じにしてあり、同じ乱数からは同じ結果 (円単位で一致) になります。
+ * (FMA などの融合演算は丸めが変わるため使いません)
+ *
+ * long と double の変換 (convert) は JDK 17 ではSIMD命令にならず非常に遅いため、
+ * 整数値の double に 1.5×2^52 を足すと仮数部の下位ビットがその整数になる性質を使い、ビットの読み替えと加減算だけで変換します。
+ * この方法は絶対値が 2^51 未満の値でしか正しくないため、資産額などが SAFE_LIMIT を超えるレーンを含む場合は
+ * そのレーンの組だけスカラー処理で計算します。(数百兆円規模なので、通常は起きません)
+ */
+final class ProjectionVectorKernel {
+
+    // long と double はどちらも64ビットのため、同じレーン数になる
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final DoubleVector ZERO = DoubleVector.zero(DOUBLES);
+
+    // 1.5×2^52 とそのビット表現
+    private static final double MAGIC = 0x1.8p52;
+    private static final long MAGIC_BITS = Double.doubleToRawLongBits(MAGIC);
+
+    // 資産額・固定収支・臨時支出額がこの範囲なら、1ヶ月の途中の値も 2^51 未満に収まる
+    private static final long SAFE_LIMIT = 1L << 49;
+
+    private ProjectionVectorKernel() {}
+
+    /** 1回の命令で処理するパスの数 */
+    static int lanes() {
+        return LONGS.length();
+    }
+
+    /**
+     * パス [0, n) を1ヶ月進め、結果を assets と out[outOffset..] に書き込みます。
+     *
+     * @param occur  パスごとの、臨時支出の発生判定に使う乱数 [0, 1)
+     * @param scale  パスごとの、臨時支出の規模に使う乱数 [0, 1) (発生したパスの分だけ有効)
+     */
+    static void step(long[] assets, int n, long net, boolean hasEvents, double[] occur, double[] scale,
+                     double probability, long avgShock, double rate, long[] out, int outOffset) {
+        int i = 0;
+        if (Math.abs(net) < SAFE_LIMIT && avgShock < SAFE_LIMIT) {
+            int bound = LONGS.loopBound(n);
+            for (; i < bound; i += LONGS.length()) {
+                LongVector a = LongVector.fromArray(LONGS, assets, i);
+                if (a.compare(VectorOperators.GE, SAFE_LIMIT).or(a.compare(VectorOperators.LE, -SAFE_LIMIT)).anyTrue()) {
+                    for (int j = i; j < i + LONGS.length(); j++) {
+                        scalarStep(assets, j, net, hasEvents, occur, scale, probability, avgShock, rate, out, outOffset);
+                    }
+                    continue;
+                }
+
+                a = a.add(net);
+                if (hasEvents) {
+                    // 臨時支出: 発生したレーンだけ、平均額の0.8〜1.2倍を引く (発生しなかったレーンは0を引く)
+                    VectorMask<Double> hit = DoubleVector.fromArray(DOUBLES, occur, i).compare(VectorOperators.LT, probability);
+                    if (hit.anyTrue()) {
+                        DoubleVector shock = DoubleVector.fromArray(DOUBLES, scale, i).mul(0.4).add(0.8).mul((double) avgShock);
+                        a = a.sub(toLong(round(ZERO.blend(shock, hit))));
+                    }
+                }
+                // 複利: 資産がプラスのレーンだけ利息を足す
+                VectorMask<Long> positive = a.compare(VectorOperators.GT, 0L);
+                a = a.add(toLong(round(toDouble(a).mul(rate))), positive);
+
+                a.intoArray(assets, i);
+                a.intoArray(out, outOffset + i);
+            }
+        }
+        // レーン数に満たない残り
+        for (; i < n; i++) {
+            scalarStep(assets, i, net, hasEvents, occur, scale, probability, avgShock, rate, out, outOffset);
+        }
+    }
+
+    private static void scalarStep(long[] assets, int i, long net, boolean hasEvents, double[] occur, double[] scale,
+                                   double probability, long avgShock, double rate, long[] out, int outOffset) {
+        long a = assets[i] + net;
+        if (hasEvents && occur[i] < probability) {
+            a -= Math.round(avgShock * (0.8 + scale[i] * 0.4));
+        }
+        if (a > 0) {
+            a += Math.round(a * rate);
+        }
+        assets[i] = a;
+        out[outOffset + i] = a;
+    }
+
+    // |v| < 2^51 の long を double に変換する ((double) v と同じ値)
+    private static DoubleVector toDouble(LongVector v) {
+        return v.add(MAGIC_BITS).reinterpretAsDoubles().sub(MAGIC);
+    }
+
+    // 整数値で |x| < 2^51 の double を long に変換する
+    private static LongVector toLong(DoubleVector x) {
+        return x.add(MAGIC).reinterpretAsLongs().sub(MAGIC_BITS);
+    }
+
+    /**
+     * Math.round(double) と同じ丸め (0.5 は正の無限大方向) をレーンごとに行い、整数値の double を返します。(|x| < 2^51)
+     * x + 1.5×2^52 は最近接偶数への丸めになるため、ちょうど 0.5 だけ切り下げられたレーンを1つ繰り上げます。
+     */
+    private static DoubleVector round(DoubleVector x) {
+        DoubleVector nearest = x.add(MAGIC).sub(MAGIC);
+        return nearest.add(ZERO.blend(1.0, x.sub(nearest).compare(VectorOperators.EQ, 0.5)));
+    }
+}
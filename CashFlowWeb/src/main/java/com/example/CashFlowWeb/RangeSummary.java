@@ -0,0 +1,38 @@
+package com.example.CashFlowWeb;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 任意の期間の収支の合計とカテゴリ別内訳を保持するモデルクラス。
+ */
+public class RangeSummary {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private long totalIncome;  // 円
+    private long totalExpense; // 円
+    private List<CategorySummary> incomeByCategory;  // 多い順
+    private List<CategorySummary> expenseByCategory; // 多い順
+
+    public RangeSummary(LocalDate startDate, LocalDate endDate, long totalIncome, long totalExpense,
+                        List<CategorySummary> incomeByCategory, List<CategorySummary> expenseByCategory) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.totalIncome = totalIncome;
+        this.totalExpense = totalExpense;
+        this.incomeByCategory = incomeByCategory;
+        this.expenseByCategory = expenseByCategory;
+    }
+
+    // デフォルトコンストラクタ (JSON変換用)
+    public RangeSummary() {}
+
+    // --- Getter Methods ---
+    public LocalDate getStartDate() { return startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public long getTotalIncome() { return totalIncome; }
+    public long getTotalExpense() { return totalExpense; }
+    public long getNetProfit() { return totalIncome - totalExpense; }
+    public List<CategorySummary> getIncomeByCategory() { return incomeByCategory; }
+    public List<CategorySummary> getExpenseByCategory() { return expenseByCategory; }
+}
@@ -0,0 +1,313 @@
+package com.example.CashFlowWeb;
+
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 任意の期間 [開始日, 終了日] のカテゴリ別合計を、件数によらず O(log n) で求めるための索引。
+ *
+ * カテゴリと収支の種類の組ごとに、日単位の累積和を Fenwick 木 (Binary Indexed Tree) で持ちます。
+ * 期間の合計は「終了日までの累積 − 開始日の前日までの累積」で、木の高さ (log 日数) 回の加算で求まります。
+ * 予定取引 (is_future) は含めません。金額は円単位の整数です。
+ *
+ * 最初に参照されたときに日別の合計を読み込み、その後は DataVersions の通知で変更のあった月だけ
+ * 日別の合計を読み直して、差分を木に加えます。索引の範囲 (日付) の外に取引が追加された場合は作り直します。
+ * 取引の日付が広すぎて索引を作れない場合は、取引テーブルから直接集計します。
+ */
+@Component
+public class RangeTotalsIndex {
+
+    // 索引の範囲の前後に確保しておく余白 (日)。今日付近の追加で作り直しにならないようにする
+    private static final int MARGIN_DAYS = 366;
+
+    // 索引にする最大の日数 (約100年)。これより広い範囲に取引が散らばっている場合は索引を使わない
+    private static final int MAX_DAYS = 36_600;
+
+    private final DBManager dbManager;
+    private final CategoryRegistry categoryRegistry;
+    private final DirtyMonths dirtyMonths = new DirtyMonths();
+
+    // 以下は lock で保護
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean available;
+    private int baseDay; // 索引の先頭のエポック日
+    private int days;    // 索引に入る日数
+    private final Map<Integer, long[]> trees = new HashMap<>(); // key(カテゴリ, 種類) → Fenwick 木 (1始まり)
+
+    public RangeTotalsIndex(DBManager dbManager, DataVersions dataVersions, CategoryRegistry categoryRegistry) {
+        this.dbManager = dbManager;
+        this.categoryRegistry = categoryRegistry;
+        dirtyMonths.register(dataVersions);
+    }
+
+    private static int key(int categoryId, boolean income) {
+        return categoryId * 2 + (income ? 1 : 0);
+    }
+
+    /**
+     * 期間内のカテゴリ別合計 (TransactionDAO.getCategorySummary と同じ内容、多い順)。
+     * DBの読み込みに失敗した場合は null。type が INCOME / EXPENSE 以外なら、DAO と同じく空のリスト。
+     */
+    public List<CategorySummary> getCategorySummary(LocalDate startDate, LocalDate endDate, String type) {
+        String normalized = type.toUpperCase();
+        if (!normalized.equals("INCOME") && !normalized.equals("EXPENSE")) {
+            return List.of();
+        }
+        Map<Integer, Long> totals = categoryTotals(startDate, endDate, normalized.equals("INCOME"));
+        return totals == null ? null : toSummaries(totals);
+    }
+
+    /**
+     * 期間内の収入・支出の合計とカテゴリ別の内訳。categoryId を指定した場合はそのカテゴリだけ。
+     * DBの読み込みに失敗した場合は null。
+     */
+    public RangeSummary getRangeSummary(LocalDate startDate, LocalDate endDate, Integer categoryId) {
+        Map<Integer, Long> income = categoryTotals(startDate, endDate, true);
+        Map<Integer, Long> expense = categoryTotals(startDate, endDate, false);
+        if (income == null || expense == null) {
+            return null;
+        }
+        if (categoryId != null) {
+            income.keySet().retainAll(List.of(categoryId));
+            expense.keySet().retainAll(List.of(categoryId));
+        }
+        return new RangeSummary(startDate, endDate, sum(income), sum(expense), toSummaries(income), toSummaries(expense));
+    }
+
+    private static long sum(Map<Integer, Long> totals) {
+        long sum = 0;
+        for (long v : totals.values()) {
+            sum += v;
+        }
+        return sum;
+    }
+
+    // カテゴリID → 合計 を、カテゴリ名ごとの合計 (多い順) にする
+    private List<CategorySummary> toSummaries(Map<Integer, Long> totals) {
+        Map<String, Long> byName = new LinkedHashMap<>();
+        totals.forEach((categoryId, total) -> {
+            Category category = categoryRegistry.getCategoryById(categoryId);
+            if (category != null) {
+                byName.merge(category.getName(), total, Long::sum);
+            }
+        });
+        List<CategorySummary> summaries = new ArrayList<>(byName.size());
+        byName.forEach((name, total) -> summaries.add(new CategorySummary(name, total)));
+        summaries.sort((a, b) -> Long.compare(b.getTotalAmount(), a.getTotalAmount()));
+        return summaries;
+    }
+
+    // 期間内の、指定した種類のカテゴリ別合計 (0 のカテゴリは含めない)。DBの読み込みに失敗した場合は null
+    private Map<Integer, Long> categoryTotals(LocalDate startDate, LocalDate endDate, boolean income) {
+        if (!ensureFresh() || !available) {
+            return scanCategoryTotals(startDate, endDate, income);
+        }
+        lock.readLock().lock();
+        try {
+            int to = position((int) endDate.toEpochDay());
+            int from = position((int) startDate.toEpochDay() - 1);
+            Map<Integer, Long> totals = new HashMap<>();
+            if (to <= from) {
+                return totals;
+            }
+            for (Map.Entry<Integer, long[]> entry : trees.entrySet()) {
+                if ((entry.getKey() & 1) != (income ? 1 : 0)) {
+                    continue;
+                }
+                long total = prefix(entry.getValue(), to) - prefix(entry.getValue(), from);
+                if (total != 0) {
+                    totals.put(entry.getKey() >> 1, total);
+                }
+            }
+            return totals;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 索引が使えない場合: 取引テーブルから直接集計する
+    private Map<Integer, Long> scanCategoryTotals(LocalDate startDate, LocalDate endDate, boolean income) {
+        String sql = "SELECT category_id, SUM(amount) AS total_amount FROM transactions " +
+                     "WHERE is_future = FALSE AND date BETWEEN ? AND ? AND type = ? GROUP BY category_id";
+        Map<Integer, Long> totals = new HashMap<>();
+        try (Connection conn = dbManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setObject(1, dbManager.getDialect().dateValue(startDate));
+            pstmt.setObject(2, dbManager.getDialect().dateValue(endDate));
+            pstmt.setString(3, income ? "INCOME" : "EXPENSE");
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    long total = rs.getLong("total_amount");
+                    if (total != 0) {
+                        totals.put(rs.getInt("category_id"), total);
+                    }
+                }
+            }
+            return totals;
+        } catch (SQLException e) {
+            System.err.println("期間集計エラー: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // その日までを含む累積和の位置 (索引の範囲外は端に寄せる)
+    private int position(int epochDay) {
+        long pos = (long) epochDay - baseDay + 1;
+        return (int) Math.max(0, Math.min(days, pos));
+    }
+
+    // ----------------------------------------
+    // 読み込みと更新
+    // ----------------------------------------
+
+    private boolean ensureFresh() {
+        if (!dirtyMonths.isDirty()) {
+            return true;
+        }
+        lock.writeLock().lock();
+        try {
+            refresh();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("期間集計の索引の読み込みエラー: " + e.getMessage());
+            dirtyMonths.markAll();
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 書き込みロックを保持した状態で呼ぶこと
+    private void refresh() throws SQLException {
+        int[] months = dirtyMonths.drain();
+        if (months == null || !available) {
+            rebuild();
+            return;
+        }
+        for (int month : months) {
+            int first = ColumnarLedger.firstDayOfMonth(month);
+            int next = ColumnarLedger.firstDayOfMonth(month + 1);
+            if (first < baseDay || next > baseDay + days) {
+                rebuild(); // 索引の範囲外の月に変更があった
+                return;
+            }
+            Map<Integer, long[]> values = loadDailyTotals(first, next);
+            for (Integer k : values.keySet()) {
+                trees.computeIfAbsent(k, unused -> new long[days + 1]);
+            }
+            // 月内の各日について、読み直した値と木の値の差分だけを加える
+            for (Map.Entry<Integer, long[]> entry : trees.entrySet()) {
+                long[] tree = entry.getValue();
+                long[] daily = values.get(entry.getKey());
+                for (int d = 0; d < next - first; d++) {
+                    int pos = first - baseDay + d + 1;
+                    long current = prefix(tree, pos) - prefix(tree, pos - 1);
+                    long updated = daily != null ? daily[d] : 0;
+                    if (updated != current) {
+                        add(tree, pos, updated - current);
+                    }
+                }
+            }
+        }
+    }
+
+    // すべての日別合計を読み込んで木を作り直す
+    private void rebuild() throws SQLException {
+        long start = System.currentTimeMillis();
+        String sql = "SELECT date, category_id, type, SUM(amount) AS total_amount FROM transactions " +
+                     "WHERE is_future = FALSE GROUP BY date, category_id, type";
+        List<int[]> rows = new ArrayList<>(); // [エポック日, key]
+        List<Long> amounts = new ArrayList<>();
+        int today = (int) LocalDate.now().toEpochDay();
+        int minDay = today, maxDay = today;
+        try (Connection conn = dbManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                int day = dbManager.getDialect().getEpochDay(rs, "date");
+                rows.add(new int[]{day, key(rs.getInt("category_id"), "INCOME".equals(rs.getString("type")))});
+                amounts.add(rs.getLong("total_amount"));
+                minDay = Math.min(minDay, day);
+                maxDay = Math.max(maxDay, day);
+            }
+        }
+
+        trees.clear();
+        baseDay = minDay - MARGIN_DAYS;
+        days = maxDay + MARGIN_DAYS - baseDay + 1;
+        if (days > MAX_DAYS) {
+            available = false;
+            System.err.println("取引の日付の範囲が広すぎるため、期間集計の索引を使いません (" + days + "日)");
+            return;
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            int[] row = rows.get(i);
+            trees.computeIfAbsent(row[1], unused -> new long[days + 1])[row[0] - baseDay + 1] += amounts.get(i);
+        }
+        // 日別の値が入った配列を、その場で Fenwick 木に変換する (O(日数))
+        for (long[] tree : trees.values()) {
+            for (int i = 1; i <= days; i++) {
+                int parent = i + (i & -i);
+                if (parent <= days) {
+                    tree[parent] += tree[i];
+                }
+            }
+        }
+        available = true;
+        System.out.println("期間集計の索引を作成しました: " + trees.size() + "系列 × " + days + "日 (" + (System.currentTimeMillis() - start) + "ms)");
+    }
+
+    // [firstDay, nextMonthFirstDay) の日別合計 (key → 月内の日ごとの値)
+    private Map<Integer, long[]> loadDailyTotals(int firstDay, int nextMonthFirstDay) throws SQLException {
+        String sql = "SELECT date, category_id, type, SUM(amount) AS total_amount FROM transactions " +
+                     "WHERE is_future = FALSE AND date >= ? AND date < ? GROUP BY date, category_id, type";
+        Map<Integer, long[]> values = new HashMap<>();
+        try (Connection conn = dbManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            SqlDialect dialect = dbManager.getDialect();
+            pstmt.setObject(1, dialect.dateValue(LocalDate.ofEpochDay(firstDay)));
+            pstmt.setObject(2, dialect.dateValue(LocalDate.ofEpochDay(nextMonthFirstDay)));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int day = dialect.getEpochDay(rs, "date");
+                    int k = key(rs.getInt("category_id"), "INCOME".equals(rs.getString("type")));
+                    values.computeIfAbsent(k, unused -> new long[nextMonthFirstDay - firstDay])[day - firstDay]
+                            += rs.getLong("total_amount");
+                }
+            }
+        }
+        return values;
+    }
+
+    // ----------------------------------------
+    // Fenwick 木の操作 (位置は1始まり)
+    // ----------------------------------------
+
+    private static long prefix(long[] tree, int pos) {
+        long sum = 0;
+        for (int i = pos; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private static void add(long[] tree, int pos, long delta) {
+        for (int i = pos; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.CashFlowWeb;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 資産予測の「もしも」シナリオをまとめて評価するリクエスト (POST /api/transactions/predict/scenarios)。
+ * 各シナリオは現在のデータから求めた入力値 (PredictionFeatures) に対する変更だけを指定します。
+ */
+public class ScenarioRequest {
+    private int monthsToPredict = 12; // シナリオで months を省略した場合の予測月数
+    private int paths = 2000;         // 1シナリオあたりの試行回数
+    private Long seed;                // 省略時は /predict と同じく入力値から決める
+    private List<Scenario> scenarios;
+
+    // デフォルトコンストラクタ (JSON変換用)
+    public ScenarioRequest() {}
+
+    public ScenarioRequest(int monthsToPredict, int paths, Long seed, List<Scenario> scenarios) {
+        this.monthsToPredict = monthsToPredict;
+        this.paths = paths;
+        this.seed = seed;
+        this.scenarios = scenarios;
+    }
+
+    public int getMonthsToPredict() { return monthsToPredict; }
+    public int getPaths() { return paths; }
+    public Long getSeed() { return seed; }
+    public List<Scenario> getScenarios() { return scenarios; }
+
+    /**
+     * 1つのシナリオ。指定しなかった項目は現在のデータの値を使います。
+     */
+    public static class Scenario {
+        private String name;
+        private long monthlyNetDelta;         // 固定収支への加算額 (円/月。例: 家賃を2万円下げる → 20000)
+        private Double eventProbability;      // 臨時支出が1ヶ月に発生する確率
+        private Long eventAvgAmount;          // 臨時支出1回あたりの平均額 (円)
+        private Double annualReturnRate;      // 想定する年利 (例: 0.05)
+        private Map<Integer, Long> oneOffs;   // 月 (1〜) → その月に1回だけ加算する額 (円、支出はマイナス)
+        private Integer months;               // 予測月数
+
+        // デフォルトコンストラクタ (JSON変換用)
+        public Scenario() {}
+
+        public Scenario(String name, long monthlyNetDelta, Double eventProbability, Long eventAvgAmount,
+                        Double annualReturnRate, Map<Integer, Long> oneOffs, Integer months) {
+            this.name = name;
+            this.monthlyNetDelta = monthlyNetDelta;
+            this.eventProbability = eventProbability;
+            this.eventAvgAmount = eventAvgAmount;
+            this.annualReturnRate = annualReturnRate;
+            this.oneOffs = oneOffs;
+            this.months = months;
+        }
+
+        public String getName() { return name; }
+        public long getMonthlyNetDelta() { return monthlyNetDelta; }
+        public Double getEventProbability() { return eventProbability; }
+        public Long getEventAvgAmount() { return eventAvgAmount; }
+        public Double getAnnualReturnRate() { return annualReturnRate; }
+        public Map<Integer, Long> getOneOffs() { return oneOffs; }
+        public Integer getMonths() { return months; }
+    }
+}
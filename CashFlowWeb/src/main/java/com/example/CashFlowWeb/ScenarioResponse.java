@@ -0,0 +1,70 @@
+package com.example.CashFlowWeb;
+
+import java.util.List;
+
+/**
+ * シナリオ評価の結果を保持するモデルクラス。
+ * baseline は変更なし (現在のデータのまま) の予測で、scenarios はリクエストと同じ順に並びます。
+ */
+public class ScenarioResponse {
+    private String featureVersion; // 入力に使った特徴量スナップショットの版
+    private long seed;             // すべてのシナリオで共通の乱数シード
+    private int paths;             // 1シナリオあたりの試行回数
+    private Projection baseline;
+    private List<Projection> scenarios;
+
+    public ScenarioResponse(String featureVersion, long seed, int paths, Projection baseline, List<Projection> scenarios) {
+        this.featureVersion = featureVersion;
+        this.seed = seed;
+        this.paths = paths;
+        this.baseline = baseline;
+        this.scenarios = scenarios;
+    }
+
+    // デフォルトコンストラクタ (JSON変換用)
+    public ScenarioResponse() {}
+
+    public String getFeatureVersion() { return featureVersion; }
+    public long getSeed() { return seed; }
+    public int getPaths() { return paths; }
+    public Projection getBaseline() { return baseline; }
+    public List<Projection> getScenarios() { return scenarios; }
+
+    /**
+     * 1シナリオ分の予測。実際に使った入力値と、月ごとの p5 / 中央値 / p95 (円) を持ちます。
+     */
+    public static class Projection {
+        private String name;
+        private long regularMonthlyNet;
+        private double eventProbability;
+        private long eventAvgAmount;
+        private double annualReturnRate;
+        private long[] lowerPoints;
+        private long[] projectionPoints;
+        private long[] upperPoints;
+
+        public Projection(String name, long regularMonthlyNet, double eventProbability, long eventAvgAmount,
+                          double annualReturnRate, ProjectionBands bands) {
+            this.name = name;
+            this.regularMonthlyNet = regularMonthlyNet;
+            this.eventProbability = eventProbability;
+            this.eventAvgAmount = eventAvgAmount;
+            this.annualReturnRate = annualReturnRate;
+            this.lowerPoints = bands.getP5();
+            this.projectionPoints = bands.getP50();
+            this.upperPoints = bands.getP95();
+        }
+
+        // デフォルトコンストラクタ (JSON変換用)
+        public Projection() {}
+
+        public String getName() { return name; }
+        public long getRegularMonthlyNet() { return regularMonthlyNet; }
+        public double getEventProbability() { return eventProbability; }
+        public long getEventAvgAmount() { return eventAvgAmount; }
+        public double getAnnualReturnRate() { return annualReturnRate; }
+        public long[] getLowerPoints() { return lowerPoints; }
+        public long[] getProjectionPoints() { return projectionPoints; }
+        public long[] getUpperPoints() { return upperPoints; }
+    }
+}
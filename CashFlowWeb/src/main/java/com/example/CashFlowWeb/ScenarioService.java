@@ -0,0 +1,150 @@
+package com.example.CashFlowWeb;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * 資産予測の「もしも」シナリオをまとめて評価するクラス。
+ *
+ * 入力値は PredictionFeatureStore のスナップショットを1回だけ取得し、全シナリオで共有します。
+ * シナリオは並列に実行し、すべて同じシードを使います。(共通乱数: シナリオ間の差が乱数の違いではなく、
+ * 指定した変更によるものになるため)
+ */
+@Component
+public class ScenarioService {
+
+    // 1回のリクエストで評価できるシナリオ数
+    static final int MAX_SCENARIOS = 20;
+
+    private final PredictionFeatureStore predictionFeatures;
+    private final ProjectionEngine projectionEngine;
+
+    public ScenarioService(PredictionFeatureStore predictionFeatures, ProjectionEngine projectionEngine) {
+        this.predictionFeatures = predictionFeatures;
+        this.projectionEngine = projectionEngine;
+    }
+
+    /**
+     * シナリオを評価します。
+     * @throws IllegalArgumentException リクエストの値が範囲外の場合
+     */
+    public ScenarioResponse evaluate(ScenarioRequest request) {
+        List<ScenarioRequest.Scenario> scenarios = scenariosOf(request);
+        validate(request, scenarios);
+
+        PredictionFeatures features = predictionFeatures.get();
+        long seed = request.getSeed() != null ? request.getSeed() : features.defaultSeed();
+
+        // 全シナリオが同時にメモリを使うため、途中経過のセル数の合計が1回の予測の上限に収まるよう試行回数を揃えて減らす
+        int maxMonths = request.getMonthsToPredict();
+        for (ScenarioRequest.Scenario s : scenarios) {
+            maxMonths = Math.max(maxMonths, monthsOf(request, s));
+        }
+        int runs = scenarios.size() + 1;
+        int paths = Math.max(1, Math.min(request.getPaths(), ProjectionEngine.MAX_CELLS / runs / (maxMonths + 1)));
+
+        // 添字0は変更なしの予測
+        List<ScenarioResponse.Projection> projections = IntStream.range(0, runs).parallel()
+                .mapToObj(i -> i == 0
+                        ? project("baseline", features, null, request.getMonthsToPredict(), paths, seed)
+                        : project(scenarios.get(i - 1).getName(), features, scenarios.get(i - 1), monthsOf(request, scenarios.get(i - 1)), paths, seed))
+                .toList();
+
+        return new ScenarioResponse(features.getVersion(), seed, paths, projections.get(0), projections.subList(1, runs));
+    }
+
+    private ScenarioResponse.Projection project(String name, PredictionFeatures features, ScenarioRequest.Scenario scenario,
+                                                int months, int paths, long seed) {
+        long net = features.getRegularMonthlyNet();
+        double probability = features.getEventProbability();
+        long avgAmount = features.getEventAvgAmount();
+        double annualRate = features.getAnnualInterestRate();
+        long[] oneOffAmounts = null;
+
+        if (scenario != null) {
+            net += scenario.getMonthlyNetDelta();
+            if (scenario.getEventProbability() != null) probability = scenario.getEventProbability();
+            if (scenario.getEventAvgAmount() != null) avgAmount = scenario.getEventAvgAmount();
+            if (scenario.getAnnualReturnRate() != null) annualRate = scenario.getAnnualReturnRate();
+            if (scenario.getOneOffs() != null && !scenario.getOneOffs().isEmpty()) {
+                oneOffAmounts = new long[months + 1];
+                for (Map.Entry<Integer, Long> e : scenario.getOneOffs().entrySet()) {
+                    oneOffAmounts[e.getKey()] += e.getValue();
+                }
+            }
+        }
+
+        ProjectionModel model = new ProjectionModel(features.getTotalAssets(), net, probability, avgAmount, annualRate / 12.0, oneOffAmounts);
+        ProjectionBands bands = projectionEngine.simulate(model, months, paths, seed);
+        return new ScenarioResponse.Projection(name, net, probability, avgAmount, annualRate, bands);
+    }
+
+    /**
+     * 評価せずに値の範囲だけを確認します。(非同期で評価する前に、リクエストの誤りをすぐ返すため)
+     * @throws IllegalArgumentException リクエストの値が範囲外の場合
+     */
+    public void validate(ScenarioRequest request) {
+        validate(request, scenariosOf(request));
+    }
+
+    private static List<ScenarioRequest.Scenario> scenariosOf(ScenarioRequest request) {
+        return request.getScenarios() != null ? request.getScenarios() : List.of();
+    }
+
+    private static int monthsOf(ScenarioRequest request, ScenarioRequest.Scenario scenario) {
+        return scenario.getMonths() != null ? scenario.getMonths() : request.getMonthsToPredict();
+    }
+
+    private static void validate(ScenarioRequest request, List<ScenarioRequest.Scenario> scenarios) {
+        List<String> errors = new ArrayList<>();
+        if (!validMonths(request.getMonthsToPredict())) {
+            errors.add("monthsToPredict は 1〜" + ProjectionEngine.MAX_MONTHS + " で指定してください");
+        }
+        if (request.getPaths() < 1) {
+            errors.add("paths は1以上で指定してください");
+        }
+        if (scenarios.isEmpty() || scenarios.size() > MAX_SCENARIOS) {
+            errors.add("scenarios は1〜" + MAX_SCENARIOS + "件で指定してください");
+        }
+        for (int i = 0; i < scenarios.size(); i++) {
+            ScenarioRequest.Scenario s = scenarios.get(i);
+            String label = "scenarios[" + i + "]: ";
+            if (s == null) {
+                errors.add(label + "空です");
+                continue;
+            }
+            int months = monthsOf(request, s);
+            if (!validMonths(months)) {
+                errors.add(label + "months は 1〜" + ProjectionEngine.MAX_MONTHS + " で指定してください");
+            }
+            if (s.getEventProbability() != null && !(s.getEventProbability() >= 0 && s.getEventProbability() <= 1)) {
+                errors.add(label + "eventProbability は 0〜1 で指定してください");
+            }
+            if (s.getEventAvgAmount() != null && s.getEventAvgAmount() < 0) {
+                errors.add(label + "eventAvgAmount は0以上で指定してください");
+            }
+            if (s.getAnnualReturnRate() != null && !(s.getAnnualReturnRate() > -1 && s.getAnnualReturnRate() <= 1)) {
+                errors.add(label + "annualReturnRate は -1 より大きく 1 以下で指定してください");
+            }
+            if (s.getOneOffs() != null) {
+                for (Map.Entry<Integer, Long> e : s.getOneOffs().entrySet()) {
+                    if (e.getKey() == null || e.getKey() < 1 || e.getKey() > months || e.getValue() == null) {
+                        errors.add(label + "oneOffs の月は 1〜" + months + " で、金額とともに指定してください");
+                        break;
+                    }
+                }
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join(" / ", errors));
+        }
+    }
+
+    private static boolean validMonths(int months) {
+        return months >= 1 && months <= ProjectionEngine.MAX_MONTHS;
+    }
+}
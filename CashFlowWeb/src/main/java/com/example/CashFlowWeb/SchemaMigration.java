@@ -0,0 +1,33 @@
+package com.example.CashFlowWeb;
+
+import java.util.List;
+
+/**
+ * バージョン番号付きのスキーマ変更(マイグレーション)1件分を保持するクラス。
+ * SQLiteとPostgreSQLで構文が異なるため、DDLは方言ごとに持ちます。
+ */
+public class SchemaMigration {
+    private final int version;
+    private final String description;
+    private final List<String> sqliteStatements;
+    private final List<String> postgresStatements;
+
+    public SchemaMigration(int version, String description, List<String> sqliteStatements, List<String> postgresStatements) {
+        this.version = version;
+        this.description = description;
+        this.sqliteStatements = sqliteStatements;
+        this.postgresStatements = postgresStatements;
+    }
+
+    // 両方の方言で同じSQLを使う場合のコンストラクタ
+    public SchemaMigration(int version, String description, List<String> statements) {
+        this(version, description, statements, statements);
+    }
+
+    public int getVersion() { return version; }
+    public String getDescription() { return description; }
+
+    public List<String> getStatements(SqlDialect dialect) {
+        return dialect == SqlDialect.POSTGRES ? postgresStatements : sqliteStatements;
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.CashFlowWeb;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * スキーマのマイグレーションを順番に適用するクラス。
+ * 適用済みのバージョンは schema_version テーブルに記録し、未適用のものだけを
+ * バージョン順に1件ずつトランザクション内で実行します。
+ * 各DDLは IF NOT EXISTS 付きで書き、既存のDBに対して再実行しても安全にしています。
+ *
+ * 新しいスキーマ変更は MIGRATIONS の末尾に、次のバージョン番号で追加してください。
+ * (適用済みのマイグレーションを後から書き換えてはいけません)
+ */
+public class SchemaMigrator {
+
+    // 取引テーブルから月次集計を作り直す (V6 以降の列構成)
+    private static final String REBUILD_ROLLUPS =
+        "INSERT INTO monthly_rollups (month, category_id, type, is_extraordinary, is_future, total_amount, tx_count) " +
+        "SELECT month, COALESCE(category_id, 0), type, COALESCE(is_extraordinary, FALSE), COALESCE(is_future, FALSE), SUM(amount), COUNT(*) " +
+        "FROM transactions GROUP BY 1, 2, 3, 4, 5";
+
+    private static final List<SchemaMigration> MIGRATIONS = List.of(
+
+        // V1: 初期テーブル (以前の initializeDatabase で作成していたもの + users)
+        new SchemaMigration(1, "初期テーブルの作成",
+            List.of(
+                "CREATE TABLE IF NOT EXISTS categories (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, type TEXT NOT NULL CHECK(type IN ('INCOME', 'EXPENSE')))",
+                "CREATE TABLE IF NOT EXISTS transactions (id INTEGER PRIMARY KEY AUTOINCREMENT, date TEXT NOT NULL, amount REAL NOT NULL, type TEXT NOT NULL, category_id INTEGER, is_future BOOLEAN DEFAULT FALSE, is_extraordinary BOOLEAN DEFAULT FALSE, FOREIGN KEY (category_id) REFERENCES categories(id))",
+                "CREATE TABLE IF NOT EXISTS assets (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, ticker_symbol TEXT, quantity REAL NOT NULL, purchase_price REAL NOT NULL, current_price REAL, asset_type TEXT NOT NULL)",
+                "CREATE TABLE IF NOT EXISTS budgets (id INTEGER PRIMARY KEY AUTOINCREMENT, year_month TEXT NOT NULL, category_id INTEGER NOT NULL, amount REAL NOT NULL, UNIQUE(year_month, category_id))",
+                "CREATE TABLE IF NOT EXISTS goals (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, target_amount REAL NOT NULL, current_amount REAL NOT NULL DEFAULT 0, target_date TEXT, image_url TEXT)",
+                "CREATE TABLE IF NOT EXISTS users (id INTEGER PRIMARY KEY AUTOINCREMENT, username TEXT NOT NULL UNIQUE, password_hash TEXT NOT NULL, role TEXT NOT NULL DEFAULT 'USER')"
+            ),
+            List.of(
+                "CREATE TABLE IF NOT EXISTS categories (id SERIAL PRIMARY KEY, name TEXT NOT NULL, type TEXT NOT NULL CHECK(type IN ('INCOME', 'EXPENSE')))",
+                "CREATE TABLE IF NOT EXISTS transactions (id SERIAL PRIMARY KEY, date TEXT NOT NULL, amount DOUBLE PRECISION NOT NULL, type TEXT NOT NULL, category_id INTEGER, is_future BOOLEAN DEFAULT FALSE, is_extraordinary BOOLEAN DEFAULT FALSE, FOREIGN KEY (category_id) REFERENCES categories(id))",
+                "CREATE TABLE IF NOT EXISTS assets (id SERIAL PRIMARY KEY, name TEXT NOT NULL, ticker_symbol TEXT, quantity DOUBLE PRECISION NOT NULL, purchase_price DOUBLE PRECISION NOT NULL, current_price DOUBLE PRECISION, asset_type TEXT NOT NULL)",
+                "CREATE TABLE IF NOT EXISTS budgets (id SERIAL PRIMARY KEY, year_month TEXT NOT NULL, category_id INTEGER NOT NULL, amount DOUBLE PRECISION NOT NULL, UNIQUE(year_month, category_id))",
+                "CREATE TABLE IF NOT EXISTS goals (id SERIAL PRIMARY KEY, name TEXT NOT NULL, target_amount DOUBLE PRECISION NOT NULL, current_amount DOUBLE PRECISION NOT NULL DEFAULT 0, target_date TEXT, image_url TEXT)",
+                "CREATE TABLE IF NOT EXISTS users (id SERIAL PRIMARY KEY, username TEXT NOT NULL UNIQUE, password_hash TEXT NOT NULL, role TEXT NOT NULL DEFAULT 'USER')"
+            )
+        ),
+
+        // V2: 主要クエリの WHERE / ORDER BY に合わせたインデックス
+        //  - getFilteredTransactions: 期間指定 + ORDER BY date DESC, id DESC
+        //  - getFilteredTransactions(categoryId指定) / isCategoryUsed: category_id で絞り込み、日付順
+        //  - getCategorySummary / 残高計算: type と is_future で絞り込み、期間指定
+        //  - findByUsername: LOWER(username) = LOWER(?) のため式インデックス
+        //  ※ budgets(year_month) は UNIQUE(year_month, category_id) の索引が先頭列で効くため追加しません
+        new SchemaMigration(2, "検索用インデックスの追加",
+            List.of(
+                "CREATE INDEX IF NOT EXISTS idx_transactions_date_id ON transactions (date, id)",
+                "CREATE INDEX IF NOT EXISTS idx_transactions_category_date ON transactions (category_id, date)",
+                "CREATE INDEX IF NOT EXISTS idx_transactions_type_future_date ON transactions (type, is_future, date)",
+                "CREATE INDEX IF NOT EXISTS idx_users_username_lower ON users (LOWER(username))"
+            )
+        ),
+
+        // V3: 月次集計テーブル (月 × カテゴリ × 収支 × 臨時 × 未来 ごとの合計額と件数)
+        //  TransactionDAO の書き込みと同じトランザクションで更新し、ダッシュボードの集計はここから読みます。
+        //  既存の取引からの初期集計もこのマイグレーションで行います。
+        new SchemaMigration(3, "月次集計テーブルの追加",
+            List.of(
+                "CREATE TABLE IF NOT EXISTS monthly_rollups (month TEXT NOT NULL, category_id INTEGER NOT NULL, type TEXT NOT NULL, is_extraordinary BOOLEAN NOT NULL, is_future BOOLEAN NOT NULL, total_amount REAL NOT NULL, tx_count INTEGER NOT NULL, PRIMARY KEY (month, category_id, type, is_extraordinary, is_future))",
+                "DELETE FROM monthly_rollups",
+                "INSERT INTO monthly_rollups (month, category_id, type, is_extraordinary, is_future, total_amount, tx_count) " +
+                "SELECT strftime('%Y-%m', date), COALESCE(category_id, 0), type, COALESCE(is_extraordinary, FALSE), COALESCE(is_future, FALSE), SUM(amount), COUNT(*) " +
+                "FROM transactions GROUP BY 1, 2, 3, 4, 5"
+            ),
+            List.of(
+                "CREATE TABLE IF NOT EXISTS monthly_rollups (month TEXT NOT NULL, category_id INTEGER NOT NULL, type TEXT NOT NULL, is_extraordinary BOOLEAN NOT NULL, is_future BOOLEAN NOT NULL, total_amount DOUBLE PRECISION NOT NULL, tx_count INTEGER NOT NULL, PRIMARY KEY (month, category_id, type, is_extraordinary, is_future))",
+                "DELETE FROM monthly_rollups",
+                "INSERT INTO monthly_rollups (month, category_id, type, is_extraordinary, is_future, total_amount, tx_count) " +
+                "SELECT LEFT(date, 7), COALESCE(category_id, 0), type, COALESCE(is_extraordinary, FALSE), COALESCE(is_future, FALSE), SUM(amount), COUNT(*) " +
+                "FROM transactions GROUP BY 1, 2, 3, 4, 5"
+            )
+        ),
+
+        // V4: 明細インポート時のカテゴリ振り分けルール (摘要に pattern を含めば category_id に分類)
+        //  priority の小さい順に評価し、最初に一致したルールを使います。
+        new SchemaMigration(4, "カテゴリ振り分けルールの追加",
+            List.of(
+                "CREATE TABLE IF NOT EXISTS category_rules (id INTEGER PRIMARY KEY AUTOINCREMENT, pattern TEXT NOT NULL, category_id INTEGER NOT NULL, priority INTEGER NOT NULL DEFAULT 100, FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE CASCADE)"
+            ),
+            List.of(
+                "CREATE TABLE IF NOT EXISTS category_rules (id SERIAL PRIMARY KEY, pattern TEXT NOT NULL, category_id INTEGER NOT NULL, priority INTEGER NOT NULL DEFAULT 100, FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE CASCADE)"
+            )
+        ),
+
+        // V5: 日付列を 'YYYY-MM-DD' のTEXTから、SQLiteはエポック日のINTEGER、PostgreSQLはDATE型に変更
+        //  取引には月次集計と同じ 'YYYY-MM' の月キー (month) を持たせ、集計時に日付から年月を求めなくて済むようにします。
+        //  SQLiteは列の型を変更できないため、テーブルを作り直して移します。(削除されたインデックスも作り直す)
+        new SchemaMigration(5, "日付列の型変更と月キーの追加",
+            List.of(
+                "CREATE TABLE transactions_v5 (id INTEGER PRIMARY KEY AUTOINCREMENT, date INTEGER NOT NULL, month TEXT NOT NULL, amount REAL NOT NULL, type TEXT NOT NULL, category_id INTEGER, is_future BOOLEAN DEFAULT FALSE, is_extraordinary BOOLEAN DEFAULT FALSE, FOREIGN KEY (category_id) REFERENCES categories(id))",
+                "INSERT INTO transactions_v5 (id, date, month, amount, type, category_id, is_future, is_extraordinary) " +
+                "SELECT id, CAST(julianday(date) - 2440587.5 AS INTEGER), substr(date, 1, 7), amount, type, category_id, is_future, is_extraordinary FROM transactions",
+                // 削除済みの行のIDを再利用しないよう、AUTOINCREMENT の採番位置も引き継ぐ
+                "DELETE FROM sqlite_sequence WHERE name = 'transactions_v5'",
+                "INSERT INTO sqlite_sequence (name, seq) SELECT 'transactions_v5', seq FROM sqlite_sequence WHERE name = 'transactions'",
+                "DROP TABLE transactions",
+                "ALTER TABLE transactions_v5 RENAME TO transactions",
+                "CREATE INDEX idx_transactions_date_id ON transactions (date, id)",
+                "CREATE INDEX idx_transactions_category_date ON transactions (category_id, date)",
+                "CREATE INDEX idx_transactions_type_future_date ON transactions (type, is_future, date)",
+                "CREATE TABLE goals_v5 (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, target_amount REAL NOT NULL, current_amount REAL NOT NULL DEFAULT 0, target_date INTEGER, image_url TEXT)",
+                "INSERT INTO goals_v5 (id, name, target_amount, current_amount, target_date, image_url) " +
+                "SELECT id, name, target_amount, current_amount, CAST(julianday(NULLIF(target_date, '')) - 2440587.5 AS INTEGER), image_url FROM goals",
+                "DELETE FROM sqlite_sequence WHERE name = 'goals_v5'",
+                "INSERT INTO sqlite_sequence (name, seq) SELECT 'goals_v5', seq FROM sqlite_sequence WHERE name = 'goals'",
+                "DROP TABLE goals",
+                "ALTER TABLE goals_v5 RENAME TO goals"
+            ),
+            List.of(
+                "ALTER TABLE transactions ALTER COLUMN date TYPE DATE USING date::date",
+                "ALTER TABLE transactions ADD COLUMN month TEXT",
+                "UPDATE transactions SET month = to_char(date, 'YYYY-MM')",
+                "ALTER TABLE transactions ALTER COLUMN month SET NOT NULL",
+                "ALTER TABLE goals ALTER COLUMN target_date TYPE DATE USING NULLIF(target_date, '')::date"
+            )
+        ),
+
+        // V6: 金額の列を REAL / DOUBLE PRECISION から円単位の整数 (INTEGER / BIGINT) に変更
+        //  既存の値は円未満を四捨五入し、月次集計は丸めた後の取引から作り直します。
+        //  資産の保有数量と単価 (quantity / purchase_price / current_price) は端数を持つため REAL のままです。
+        //  (評価額 = 数量 × 単価 を計算した後に円単位へ丸めます)
+        new SchemaMigration(6, "金額の整数化",
+            concat(
+                rebuildSqliteTable("transactions",
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT, date INTEGER NOT NULL, month TEXT NOT NULL, amount INTEGER NOT NULL, type TEXT NOT NULL, category_id INTEGER, is_future BOOLEAN DEFAULT FALSE, is_extraordinary BOOLEAN DEFAULT FALSE, FOREIGN KEY (category_id) REFERENCES categories(id)",
+                    "id, date, month, CAST(ROUND(amount) AS INTEGER), type, category_id, is_future, is_extraordinary"),
+                List.of(
+                    "CREATE INDEX idx_transactions_date_id ON transactions (date, id)",
+                    "CREATE INDEX idx_transactions_category_date ON transactions (category_id, date)",
+                    "CREATE INDEX idx_transactions_type_future_date ON transactions (type, is_future, date)",
+                    "DROP TABLE monthly_rollups",
+                    "CREATE TABLE monthly_rollups (month TEXT NOT NULL, category_id INTEGER NOT NULL, type TEXT NOT NULL, is_extraordinary BOOLEAN NOT NULL, is_future BOOLEAN NOT NULL, total_amount INTEGER NOT NULL, tx_count INTEGER NOT NULL, PRIMARY KEY (month, category_id, type, is_extraordinary, is_future))",
+                    REBUILD_ROLLUPS
+                ),
+                rebuildSqliteTable("budgets",
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT, year_month TEXT NOT NULL, category_id INTEGER NOT NULL, amount INTEGER NOT NULL, UNIQUE(year_month, category_id)",
+                    "id, year_month, category_id, CAST(ROUND(amount) AS INTEGER)"),
+                rebuildSqliteTable("goals",
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, target_amount INTEGER NOT NULL, current_amount INTEGER NOT NULL DEFAULT 0, target_date INTEGER, image_url TEXT",
+                    "id, name, CAST(ROUND(target_amount) AS INTEGER), CAST(ROUND(current_amount) AS INTEGER), target_date, image_url")
+            ),
+            List.of(
+                "ALTER TABLE transactions ALTER COLUMN amount TYPE BIGINT USING ROUND(amount)::bigint",
+                "ALTER TABLE monthly_rollups ALTER COLUMN total_amount TYPE BIGINT USING ROUND(total_amount)::bigint",
+                "DELETE FROM monthly_rollups",
+                REBUILD_ROLLUPS,
+                "ALTER TABLE budgets ALTER COLUMN amount TYPE BIGINT USING ROUND(amount)::bigint",
+                "ALTER TABLE goals ALTER COLUMN target_amount TYPE BIGINT USING ROUND(target_amount)::bigint, " +
+                "ALTER COLUMN current_amount TYPE BIGINT USING ROUND(current_amount)::bigint"
+            )
+        )
+    );
+
+    /**
+     * SQLiteで列の型を変更するための文の並び。(SQLiteは ALTER COLUMN に対応していないため)
+     * 新しい定義でテーブルを作り、select の列でデータを移してから元のテーブルと入れ替えます。
+     * 削除済みの行のIDを再利用しないよう、AUTOINCREMENT の採番位置も引き継ぎます。
+     * インデックスは元のテーブルと一緒に削除されるため、呼び出し側で作り直してください。
+     */
+    private static List<String> rebuildSqliteTable(String table, String columns, String select) {
+        String rebuilt = table + "_rebuilt";
+        return List.of(
+            "CREATE TABLE " + rebuilt + " (" + columns + ")",
+            "INSERT INTO " + rebuilt + " SELECT " + select + " FROM " + table,
+            "DELETE FROM sqlite_sequence WHERE name = '" + rebuilt + "'",
+            "INSERT INTO sqlite_sequence (name, seq) SELECT '" + rebuilt + "', seq FROM sqlite_sequence WHERE name = '" + table + "'",
+            "DROP TABLE " + table,
+            "ALTER TABLE " + rebuilt + " RENAME TO " + table
+        );
+    }
+
+    @SafeVarargs
+    private static List<String> concat(List<String>... parts) {
+        List<String> all = new ArrayList<>();
+        for (List<String> part : parts) {
+            all.addAll(part);
+        }
+        return all;
+    }
+
+    /**
+     * 未適用のマイグレーションをすべて適用し、起動ログに適用状況を出力します。
+     * 失敗した場合はそのマイグレーションをロールバックし、例外を投げて起動を止めます。
+     */
+    public void migrate(Connection conn, SqlDialect dialect) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                         "version INTEGER PRIMARY KEY, description TEXT NOT NULL, applied_at TEXT NOT NULL)");
+        }
+
+        Set<Integer> applied = fetchAppliedVersions(conn);
+        List<Integer> newlyApplied = new ArrayList<>();
+
+        boolean originalAutoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (SchemaMigration migration : MIGRATIONS) {
+                if (applied.contains(migration.getVersion())) {
+                    continue;
+                }
+                try {
+                    apply(conn, migration, dialect);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw new SQLException("マイグレーション V" + migration.getVersion() + " (" + migration.getDescription() + ") の適用に失敗しました: " + e.getMessage(), e);
+                }
+                applied.add(migration.getVersion());
+                newlyApplied.add(migration.getVersion());
+            }
+        } finally {
+            conn.setAutoCommit(originalAutoCommit);
+        }
+
+        System.out.println("スキーマバージョン (" + (dialect == SqlDialect.POSTGRES ? "PostgreSQL" : "SQLite") + "): 適用済み " + applied +
+                           (newlyApplied.isEmpty() ? " / 新規適用なし" : " / 今回適用 " + newlyApplied));
+    }
+
+    private void apply(Connection conn, SchemaMigration migration, SqlDialect dialect) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : migration.getStatements(dialect)) {
+                stmt.execute(sql);
+            }
+        }
+        String sql = "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, migration.getVersion());
+            pstmt.setString(2, migration.getDescription());
+            pstmt.setString(3, LocalDateTime.now().toString());
+            pstmt.executeUpdate();
+        }
+    }
+
+    private Set<Integer> fetchAppliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new TreeSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
+            while (rs.next()) {
+                versions.add(rs.getInt("version"));
+            }
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.CashFlowWeb;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * データベースごとに異なるSQL表現を切り替えるための方言定義。
+ * DBManager が接続URLから選択します。
+ *
+ * DAOとマイグレーションはSQLを組み立てる際に、エンジン固有の書き方をここから取得します。
+ * (SQLite専用の構文をDAOに直接書くと、PostgreSQLで失敗するか、Java側での集計に逃げることになるため)
+ */
+public enum SqlDialect {
+
+    SQLITE {
+        // 日付列は INTEGER (1970-01-01 を 0 とするエポック日)
+        @Override
+        public Object dateValue(LocalDate date) {
+            return date != null ? (int) date.toEpochDay() : null;
+        }
+
+        @Override
+        public LocalDate getDate(ResultSet rs, String column) throws SQLException {
+            long epochDay = rs.getLong(column);
+            return rs.wasNull() ? null : LocalDate.ofEpochDay(epochDay);
+        }
+
+        @Override
+        public int getEpochDay(ResultSet rs, String column) throws SQLException {
+            return rs.getInt(column);
+        }
+    },
+
+    POSTGRES {
+        // 日付列は DATE 型。JDBCドライバが LocalDate と直接変換する
+        @Override
+        public Object dateValue(LocalDate date) {
+            return date;
+        }
+
+        @Override
+        public LocalDate getDate(ResultSet rs, String column) throws SQLException {
+            return rs.getObject(column, LocalDate.class);
+        }
+
+        @Override
+        public int getEpochDay(ResultSet rs, String column) throws SQLException {
+            return (int) rs.getObject(column, LocalDate.class).toEpochDay();
+        }
+    };
+
+    /**
+     * 日付列 (transactions.date / goals.target_date) に渡すパラメータ値を返します。
+     * PreparedStatement.setObject() で渡してください。date が null なら null。
+     */
+    public abstract Object dateValue(LocalDate date);
+
+    /**
+     * 日付列の値を LocalDate として読み取ります。NULL の場合は null。
+     */
+    public abstract LocalDate getDate(ResultSet rs, String column) throws SQLException;
+
+    /**
+     * NOT NULL の日付列の値を、エポック日として読み取ります。(集計用。SQLiteでは LocalDate を作りません)
+     */
+    public abstract int getEpochDay(ResultSet rs, String column) throws SQLException;
+
+    /**
+     * 1行の挿入、一意キーが重複した場合は更新を行うSQLを返します。値はすべて ? で受け取ります。
+     * SQLite (3.24以降) と PostgreSQL はどちらも ON CONFLICT 構文に対応しているため、共通の形で組み立てます。
+     * (SQLite の INSERT OR REPLACE は行の削除と再挿入になり、PostgreSQL にはない構文のため使いません)
+     *
+     * @param conflictColumns 一意制約 (UNIQUE / PRIMARY KEY) の列
+     * @param updateSet 重複時の SET 句。挿入しようとした値は excluded.列名 で参照できます
+     */
+    public String upsert(String table, List<String> columns, List<String> conflictColumns, String updateSet) {
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") " +
+               "VALUES (" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ") " +
+               "ON CONFLICT (" + String.join(", ", conflictColumns) + ") DO UPDATE SET " + updateSet;
+    }
+
+    /**
+     * JDBC URLから方言を判定します。
+     */
+    public static SqlDialect fromJdbcUrl(String jdbcUrl) {
+        return jdbcUrl.startsWith("jdbc:postgresql:") ? POSTGRES : SQLITE;
+    }
+}
@@ -0,0 +1,566 @@
+package com.example.CashFlowWeb;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 銀行・カードの明細CSVを取り込むクラス。
+ *
+ * 処理の流れ:
+ *   1. 呼び出し元のスレッドがファイルを先頭から少しずつ読み、PARSE_BATCH_SIZE 行ずつに区切る
+ *   2. 区切った行の解析 (列の分割・日付/金額の変換・振り分けルールによるカテゴリ決定) をワーカーに任せる
+ *   3. 解析済みのバッチを読み込み順に受け取り、既存の取引との重複を除いて TransactionBulkWriter で登録する
+ * 解析待ちのバッチは最大 maxInFlight 個までに抑えるため、ファイルの大きさに関わらずメモリ使用量は一定です。
+ * 登録はファイル全体で1トランザクションのため、途中で失敗した場合は何も登録されません。
+ *
+ * 対応する列 (ヘッダー行の名前で判定。大文字・小文字は区別しない):
+ *   日付: date / 日付 / 取引日 / 利用日
+ *   摘要: description / 摘要 / 内容 / 取引内容 / 利用店名
+ *   金額: amount / 金額 (マイナスなら支出) または withdrawal / 出金 / 出金額 / お引出し / 支払金額 と deposit / 入金 / 入金額 / お預入れ
+ * エクスポートしたCSV (type, category_id 列あり) は、カテゴリをそのまま使って取り込みます。
+ */
+@Component
+public class StatementImporter {
+
+    // ワーカー1回分の行数
+    static final int PARSE_BATCH_SIZE = 2000;
+
+    // 進捗APIで返す直近のインポート数
+    static final int MAX_RECENT_IMPORTS = 20;
+
+    // どのルールにも一致しなかった行のカテゴリ名 (収入・支出それぞれ自動作成)
+    static final String UNCATEGORIZED = "未分類";
+
+    // 進捗をログに出す間隔 (行数)
+    private static final int PROGRESS_LOG_INTERVAL = 100_000;
+
+    private final TransactionDAO transactionDAO;
+    private final CategoryRuleDAO categoryRuleDAO;
+    private final CategoryRegistry categoryRegistry;
+    private final TransactionIngestService ingestService;
+
+    private final ExecutorService parserPool;
+    private final int maxInFlight;
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final Deque<ImportProgress> recentImports = new ArrayDeque<>();
+
+    public StatementImporter(TransactionDAO transactionDAO, CategoryRuleDAO categoryRuleDAO,
+                             CategoryRegistry categoryRegistry, TransactionIngestService ingestService,
+                             @Value("${cashflow.import.parser-threads:0}") int parserThreads) {
+        this.transactionDAO = transactionDAO;
+        this.categoryRuleDAO = categoryRuleDAO;
+        this.categoryRegistry = categoryRegistry;
+        this.ingestService = ingestService;
+
+        // 0以下ならCPUコア数に合わせる
+        int threads = parserThreads > 0 ? parserThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        this.parserPool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "statement-parser-" + threadNumber.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        this.maxInFlight = threads * 2;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parserPool.shutdownNow();
+    }
+
+    /**
+     * 直近のインポートの進捗・結果を新しい順に取得します。
+     */
+    public List<ImportProgress> getRecentImports() {
+        synchronized (recentImports) {
+            return new ArrayList<>(recentImports);
+        }
+    }
+
+    /**
+     * CSVを読み切るまで取り込みます。結果は戻り値と getRecentImports() の両方で参照できます。
+     * ヘッダーが不正な場合や登録に失敗した場合は、状態が FAILED の結果を返します。
+     *
+     * @param totalBytes 入力の大きさ (進捗率の計算用。不明なら -1)
+     */
+    public ImportProgress importCsv(InputStream in, Charset charset, long totalBytes) {
+        ImportProgress progress = new ImportProgress(nextId.getAndIncrement(), totalBytes);
+        synchronized (recentImports) {
+            recentImports.addFirst(progress);
+            if (recentImports.size() > MAX_RECENT_IMPORTS) {
+                recentImports.removeLast();
+            }
+        }
+
+        long start = System.nanoTime();
+        CountingInputStream counter = new CountingInputStream(in);
+        Deque<Future<ParsedBatch>> inFlight = new ArrayDeque<>();
+        Counters counters = new Counters();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(counter, charset), 1 << 16);
+             TransactionBulkWriter writer = transactionDAO.openBulkWriter()) {
+
+            String header = readRecord(reader);
+            if (header == null) {
+                throw new IllegalArgumentException("CSVが空です。");
+            }
+            if (!header.isEmpty() && header.charAt(0) == TransactionCsv.BOM) {
+                header = header.substring(1);
+            }
+            RowParser parser = new RowParser(ColumnLayout.detect(TransactionCsv.parseLine(header)), loadRules(),
+                categoryRegistry.findOrCreate(UNCATEGORIZED, "INCOME"),
+                categoryRegistry.findOrCreate(UNCATEGORIZED, "EXPENSE"),
+                ingestService, LocalDate.now());
+            Deduplicator deduplicator = new Deduplicator(transactionDAO);
+
+            List<String> records = new ArrayList<>(PARSE_BATCH_SIZE);
+            int row = 0;
+            int firstRow = 1;
+            String record;
+            while ((record = readRecord(reader)) != null) {
+                row++;
+                records.add(record);
+                if (records.size() == PARSE_BATCH_SIZE) {
+                    submit(inFlight, parser, records, firstRow);
+                    records = new ArrayList<>(PARSE_BATCH_SIZE);
+                    firstRow = row + 1;
+                    if (inFlight.size() >= maxInFlight) {
+                        write(inFlight.removeFirst(), deduplicator, writer, progress, counters, counter, start);
+                    }
+                }
+            }
+            if (!records.isEmpty()) {
+                submit(inFlight, parser, records, firstRow);
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.removeFirst(), deduplicator, writer, progress, counters, counter, start);
+            }
+
+            writer.commit();
+            progress.update(counter.count, counters.rows, counters.inserted, counters.duplicates, elapsedMillis(start));
+            progress.complete();
+            System.out.println("明細インポート #" + progress.getId() + " 完了: 登録 " + counters.inserted + "件 / 重複 " +
+                               counters.duplicates + "件 / エラー " + progress.getRejected() + "件 (" + progress.getElapsedMillis() + "ms)");
+        } catch (IllegalArgumentException e) {
+            progress.fail(e.getMessage());
+        } catch (IOException | SQLException | RuntimeException e) {
+            System.err.println("明細インポート #" + progress.getId() + " エラー: " + e.getMessage());
+            progress.fail("取り込みに失敗したため、登録をすべて取り消しました: " + e.getMessage());
+        } finally {
+            inFlight.forEach(f -> f.cancel(true));
+            if (progress.getState() != ImportProgress.State.COMPLETED) {
+                progress.update(counter.count, counters.rows, 0, counters.duplicates, elapsedMillis(start));
+            }
+        }
+        return progress;
+    }
+
+    private void submit(Deque<Future<ParsedBatch>> inFlight, RowParser parser, List<String> records, int firstRow) {
+        inFlight.addLast(parserPool.submit(() -> parser.parse(records, firstRow)));
+    }
+
+    /**
+     * 解析済みのバッチを受け取り、重複を除いて登録します。
+     */
+    private void write(Future<ParsedBatch> future, Deduplicator deduplicator, TransactionBulkWriter writer,
+                       ImportProgress progress, Counters counters, CountingInputStream counter, long start)
+            throws SQLException {
+        ParsedBatch batch;
+        try {
+            batch = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("インポートが中断されました。", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("明細の解析に失敗しました: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        for (int i = 0; i < batch.errorRows.size(); i++) {
+            progress.reject(batch.errorRows.get(i), batch.errorMessages.get(i));
+        }
+        if (!batch.transactions.isEmpty()) {
+            deduplicator.load(batch.minDate, batch.maxDate);
+            for (Transaction t : batch.transactions) {
+                if (deduplicator.consume(t)) {
+                    counters.duplicates++;
+                } else {
+                    writer.add(t);
+                    counters.inserted++;
+                }
+            }
+        }
+
+        int before = counters.rows;
+        counters.rows += batch.size;
+        progress.update(counter.count, counters.rows, counters.inserted, counters.duplicates, elapsedMillis(start));
+        if (before / PROGRESS_LOG_INTERVAL != counters.rows / PROGRESS_LOG_INTERVAL) {
+            System.out.println("明細インポート #" + progress.getId() + ": " + counters.rows + "行 処理済み" +
+                               (progress.getPercent() != null ? String.format(" (%.1f%%)", progress.getPercent()) : ""));
+        }
+    }
+
+    // 有効なカテゴリを指すルールだけを、評価順のまま読み込む
+    private List<CompiledRule> loadRules() {
+        List<CompiledRule> rules = new ArrayList<>();
+        for (CategoryRule rule : categoryRuleDAO.getAllRules()) {
+            Category category = categoryRegistry.getCategoryById(rule.getCategoryId());
+            if (category != null && !rule.getPattern().isEmpty()) {
+                rules.add(new CompiledRule(rule.getPattern().toLowerCase(Locale.ROOT), category));
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * CSVの1レコードを読みます。ダブルクォート内の改行は、次の行と連結して1レコードにします。
+     */
+    static String readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null || !TransactionCsv.hasOpenQuote(line)) {
+            return line;
+        }
+        StringBuilder record = new StringBuilder(line);
+        boolean open = true;
+        String next;
+        while (open && (next = reader.readLine()) != null) {
+            record.append('\n').append(next);
+            open ^= TransactionCsv.hasOpenQuote(next);
+        }
+        return record.toString();
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    // 呼び出し元スレッドだけが更新する集計値
+    private static final class Counters {
+        int rows;
+        int inserted;
+        int duplicates;
+    }
+
+    private static final class CompiledRule {
+        final String pattern; // 小文字化済み
+        final Category category;
+
+        CompiledRule(String pattern, Category category) {
+            this.pattern = pattern;
+            this.category = category;
+        }
+    }
+
+    /**
+     * ヘッダー行から求めた、各項目の列番号 (該当する列がなければ -1)。
+     */
+    static final class ColumnLayout {
+        int date = -1;
+        int description = -1;
+        int amount = -1;
+        int withdrawal = -1;
+        int deposit = -1;
+        int type = -1;
+        int categoryId = -1;
+        int isFuture = -1;
+        int isExtraordinary = -1;
+
+        static ColumnLayout detect(List<String> header) {
+            ColumnLayout layout = new ColumnLayout();
+            for (int i = 0; i < header.size(); i++) {
+                switch (header.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "date", "日付", "取引日", "利用日" -> layout.date = first(layout.date, i);
+                    case "description", "摘要", "内容", "取引内容", "利用店名" -> layout.description = first(layout.description, i);
+                    case "amount", "金額" -> layout.amount = first(layout.amount, i);
+                    case "withdrawal", "出金", "出金額", "お引出し", "支払金額" -> layout.withdrawal = first(layout.withdrawal, i);
+                    case "deposit", "入金", "入金額", "お預入れ" -> layout.deposit = first(layout.deposit, i);
+                    case "type" -> layout.type = first(layout.type, i);
+                    case "category_id" -> layout.categoryId = first(layout.categoryId, i);
+                    case "is_future" -> layout.isFuture = first(layout.isFuture, i);
+                    case "is_extraordinary" -> layout.isExtraordinary = first(layout.isExtraordinary, i);
+                    default -> { }
+                }
+            }
+            if (layout.date < 0) {
+                throw new IllegalArgumentException("日付の列が見つかりません。ヘッダー行を確認してください。");
+            }
+            if (layout.amount < 0 && layout.withdrawal < 0 && layout.deposit < 0) {
+                throw new IllegalArgumentException("金額の列が見つかりません。ヘッダー行を確認してください。");
+            }
+            return layout;
+        }
+
+        private static int first(int current, int index) {
+            return current >= 0 ? current : index;
+        }
+
+        // エクスポートしたCSVのように、収支区分とカテゴリIDを直接持っているか
+        boolean hasCategoryColumns() {
+            return type >= 0 && categoryId >= 0 && amount >= 0;
+        }
+    }
+
+    /**
+     * ワーカーで1バッチ分のレコードを取引に変換します。(状態を持たないため、複数スレッドから同時に使えます)
+     */
+    static final class RowParser {
+        private final ColumnLayout layout;
+        private final List<CompiledRule> rules;
+        private final Category uncategorizedIncome;
+        private final Category uncategorizedExpense;
+        private final TransactionIngestService ingestService;
+        private final LocalDate today;
+
+        RowParser(ColumnLayout layout, List<CompiledRule> rules, Category uncategorizedIncome, Category uncategorizedExpense,
+                  TransactionIngestService ingestService, LocalDate today) {
+            this.layout = layout;
+            this.rules = rules;
+            this.uncategorizedIncome = uncategorizedIncome;
+            this.uncategorizedExpense = uncategorizedExpense;
+            this.ingestService = ingestService;
+            this.today = today;
+        }
+
+        ParsedBatch parse(List<String> records, int firstRow) {
+            ParsedBatch batch = new ParsedBatch(records.size());
+            for (int i = 0; i < records.size(); i++) {
+                if (records.get(i).isBlank()) continue;
+                String error;
+                try {
+                    Transaction t = parseRecord(TransactionCsv.parseLine(records.get(i)));
+                    error = ingestService.validate(t);
+                    if (error == null) {
+                        batch.add(t);
+                        continue;
+                    }
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    error = e.getMessage();
+                }
+                batch.errorRows.add(firstRow + i);
+                batch.errorMessages.add(error);
+            }
+            return batch;
+        }
+
+        Transaction parseRecord(List<String> fields) {
+            LocalDate date = parseDate(field(fields, layout.date));
+            // 予定・臨時の区分は、列があればその値 (エクスポートしたCSV)。なければ日付から予定かどうかを決める
+            boolean isFuture = parseFlag(field(fields, layout.isFuture), date.isAfter(today));
+            boolean isExtraordinary = parseFlag(field(fields, layout.isExtraordinary), false);
+
+            if (layout.hasCategoryColumns()) {
+                String categoryId = field(fields, layout.categoryId);
+                if (categoryId.isEmpty()) {
+                    throw new IllegalArgumentException("カテゴリIDがありません。");
+                }
+                return new Transaction(date, parseAmount(field(fields, layout.amount)), field(fields, layout.type).toUpperCase(Locale.ROOT),
+                    Integer.parseInt(categoryId), isFuture, isExtraordinary);
+            }
+
+            String type;
+            long amount;
+            if (layout.amount >= 0) {
+                long signed = parseAmount(field(fields, layout.amount));
+                type = signed < 0 ? "EXPENSE" : "INCOME";
+                amount = Math.abs(signed);
+            } else {
+                String withdrawal = field(fields, layout.withdrawal);
+                String deposit = field(fields, layout.deposit);
+                if (!withdrawal.isEmpty()) {
+                    type = "EXPENSE";
+                    amount = parseAmount(withdrawal);
+                } else if (!deposit.isEmpty()) {
+                    type = "INCOME";
+                    amount = parseAmount(deposit);
+                } else {
+                    throw new IllegalArgumentException("金額がありません。");
+                }
+            }
+
+            Category category = categorize(field(fields, layout.description), type);
+            return new Transaction(date, amount, type, category.getId(), isFuture, isExtraordinary);
+        }
+
+        // 最初に一致したルールのカテゴリ (収支区分が合うもの)。なければ「未分類」
+        private Category categorize(String description, String type) {
+            String text = description.toLowerCase(Locale.ROOT);
+            for (CompiledRule rule : rules) {
+                if (rule.category.getType().equals(type) && text.contains(rule.pattern)) {
+                    return rule.category;
+                }
+            }
+            return type.equals("INCOME") ? uncategorizedIncome : uncategorizedExpense;
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index >= 0 && index < fields.size() ? fields.get(index).trim() : "";
+        }
+
+        /**
+         * 日付を読み取ります。2024-01-05 / 2024/1/5 / 2024年1月5日 / 20240105 に対応します。
+         */
+        static LocalDate parseDate(String value) {
+            String[] parts = value.split("\\D+");
+            List<String> numbers = new ArrayList<>(3);
+            for (String p : parts) {
+                if (!p.isEmpty()) numbers.add(p);
+            }
+            if (numbers.size() == 1 && numbers.get(0).length() == 8) {
+                String s = numbers.get(0);
+                return LocalDate.of(Integer.parseInt(s.substring(0, 4)), Integer.parseInt(s.substring(4, 6)), Integer.parseInt(s.substring(6)));
+            }
+            if (numbers.size() != 3) {
+                throw new IllegalArgumentException("日付を読み取れません: " + value);
+            }
+            return LocalDate.of(Integer.parseInt(numbers.get(0)), Integer.parseInt(numbers.get(1)), Integer.parseInt(numbers.get(2)));
+        }
+
+        /**
+         * true / false (1 / 0) の列を読み取ります。空欄なら defaultValue。
+         */
+        static boolean parseFlag(String value, boolean defaultValue) {
+            return switch (value.toLowerCase(Locale.ROOT)) {
+                case "" -> defaultValue;
+                case "true", "1" -> true;
+                case "false", "0" -> false;
+                default -> throw new IllegalArgumentException("true / false を読み取れません: " + value);
+            };
+        }
+
+        /**
+         * 金額を円単位の整数で読み取ります。桁区切りや通貨記号を除き、先頭の △ / ▲ はマイナスとして扱います。
+         * "1500.00" のように小数部が0なら受け付け、円未満の端数がある場合はエラーにします。
+         */
+        static long parseAmount(String value) {
+            String s = value.replace(",", "").replace("円", "").replace("¥", "").replace("￥", "").replace(" ", "").replace("+", "");
+            boolean negative = s.startsWith("△") || s.startsWith("▲");
+            if (negative) {
+                s = s.substring(1);
+            }
+            try {
+                long amount = new BigDecimal(s).longValueExact();
+                return negative ? -amount : amount;
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new IllegalArgumentException("金額を読み取れません: " + value);
+            }
+        }
+    }
+
+    /**
+     * ワーカーが解析した1バッチ分の結果。
+     */
+    static final class ParsedBatch {
+        final int size;
+        final List<Transaction> transactions = new ArrayList<>();
+        final List<Integer> errorRows = new ArrayList<>();
+        final List<String> errorMessages = new ArrayList<>();
+        LocalDate minDate;
+        LocalDate maxDate;
+
+        ParsedBatch(int size) {
+            this.size = size;
+        }
+
+        void add(Transaction t) {
+            transactions.add(t);
+            if (minDate == null || t.getDate().isBefore(minDate)) minDate = t.getDate();
+            if (maxDate == null || t.getDate().isAfter(maxDate)) maxDate = t.getDate();
+        }
+    }
+
+    /**
+     * 既存の取引との重複判定。
+     * (日付, 金額, カテゴリ) ごとに既存の件数を数えておき、同じキーの行が来るたびに1件ずつ消費します。
+     * 同じ明細を再度取り込んでも二重登録されず、1つの明細の中に同額の取引が複数あっても (既存になければ) すべて登録されます。
+     * 既存件数はバッチの日付範囲に合わせて必要な分だけ読み込み、読み込み済みの範囲は連続した1区間で管理します。
+     */
+    static final class Deduplicator {
+        private final TransactionDAO transactionDAO;
+        private final Map<TransactionFingerprint, Integer> remaining = new HashMap<>();
+        private LocalDate loadedFrom;
+        private LocalDate loadedTo;
+
+        Deduplicator(TransactionDAO transactionDAO) {
+            this.transactionDAO = transactionDAO;
+        }
+
+        void load(LocalDate from, LocalDate to) throws SQLException {
+            if (loadedFrom == null) {
+                remaining.putAll(transactionDAO.countFingerprints(from, to));
+                loadedFrom = from;
+                loadedTo = to;
+                return;
+            }
+            if (from.isBefore(loadedFrom)) {
+                remaining.putAll(transactionDAO.countFingerprints(from, loadedFrom.minusDays(1)));
+                loadedFrom = from;
+            }
+            if (to.isAfter(loadedTo)) {
+                remaining.putAll(transactionDAO.countFingerprints(loadedTo.plusDays(1), to));
+                loadedTo = to;
+            }
+        }
+
+        // 既存の取引と重複していれば true (その分を消費する)
+        boolean consume(Transaction t) {
+            TransactionFingerprint key = TransactionFingerprint.of(t);
+            Integer count = remaining.get(key);
+            if (count == null) {
+                return false;
+            }
+            if (count == 1) {
+                remaining.remove(key);
+            } else {
+                remaining.put(key, count - 1);
+            }
+            return true;
+        }
+    }
+
+    // 読み込んだバイト数を数える (進捗表示用)
+    private static final class CountingInputStream extends FilterInputStream {
+        volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
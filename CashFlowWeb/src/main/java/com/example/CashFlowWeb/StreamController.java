@@ -0,0 +1,27 @@
+package com.example.CashFlowWeb;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * ダッシュボードのライブ更新 (Server-Sent Events) のAPIコントローラー。
+ * 送るイベントの種類は LiveUpdates を参照してください。
+ */
+@RestController
+@RequestMapping("/api/stream")
+public class StreamController {
+
+    private final LiveUpdates liveUpdates;
+
+    public StreamController(LiveUpdates liveUpdates) {
+        this.liveUpdates = liveUpdates;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return liveUpdates.subscribe();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.CashFlowWeb;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 運用監視・保守用のAPIコントローラー。
+ */
+@RestController
+@RequestMapping("/api/system")
+public class SystemController {
+
+    private final DBManager dbManager;
+    private final TransactionDAO transactionDAO;
+    private final CategoryRegistry categoryRegistry;
+    private final DataVersions dataVersions;
+    private final AggregateCache aggregateCache;
+    private final LiveUpdates liveUpdates;
+
+    public SystemController(DBManager dbManager, TransactionDAO transactionDAO, CategoryRegistry categoryRegistry,
+                            DataVersions dataVersions, AggregateCache aggregateCache, LiveUpdates liveUpdates) {
+        this.dbManager = dbManager;
+        this.transactionDAO = transactionDAO;
+        this.categoryRegistry = categoryRegistry;
+        this.dataVersions = dataVersions;
+        this.aggregateCache = aggregateCache;
+        this.liveUpdates = liveUpdates;
+    }
+
+    /**
+     * コネクションプールの利用状況を取得します。
+     */
+    @GetMapping("/pool")
+    public PoolStats getPoolStats() {
+        return dbManager.getPoolStats();
+    }
+
+    /**
+     * カテゴリキャッシュのヒット率などを取得します。
+     */
+    @GetMapping("/caches/categories")
+    public CacheStats getCategoryCacheStats() {
+        return categoryRegistry.getStats();
+    }
+
+    /**
+     * 集計結果キャッシュのヒット率・追い出し件数・集計時間を取得します。
+     */
+    @GetMapping("/caches/aggregates")
+    public CacheStats getAggregateCacheStats() {
+        return aggregateCache.getStats();
+    }
+
+    /**
+     * 集計結果キャッシュを空にします。(DBを直接書き換えた場合など)
+     */
+    @DeleteMapping("/caches/aggregates")
+    public ResponseEntity<Void> clearAggregateCache() {
+        aggregateCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * ライブ更新 (/api/stream) の接続数を取得します。
+     */
+    @GetMapping("/stream/subscribers")
+    public int getStreamSubscribers() {
+        return liveUpdates.getSubscriberCount();
+    }
+
+    /**
+     * データの種類ごとの現在の更新番号 (ETag の元になる値) を取得します。
+     */
+    @GetMapping("/versions")
+    public Map<DataVersions.Domain, Long> getDataVersions() {
+        Map<DataVersions.Domain, Long> versions = new EnumMap<>(DataVersions.Domain.class);
+        for (DataVersions.Domain domain : DataVersions.Domain.values()) {
+            versions.put(domain, dataVersions.get(domain));
+        }
+        return versions;
+    }
+
+    /**
+     * 月次集計を取引テーブルから作り直します。
+     * 集計行の数を返します。
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Integer> rebuildMonthlyRollups() {
+        int rows = transactionDAO.rebuildMonthlyRollups();
+        return rows >= 0 ? ResponseEntity.ok(rows) : ResponseEntity.internalServerError().build();
+    }
+}
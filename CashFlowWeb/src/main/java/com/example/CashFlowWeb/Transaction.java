@@ -1,29 +1,30 @@
 package com.example.CashFlowWeb;
 
-import java.text.DecimalFormat;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import java.time.LocalDate;
 
 /**
  * 取引データを保持するモデルクラス。
+ * JSONへの変換は ModelSerializers.TransactionSerializer で行います。
  */
+@JsonSerialize(using = ModelSerializers.TransactionSerializer.class)
 public class Transaction {
     private int id;
     private LocalDate date;
-    private double amount;
+    private long amount; // 円
     private String type; // INCOME (収入) or EXPENSE (支出)
     private int categoryId;
     private String categoryName;
     private boolean isFuture; // 未来の予定取引フラグ
     private boolean isExtraordinary; // 臨時収支フラグ (定常的なら false, 臨時的なら true)
 
-    private static final DecimalFormat FORMATTER = new DecimalFormat("#,###");
-
     // ----------------------------------------
     // コンストラクタ
     // ----------------------------------------
 
     // 全フィールドを持つコンストラクタ (DBからの取得用)
-    public Transaction(int id, LocalDate date, double amount, String type, int categoryId, String categoryName, boolean isFuture, boolean isExtraordinary) {
+    public Transaction(int id, LocalDate date, long amount, String type, int categoryId, String categoryName, boolean isFuture, boolean isExtraordinary) {
         this.id = id;
         this.date = date;
         this.amount = amount;
@@ -35,7 +36,7 @@ public class Transaction {
     }
     
     // 取引登録時に使用するコンストラクタ（IDなし）
-    public Transaction(LocalDate date, double amount, String type, int categoryId, boolean isFuture, boolean isExtraordinary) {
+    public Transaction(LocalDate date, long amount, String type, int categoryId, boolean isFuture, boolean isExtraordinary) {
         this.date = date;
         this.amount = amount;
         this.type = type;
@@ -53,15 +54,15 @@ public class Transaction {
     
     public int getId() { return id; }
     public LocalDate getDate() { return date; }
-    public double getAmount() { return amount; }
+    public long getAmount() { return amount; }
     public String getType() { return type; }
     public int getCategoryId() { return categoryId; }
     public String getCategoryName() { return categoryName; }
     public boolean getIsFuture() { return isFuture; }
     public boolean getIsExtraordinary() { return isExtraordinary; }
 
-    // 補助Getter
+    // 補助Getter (?formatted=true の場合のみJSONに含める)
     public String getFormattedAmount() {
-        return FORMATTER.format(amount) + "円";
+        return YenFormat.format(amount) + "円";
     }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.example.CashFlowWeb;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 大量の取引を1つのトランザクションでまとめて登録するためのライター。
+ * TransactionDAO.openBulkWriter() で取得します。
+ *
+ * INSERT は BATCH_SIZE 件ごとに JDBC バッチで送信し、月次集計(monthly_rollups)への反映は
+ * メモリ上で集計キーごとに合算してから commit() 時に1キー1回だけ行います。
+ * commit() せずに close() した場合は、それまでの登録はすべてロールバックされます。
+ */
+public class TransactionBulkWriter implements AutoCloseable {
+
+    // 1回のバッチ送信でまとめる行数
+    static final int BATCH_SIZE = 1000;
+
+    private final TransactionDAO transactionDAO;
+    private final Connection conn;
+    private final SqlDialect dialect;
+    private final PreparedStatement insert;
+
+    // 集計キー → その月次集計行に加算する合計額と件数
+    private final Map<String, MonthlyRollup> rollupDeltas = new LinkedHashMap<>();
+
+    private int pending = 0;
+    private int written = 0;
+    private boolean committed = false;
+
+    TransactionBulkWriter(TransactionDAO transactionDAO, Connection conn, SqlDialect dialect) throws SQLException {
+        this.transactionDAO = transactionDAO;
+        this.conn = conn;
+        this.dialect = dialect;
+        try {
+            conn.setAutoCommit(false);
+            this.insert = conn.prepareStatement(TransactionDAO.INSERT_TRANSACTION);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 取引を1件追加します。(入力チェックは呼び出し側で済ませておくこと)
+     */
+    public void add(Transaction t) throws SQLException {
+        String type = t.getType().toUpperCase();
+        String month = TransactionDAO.monthOf(t.getDate());
+        insert.setObject(1, dialect.dateValue(t.getDate()));
+        insert.setString(2, month);
+        insert.setLong(3, t.getAmount());
+        insert.setString(4, type);
+        insert.setInt(5, t.getCategoryId());
+        insert.setBoolean(6, t.getIsFuture());
+        insert.setBoolean(7, t.getIsExtraordinary());
+        insert.addBatch();
+
+        String key = month + "|" + t.getCategoryId() + "|" + type + "|" + t.getIsExtraordinary() + "|" + t.getIsFuture();
+        MonthlyRollup current = rollupDeltas.get(key);
+        rollupDeltas.put(key, new MonthlyRollup(
+            month, t.getCategoryId(), type, t.getIsExtraordinary(), t.getIsFuture(),
+            (current != null ? current.getTotalAmount() : 0) + t.getAmount(),
+            (current != null ? current.getTxCount() : 0) + 1
+        ));
+
+        if (++pending >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * 未送信のバッチを送信し、月次集計を反映してコミットします。
+     * @return 登録した件数
+     */
+    public int commit() throws SQLException {
+        flush();
+        for (MonthlyRollup delta : rollupDeltas.values()) {
+            transactionDAO.applyRollupDelta(conn, delta);
+        }
+        conn.commit();
+        committed = true;
+        Set<String> months = new HashSet<>();
+        rollupDeltas.values().forEach(delta -> months.add(delta.getMonth()));
+        transactionDAO.ledgerChanged(months);
+        return written;
+    }
+
+    private void flush() throws SQLException {
+        if (pending == 0) return;
+        insert.executeBatch();
+        written += pending;
+        pending = 0;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            insert.close();
+            if (!committed) {
+                conn.rollback();
+            }
+        } finally {
+            conn.setAutoCommit(true);
+            conn.close();
+        }
+    }
+}
@@ -1,131 +1,213 @@
 package com.example.CashFlowWeb;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @RestController
+@ConditionalGet(DataVersions.Domain.LEDGER)
 @RequestMapping("/api/transactions")
 public class TransactionController {
-    
-    private final TransactionDAO transactionDAO = new TransactionDAO();
-    private final CategoryDAO categoryDAO = new CategoryDAO();
-    private final AssetDAO assetDAO = new AssetDAO();
 
-    public TransactionController() {
-        DBManager.initializeDatabase();
-        categoryDAO.initializeCache();
+    // 取引一覧のページサイズ (limit未指定時 / 上限)
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final TransactionDAO transactionDAO;
+    private final PredictionFeatureStore predictionFeatures;
+    private final ProjectionEngine projectionEngine;
+    private final ScenarioService scenarioService;
+    private final PredictionJobService predictionJobs;
+    private final TransactionIngestService ingestService;
+    private final ObjectMapper objectMapper;
+    private final AggregateCache aggregateCache;
+    private final LiveUpdates liveUpdates;
+    private final ColumnarLedger columnarLedger;
+    private final RangeTotalsIndex rangeTotalsIndex;
+
+    // テーブルの初期化はDBManager、カテゴリキャッシュの構築はCategoryRegistryの生成時に完了しています
+    public TransactionController(TransactionDAO transactionDAO, PredictionFeatureStore predictionFeatures, ProjectionEngine projectionEngine, ScenarioService scenarioService,
+                                 PredictionJobService predictionJobs, TransactionIngestService ingestService, ObjectMapper objectMapper, AggregateCache aggregateCache,
+                                 LiveUpdates liveUpdates, ColumnarLedger columnarLedger, RangeTotalsIndex rangeTotalsIndex) {
+        this.transactionDAO = transactionDAO;
+        this.predictionFeatures = predictionFeatures;
+        this.projectionEngine = projectionEngine;
+        this.scenarioService = scenarioService;
+        this.predictionJobs = predictionJobs;
+        this.ingestService = ingestService;
+        this.objectMapper = objectMapper;
+        this.aggregateCache = aggregateCache;
+        this.liveUpdates = liveUpdates;
+        this.columnarLedger = columnarLedger;
+        this.rangeTotalsIndex = rangeTotalsIndex;
     }
 
     /**
      * ▼▼▼ 高度なAI資産予測機能 (Reality Simulation) ▼▼▼
      * 固定費(isExtraordinary=false)をベースラインとし、
      * 臨時支出(isExtraordinary=true)の発生確率と規模を確率的にシミュレーションします。
+     * 試行を paths 回繰り返し、中央値と p5 / p95 の幅を返します。
+     *
+     * 入力は PredictionFeatureStore のスナップショット (取引か保有資産が変わったときだけ作り直す) から取ります。
+     * 乱数のシードは seed で指定でき、省略時は入力値から決めるため、同じデータ・同じパラメータなら常に同じ結果になります。
+     * (応答の seed と featureVersion で、どの入力とシードから計算したかを確認できます)
+     * 結果は集計キャッシュに保持します。(ETag の対象外)
      */
+    @ConditionalGet({})
     @GetMapping("/predict")
     public ResponseEntity<PredictionResult> predictAssetGrowth(
-            @RequestParam(defaultValue = "12") int monthsToPredict
+            @RequestParam(defaultValue = "12") int monthsToPredict,
+            @RequestParam(defaultValue = "10000") int paths,
+            @RequestParam(required = false) Long seed
     ) {
-        List<Transaction> allTransactions = transactionDAO.getAllTransactions();
-        
-        // 1. 現状資産 (現金 + ポートフォリオ評価額)
-        double currentCash = allTransactions.stream()
-                .mapToDouble(t -> t.getType().equals("INCOME") ? t.getAmount() : -t.getAmount())
-                .sum();
-        
-        double currentPortfolio = assetDAO.getAllAssets().stream()
-                                    .mapToDouble(Asset::getCurrentValue).sum();
-        
-        double totalAssets = currentCash + currentPortfolio;
-
-        // 2. 直近6ヶ月のデータ分析
-        LocalDate cutoff = LocalDate.now().minusMonths(6).withDayOfMonth(1);
-        List<Transaction> recentTx = allTransactions.stream()
-            .filter(t -> !t.getDate().isBefore(cutoff))
-            .collect(Collectors.toList());
-
-        if (recentTx.isEmpty()) {
-             return ResponseEntity.ok(new PredictionResult(0, monthsToPredict, "データ不足のため分析できません。取引を記録してください。", totalAssets, new ArrayList<>(Collections.nCopies(monthsToPredict + 1, totalAssets))));
+        if (monthsToPredict < 1 || monthsToPredict > ProjectionEngine.MAX_MONTHS || paths < 1) {
+            return ResponseEntity.badRequest().build();
         }
 
-        // A. 【固定収支】の計算 (臨時フラグがないものだけで、基礎体力を測る)
-        double regularMonthlyNet = calculateRegularMonthlyNet(recentTx);
-
-        // B. 【臨時支出】のリスク分析 (ユーザーの「癖」を数値化)
-        List<Double> extraordinaryExpenses = recentTx.stream()
-            .filter(t -> t.getIsExtraordinary() && t.getType().equals("EXPENSE"))
-            .map(Transaction::getAmount)
-            .collect(Collectors.toList());
-            
-        // 臨時支出の発生確率 (例: 6ヶ月で2回あったら 33%)
-        double eventProbability = (double) extraordinaryExpenses.size() / 6.0;
-        // 臨時支出の平均額
-        double eventAvgAmount = extraordinaryExpenses.stream().mapToDouble(v->v).average().orElse(0.0);
-
-        // 3. 未来シミュレーション (確率的アプローチ)
-        List<Double> projectionPoints = new ArrayList<>();
-        double simulatedAssets = totalAssets;
-        projectionPoints.add(Math.floor(simulatedAssets)); // 現在
-
-        // 投資リターン (ポートフォリオがあれば年利4%、なければ0.1%と仮定)
-        double annualInterestRate = (currentPortfolio > 0) ? 0.04 : 0.001;
-        double monthlyInvestRate = annualInterestRate / 12.0;
-        
-        Random random = new Random();
-
-        for (int i = 1; i <= monthsToPredict; i++) {
-            // STEP 1: 毎月の固定収支を加算 (ベースライン)
-            simulatedAssets += regularMonthlyNet;
-
-            // STEP 2: 確率で臨時支出が発生 (ユーザーの行動パターンを再現)
-            // 乱数が発生確率を下回ったら、今月は「何か」が起きる
-            if (eventAvgAmount > 0 && random.nextDouble() < eventProbability) {
-                // 金額にも 0.8倍〜1.2倍 のゆらぎを持たせる（毎回同じ額ではない）
-                double shock = eventAvgAmount * (0.8 + (random.nextDouble() * 0.4));
-                simulatedAssets -= shock;
-            }
+        return ResponseEntity.ok(cachedPrediction(monthsToPredict, paths, seed));
+    }
 
-            // STEP 3: 複利効果 (資産がプラスの場合のみ)
-            // 資産額が増えるほど、ここで加算される額が増える＝曲線になる
-            if (simulatedAssets > 0) {
-                simulatedAssets *= (1 + monthlyInvestRate);
-            }
+    /**
+     * /predict と同じ予測を非同期で実行するよう登録し、すぐに 202 を返します。
+     * 結果は GET /predict/jobs/{id} で取得します。(同じ条件の /predict の結果とキャッシュを共有します)
+     * 同時に実行できる予測の数を超えた場合は 429 (ユーザーごとの上限) か 503 (全体の上限) を返します。
+     */
+    @PostMapping("/predict/jobs")
+    public ResponseEntity<PredictionJob> submitPredictionJob(
+            @RequestParam(defaultValue = "12") int monthsToPredict,
+            @RequestParam(defaultValue = "10000") int paths,
+            @RequestParam(required = false) Long seed,
+            Principal principal
+    ) {
+        if (monthsToPredict < 1 || monthsToPredict > ProjectionEngine.MAX_MONTHS || paths < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return submitJob(principal, "predict", () -> cachedPrediction(monthsToPredict, paths, seed));
+    }
 
-            projectionPoints.add(Math.floor(simulatedAssets));
+    /**
+     * /predict/scenarios と同じ評価を非同期で実行するよう登録します。値の誤りは登録前に 400 で返します。
+     */
+    @PostMapping("/predict/scenarios/jobs")
+    public ResponseEntity<PredictionJob> submitScenarioJob(@RequestBody ScenarioRequest request, Principal principal) {
+        try {
+            scenarioService.validate(request);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
+        return submitJob(principal, "scenarios", () -> scenarioService.evaluate(request));
+    }
+
+    /**
+     * 非同期の予測の状態を取得します。state が COMPLETED になると result に結果が入ります。
+     * 終了後、一定時間 (cashflow.predict.jobs.ttl-seconds) を過ぎた予測や、他のユーザーの予測は 404 です。
+     */
+    @ConditionalGet({})
+    @GetMapping("/predict/jobs/{id}")
+    public ResponseEntity<PredictionJob> getPredictionJob(@PathVariable int id, Principal principal) {
+        PredictionJob job = predictionJobs.get(ownerOf(principal), id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    private ResponseEntity<PredictionJob> submitJob(Principal principal, String type, Supplier<?> task) {
+        try {
+            return ResponseEntity.accepted().body(predictionJobs.submit(ownerOf(principal), type, task));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(429).build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503).build();
+        }
+    }
+
+    private static String ownerOf(Principal principal) {
+        return principal != null ? principal.getName() : "";
+    }
+
+    private PredictionResult cachedPrediction(int monthsToPredict, int paths, Long seed) {
+        PredictionFeatures features = predictionFeatures.get();
+        long effectiveSeed = seed != null ? seed : features.defaultSeed();
+        // キーにスナップショットの版を含めるため、入力が変われば別のエントリになる
+        String key = "predict|" + monthsToPredict + "|" + paths + "|" + effectiveSeed + "|" + features.getVersion();
+        return aggregateCache.get(key,
+                AggregateCache.Scope.allMonths(DataVersions.Domain.LEDGER, DataVersions.Domain.PORTFOLIO),
+                () -> predict(features, monthsToPredict, paths, effectiveSeed));
+    }
+
+    /**
+     * 「家賃を2万円下げたら」「毎月5万円を投資に回したら」のような変更 (シナリオ) を複数まとめて予測します。
+     * 現在のデータの入力値は1回だけ取得して全シナリオで共有し、シナリオは並列に実行します。
+     * 変更なしの予測 (baseline) も合わせて返すため、比較にそのまま使えます。
+     */
+    @PostMapping("/predict/scenarios")
+    public ResponseEntity<ScenarioResponse> predictScenarios(@RequestBody ScenarioRequest request) {
+        try {
+            return ResponseEntity.ok(scenarioService.evaluate(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private PredictionResult predict(PredictionFeatures features, int monthsToPredict, int paths, long seed) {
+        long totalAssets = features.getTotalAssets();
+        if (!features.getHasData()) {
+            return new PredictionResult(0, monthsToPredict, "データ不足のため分析できません。取引を記録してください。", totalAssets, new ArrayList<>(Collections.nCopies(monthsToPredict + 1, totalAssets)));
+        }
+
+        // 1本の乱数列ではなく多数の試行を並列に走らせ、月ごとの分布 (p5 / 中央値 / p95) を求める
+        ProjectionModel model = features.toModel();
+        ProjectionBands bands = projectionEngine.simulate(model, monthsToPredict, paths, seed);
 
-        // 4. AIアドバイス生成
-        String feedback = generateFeedback(regularMonthlyNet, eventProbability, monthsToPredict, projectionPoints, totalAssets);
+        List<Long> projectionPoints = toPoints(bands.getP50());
 
-        return ResponseEntity.ok(new PredictionResult(
-            regularMonthlyNet, 
+        // AIアドバイス生成
+        String feedback = generateFeedback(model.getRegularMonthlyNet(), model.getEventProbability(), monthsToPredict, projectionPoints, totalAssets);
+
+        return new PredictionResult(
+            model.getRegularMonthlyNet(),
             monthsToPredict, 
             feedback, 
             totalAssets, 
-            projectionPoints
-        ));
+            projectionPoints,
+            toPoints(bands.getP5()),
+            toPoints(bands.getP95()),
+            bands.getPaths(),
+            seed,
+            features.getVersion()
+        );
     }
 
-    // ヘルパー: 固定的な月次収支を計算
-    private double calculateRegularMonthlyNet(List<Transaction> transactions) {
-        Map<String, Double> monthlyNets = transactions.stream()
-            .filter(t -> !t.getIsExtraordinary()) // ★重要: 臨時を除外して「実力値」を見る
-            .collect(Collectors.groupingBy(
-                t -> t.getDate().toString().substring(0, 7),
-                Collectors.summingDouble(t -> t.getType().equals("INCOME") ? t.getAmount() : -t.getAmount())
-            ));
-            
-        if (monthlyNets.isEmpty()) return 0.0;
-        return monthlyNets.values().stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+    // ヘルパー: シミュレーション結果をグラフ用の点列に変換
+    private List<Long> toPoints(long[] values) {
+        List<Long> points = new ArrayList<>(values.length);
+        for (long v : values) {
+            points.add(v);
+        }
+        return points;
     }
 
     // ヘルパー: フィードバック生成
-    private String generateFeedback(double regularNet, double eventProb, int months, List<Double> points, double initial) {
-        double finalAmount = points.get(points.size() - 1);
-        double growth = finalAmount - initial;
+    private String generateFeedback(long regularNet, double eventProb, int months, List<Long> points, long initial) {
+        long finalAmount = points.get(points.size() - 1);
+        long growth = finalAmount - initial;
 
         if (regularNet < 0) {
             return "警告: 基礎生活費が赤字です。臨時支出を我慢しても資産が減る構造です。家賃やサブスク等の固定費を見直してください。";
@@ -139,39 +221,109 @@ public class TransactionController {
     }
 
     // ----------------------------------------
-    // 既存API (変更なし)
+    // 取引の参照・集計・登録API
     // ----------------------------------------
 
+    /**
+     * 取引一覧を新しい順に1ページ分返します。
+     * 続きは、レスポンスの nextCursor を cursor パラメータに指定して取得します。
+     * formatted=true を指定すると、各取引にフォーマット済みの金額 (formattedAmount) を含めます。
+     */
     @GetMapping
-    public List<Transaction> getAllTransactions() { return transactionDAO.getAllTransactions(); }
+    public ResponseEntity<MappingJacksonValue> getAllTransactions(
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean formatted) {
+        return getFilteredTransactions(null, null, null, null, limit, cursor, formatted);
+    }
     
     @GetMapping("/filter")
-    public List<Transaction> getFilteredTransactions(
+    public ResponseEntity<MappingJacksonValue> getFilteredTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean formatted) {
+        TransactionCursor after;
+        try {
+            after = (cursor == null || cursor.isEmpty()) ? null : TransactionCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        TransactionPage page = transactionDAO.getTransactionPage(startDate, endDate, categoryId, type, after, pageSize);
+        return ResponseEntity.ok(ModelSerializers.withView(page, formatted));
+    }
+
+    /**
+     * 条件に合う取引をすべて、CSV (format=csv) またはNDJSON (format=ndjson) でダウンロードします。
+     * 絞り込み条件は /filter と同じです。DBから読んだ行をそのままレスポンスへ書き出すため、
+     * 件数が多くてもサーバーのメモリ上に一覧を作りません。
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "csv") String format,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false) Integer categoryId,
             @RequestParam(required = false) String type) {
-        return transactionDAO.getFilteredTransactions(startDate, endDate, categoryId, type);
+        boolean csv = format.equalsIgnoreCase("csv");
+        if (!csv && !format.equalsIgnoreCase("ndjson")) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ObjectWriter jsonWriter = objectMapper.writerFor(Transaction.class);
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (csv) {
+                writer.write(TransactionCsv.BOM);
+                writer.write(TransactionCsv.HEADER);
+                writer.write("\r\n");
+            }
+            try {
+                transactionDAO.exportTransactions(startDate, endDate, categoryId, type, t -> {
+                    if (csv) {
+                        TransactionCsv.writeRow(writer, t);
+                    } else {
+                        writer.write(jsonWriter.writeValueAsString(t));
+                        writer.write('\n');
+                    }
+                });
+            } catch (SQLException e) {
+                // ヘッダー送信後のためステータスは変えられない。
+                // 例外を投げて応答を異常終了させ、途中までのファイルを完全なものと誤認させないようにする
+                System.err.println("エクスポートエラー: " + e.getMessage());
+                throw new IOException(e);
+            }
+            writer.flush();
+        };
+
+        String filename = "transactions." + (csv ? "csv" : "ndjson");
+        return ResponseEntity.ok()
+            .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .body(body);
     }
 
+    // 集計はすべてDB側 (GROUP BY) で行い、集計結果の行だけを受け取ります
     @GetMapping("/balance")
-    public double getCurrentBalance() {
-        return transactionDAO.getAllTransactions().stream()
-                .mapToDouble(t -> t.getType().equals("INCOME") ? t.getAmount() : -t.getAmount()).sum();
+    public long getCurrentBalance() {
+        ColumnarLedger.Columns columns = columnarLedger.snapshot();
+        return columns != null ? columns.balance() : transactionDAO.calculateCurrentBalance();
     }
     
+    // formatted=true を指定すると、純利益とフォーマット済みの金額を含めます
     @GetMapping("/summary")
-    public List<MonthlySummary> getMonthlySummary() {
-        List<Transaction> all = transactionDAO.getAllTransactions();
-        Map<String, MonthlySummary> summaryMap = new TreeMap<>(Collections.reverseOrder());
-        for (Transaction t : all) {
-            String month = t.getDate().toString().substring(0, 7);
-            MonthlySummary ms = summaryMap.getOrDefault(month, new MonthlySummary(month, 0, 0));
-            if (t.getType().equals("INCOME")) ms = new MonthlySummary(month, ms.getTotalIncome() + t.getAmount(), ms.getTotalExpense());
-            else ms = new MonthlySummary(month, ms.getTotalIncome(), ms.getTotalExpense() + t.getAmount());
-            summaryMap.put(month, ms);
-        }
-        return new ArrayList<>(summaryMap.values());
+    public MappingJacksonValue getMonthlySummary(@RequestParam(defaultValue = "false") boolean formatted) {
+        List<MonthlySummary> summaries = aggregateCache.get("summary",
+                AggregateCache.Scope.allMonths(DataVersions.Domain.LEDGER),
+                () -> {
+                    ColumnarLedger.Columns columns = columnarLedger.snapshot();
+                    return columns != null ? columns.monthlySummary() : transactionDAO.getMonthlySummary();
+                });
+        return ModelSerializers.withView(summaries, formatted);
     }
     
     @GetMapping("/summary/category")
@@ -179,24 +331,64 @@ public class TransactionController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam String type) {
-        List<Transaction> txs = transactionDAO.getFilteredTransactions(startDate, endDate, null, type);
-        Map<String, Double> map = new HashMap<>();
-        for(Transaction t : txs) map.put(t.getCategoryName(), map.getOrDefault(t.getCategoryName(), 0.0) + t.getAmount());
-        List<CategorySummary> summaries = new ArrayList<>();
-        map.forEach((name, amount) -> summaries.add(new CategorySummary(name, amount)));
-        summaries.sort((a, b) -> Double.compare(b.getTotalAmount(), a.getTotalAmount()));
-        return summaries;
+        return aggregateCache.get("summary/category|" + startDate + "|" + endDate + "|" + type,
+                AggregateCache.Scope.months(startDate, endDate, DataVersions.Domain.LEDGER),
+                () -> {
+                    // 期間の索引が使えれば、取引の件数によらず O(log n) で求まる
+                    List<CategorySummary> fromIndex = rangeTotalsIndex.getCategorySummary(startDate, endDate, type);
+                    return fromIndex != null ? fromIndex : transactionDAO.getCategorySummary(startDate, endDate, type);
+                });
+    }
+
+    /**
+     * 任意の期間 [startDate, endDate] の収入・支出の合計とカテゴリ別内訳を取得します。
+     * categoryId を指定した場合は、そのカテゴリだけを集計します。
+     */
+    @GetMapping("/summary/range")
+    public ResponseEntity<RangeSummary> getRangeSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer categoryId) {
+        if (endDate.isBefore(startDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        RangeSummary summary = rangeTotalsIndex.getRangeSummary(startDate, endDate, categoryId);
+        return summary != null ? ResponseEntity.ok(summary) : ResponseEntity.internalServerError().build();
     }
 
     @PostMapping
     public ResponseEntity<Void> addTransaction(@RequestBody Transaction transaction) {
-        boolean success = transactionDAO.addTransaction(
+        Transaction added = transactionDAO.addTransaction(
             transaction.getDate(), transaction.getAmount(), transaction.getType(),
             transaction.getCategoryId(), transaction.getIsFuture(), transaction.getIsExtraordinary()
         );
-        return success ? ResponseEntity.ok().build() : ResponseEntity.badRequest().build();
+        if (added != null) {
+            // 残高や月の合計は DataVersions の通知から LiveUpdates が送る。ここでは登録した行 (採番済みのID付き) を送る
+            liveUpdates.transactionAdded(added);
+        }
+        return added != null ? ResponseEntity.ok().build() : ResponseEntity.badRequest().build();
     }
     
+    /**
+     * 取引を一括登録します。
+     * JSON配列 (application/json) または1行1件のNDJSON (application/x-ndjson) を受け付け、
+     * 本文を読みながら順に登録するため、件数が多くてもメモリ上に全件を展開しません。
+     * 不正な行はスキップして結果の errors に記録します。JSONとして読めない場合は何も登録せず 400 を返します。
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkInsertResult> addTransactionsBulk(HttpServletRequest request) {
+        try (MappingIterator<Transaction> rows = objectMapper.readerFor(Transaction.class).readValues(request.getInputStream())) {
+            BulkInsertResult result = ingestService.ingest(() -> rows.hasNextValue() ? rows.nextValue() : null);
+            return ResponseEntity.ok(result);
+        } catch (IOException e) {
+            System.err.println("一括登録の読み込みエラー: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (SQLException e) {
+            System.err.println("一括登録エラー: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Transaction> getTransactionById(@PathVariable int id) {
         Transaction transaction = transactionDAO.getTransactionById(id);
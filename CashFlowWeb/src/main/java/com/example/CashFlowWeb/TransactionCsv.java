@@ -0,0 +1,97 @@
+package com.example.CashFlowWeb;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 取引データのCSV形式を定義するクラス。
+ * 列の並びはヘッダー行 HEADER の通りです。(RFC 4180 準拠のエスケープ)
+ * 読み込み側の分割処理 (parseLine) は明細インポートでも使います。
+ */
+public final class TransactionCsv {
+
+    public static final String HEADER = "id,date,type,category_id,category_name,amount,is_future,is_extraordinary";
+
+    // Excelで開いたときに文字化けしないよう、UTF-8のBOMを先頭に付ける
+    public static final char BOM = '\uFEFF';
+
+    private TransactionCsv() {}
+
+    /**
+     * 取引1件をCSVの1行 (改行付き) として書き出します。
+     */
+    public static void writeRow(Writer out, Transaction t) throws IOException {
+        out.write(Integer.toString(t.getId()));
+        out.write(',');
+        out.write(t.getDate().toString());
+        out.write(',');
+        out.write(t.getType());
+        out.write(',');
+        out.write(Integer.toString(t.getCategoryId()));
+        out.write(',');
+        out.write(escape(t.getCategoryName()));
+        out.write(',');
+        out.write(Long.toString(t.getAmount()));
+        out.write(',');
+        out.write(Boolean.toString(t.getIsFuture()));
+        out.write(',');
+        out.write(Boolean.toString(t.getIsExtraordinary()));
+        out.write("\r\n");
+    }
+
+    // カンマ・ダブルクォート・改行を含む値はダブルクォートで囲む
+    static String escape(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * CSVの1レコードを列に分割します。
+     * ダブルクォートで囲まれた列の中のカンマ・改行・"" (エスケープされた ") に対応します。
+     */
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * 行の中のダブルクォートが閉じていない (= 列の途中で改行されている) か判定します。
+     */
+    static boolean hasOpenQuote(CharSequence record) {
+        boolean open = false;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') open = !open;
+        }
+        return open;
+    }
+}
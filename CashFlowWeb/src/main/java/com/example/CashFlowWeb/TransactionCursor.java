@@ -0,0 +1,50 @@
+package com.example.CashFlowWeb;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 取引一覧のページングで使うカーソル(続きの位置)を表すクラス。
+ * 並び順 (date DESC, id DESC) における直前ページ最後の行の (date, id) を保持し、
+ * クライアントには中身を意識させない不透明な文字列として受け渡します。
+ */
+public class TransactionCursor {
+    private final LocalDate date;
+    private final int id;
+
+    public TransactionCursor(LocalDate date, int id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    public LocalDate getDate() { return date; }
+    public int getId() { return id; }
+
+    /**
+     * カーソルをURLに載せられる文字列に変換します。
+     */
+    public String encode() {
+        String raw = date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * encode() で作った文字列からカーソルを復元します。
+     * @throws IllegalArgumentException 不正なカーソル文字列の場合
+     */
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) {
+                throw new IllegalArgumentException("不正なカーソルです: " + token);
+            }
+            return new TransactionCursor(LocalDate.parse(raw.substring(0, sep)), Integer.parseInt(raw.substring(sep + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException は IllegalArgumentException のサブクラス
+            throw new IllegalArgumentException("不正なカーソルです: " + token, e);
+        }
+    }
+}
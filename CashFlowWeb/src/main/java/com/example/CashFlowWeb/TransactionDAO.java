@@ -1,30 +1,75 @@
 package com.example.CashFlowWeb;
 
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+@Repository
 public class TransactionDAO {
-    
-    public boolean addTransaction(LocalDate date, double amount, String type, int categoryId, boolean isFuture, boolean isExtraordinary) {
-        String sql = "INSERT INTO transactions(date, amount, type, category_id, is_future, is_extraordinary) VALUES(?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DBManager.connect();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setString(1, date.toString());
-            pstmt.setDouble(2, amount);
-            pstmt.setString(3, type.toUpperCase());
-            pstmt.setInt(4, categoryId);
-            pstmt.setBoolean(5, isFuture);
-            pstmt.setBoolean(6, isExtraordinary); 
-            
-            pstmt.executeUpdate();
-            return true;
+    private static final String SELECT_TRANSACTIONS =
+        "SELECT t.id, t.date, t.amount, t.type, t.category_id, c.name AS category_name, t.is_future, t.is_extraordinary " +
+        "FROM transactions t JOIN categories c ON t.category_id = c.id";
+
+    // date は日付列 (SqlDialect.dateValue で渡す)、month は月次集計と同じ 'YYYY-MM' の月キー
+    static final String INSERT_TRANSACTION =
+        "INSERT INTO transactions(date, month, amount, type, category_id, is_future, is_extraordinary) VALUES(?, ?, ?, ?, ?, ?, ?)";
+
+    // エクスポート時に1回の往復で取得する行数
+    static final int EXPORT_FETCH_SIZE = 1000;
+
+    private final DBManager dbManager;
+    private final DataVersions dataVersions;
+
+    public TransactionDAO(DBManager dbManager, DataVersions dataVersions) {
+        this.dbManager = dbManager;
+        this.dataVersions = dataVersions;
+    }
+    
+    /**
+     * 取引を登録し、同じトランザクション内で月次集計にも反映します。
+     * @return 採番されたIDを含む登録後の取引 (カテゴリ名は含まない)。失敗した場合は null。
+     */
+    public Transaction addTransaction(LocalDate date, long amount, String type, int categoryId, boolean isFuture, boolean isExtraordinary) {
+        try {
+            Transaction added = dbManager.inTransaction(conn -> {
+                int id;
+                try (PreparedStatement pstmt = conn.prepareStatement(INSERT_TRANSACTION, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setObject(1, dbManager.getDialect().dateValue(date));
+                    pstmt.setString(2, monthOf(date));
+                    pstmt.setLong(3, amount);
+                    pstmt.setString(4, type.toUpperCase());
+                    pstmt.setInt(5, categoryId);
+                    pstmt.setBoolean(6, isFuture);
+                    pstmt.setBoolean(7, isExtraordinary);
+                    pstmt.executeUpdate();
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        if (!keys.next()) {
+                            throw new SQLException("採番されたIDを取得できませんでした");
+                        }
+                        id = keys.getInt(1);
+                    }
+                }
+                Transaction stored = new Transaction(id, date, amount, type.toUpperCase(), categoryId, null, isFuture, isExtraordinary);
+                applyToRollup(conn, stored, 1);
+                return stored;
+            });
+            dataVersions.changed(DataVersions.Domain.LEDGER, Set.of(monthOf(date)));
+            return added;
         } catch (SQLException e) {
             System.err.println("データ登録エラー: " + e.getMessage());
-            return false;
+            return null;
         }
     }
     
@@ -34,20 +79,155 @@ public class TransactionDAO {
 
     public List<Transaction> getFilteredTransactions(LocalDate startDate, LocalDate endDate, Integer categoryId, String type) {
         List<Transaction> transactions = new ArrayList<>();
-        StringBuilder sql = new StringBuilder(
-            "SELECT t.id, t.date, t.amount, t.type, t.category_id, c.name AS category_name, t.is_future, t.is_extraordinary " +
-            "FROM transactions t JOIN categories c ON t.category_id = c.id WHERE 1=1"
-        );
-        
+        StringBuilder sql = new StringBuilder(SELECT_TRANSACTIONS + " WHERE 1=1");
         List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, startDate, endDate, categoryId, type);
+        sql.append(" ORDER BY t.date DESC, t.id DESC");
 
+        try (Connection conn = dbManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(mapToTransaction(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("データ取得エラー: " + e.getMessage());
+        }
+        return transactions;
+    }
+
+    /**
+     * 取引を (date DESC, id DESC) の順で1ページ分取得します。(キーセット方式)
+     * OFFSETを使わず「前ページ最後の行より後ろ」を条件にするため、
+     * 何ページ目であってもインデックス上の位置から直接読み始められます。
+     *
+     * @param after 前ページの nextCursor。先頭ページの場合は null
+     * @param limit 1ページの件数
+     */
+    public TransactionPage getTransactionPage(LocalDate startDate, LocalDate endDate, Integer categoryId, String type, TransactionCursor after, int limit) {
+        List<Transaction> transactions = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_TRANSACTIONS + " WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, startDate, endDate, categoryId, type);
+
+        if (after != null) {
+            sql.append(" AND (t.date, t.id) < (?, ?)");
+            params.add(dbManager.getDialect().dateValue(after.getDate()));
+            params.add(after.getId());
+        }
+
+        // 次ページの有無を判定するため、1件多く取得する
+        sql.append(" ORDER BY t.date DESC, t.id DESC LIMIT ?");
+        params.add(limit + 1);
+
+        try (Connection conn = dbManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(mapToTransaction(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("ページ取得エラー: " + e.getMessage());
+        }
+
+        String nextCursor = null;
+        if (transactions.size() > limit) {
+            transactions.remove(limit);
+            Transaction last = transactions.get(limit - 1);
+            nextCursor = new TransactionCursor(last.getDate(), last.getId()).encode();
+        }
+        return new TransactionPage(transactions, nextCursor);
+    }
+
+    /**
+     * 条件に合う取引を古い順に1件ずつ handler に渡します。(エクスポート用)
+     * 結果をリストに溜めず、前方専用カーソルから EXPORT_FETCH_SIZE 件ずつ読み進めるため、
+     * 件数に関わらずメモリ使用量は一定です。
+     * PostgreSQLでは自動コミットを切ることで、サーバー側カーソルで少しずつ取得されます。
+     */
+    public void exportTransactions(LocalDate startDate, LocalDate endDate, Integer categoryId, String type,
+                                   TransactionHandler handler) throws SQLException, IOException {
+        StringBuilder sql = new StringBuilder(SELECT_TRANSACTIONS + " WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, startDate, endDate, categoryId, type);
+        sql.append(" ORDER BY t.date, t.id");
+
+        try (Connection conn = dbManager.connect()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setFetchSize(EXPORT_FETCH_SIZE);
+                for (int i = 0; i < params.size(); i++) {
+                    pstmt.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        handler.handle(mapToTransaction(rs));
+                    }
+                }
+            } finally {
+                // 読み取りのみなので、カーソルを閉じてトランザクションを終えるだけ
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * 期間内の取引を (日付, 金額, カテゴリ) ごとに数えます。(インポート時の重複判定用)
+     * 取得に失敗したまま重複なしと判定しないよう、エラーは呼び出し側に投げます。
+     */
+    public Map<TransactionFingerprint, Integer> countFingerprints(LocalDate startDate, LocalDate endDate) throws SQLException {
+        Map<TransactionFingerprint, Integer> counts = new HashMap<>();
+        String sql = "SELECT date, amount, category_id, COUNT(*) AS cnt FROM transactions " +
+                     "WHERE date >= ? AND date <= ? GROUP BY date, amount, category_id";
+        try (Connection conn = dbManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            SqlDialect dialect = dbManager.getDialect();
+            pstmt.setObject(1, dialect.dateValue(startDate));
+            pstmt.setObject(2, dialect.dateValue(endDate));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(new TransactionFingerprint(
+                        dialect.getDate(rs, "date"),
+                        rs.getLong("amount"),
+                        rs.getInt("category_id")
+                    ), rs.getInt("cnt"));
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * exportTransactions で1件ずつ取引を受け取る処理。
+     */
+    @FunctionalInterface
+    public interface TransactionHandler {
+        void handle(Transaction transaction) throws IOException;
+    }
+
+    // 取引一覧の絞り込み条件を組み立てる (getFilteredTransactions / getTransactionPage 共通)
+    private void appendFilters(StringBuilder sql, List<Object> params, LocalDate startDate, LocalDate endDate, Integer categoryId, String type) {
         if (startDate != null) {
             sql.append(" AND t.date >= ?");
-            params.add(startDate.toString());
+            params.add(dbManager.getDialect().dateValue(startDate));
         }
         if (endDate != null) {
             sql.append(" AND t.date <= ?");
-            params.add(endDate.toString());
+            params.add(dbManager.getDialect().dateValue(endDate));
         }
         if (categoryId != null) {
             sql.append(" AND t.category_id = ?");
@@ -57,111 +237,302 @@ public class TransactionDAO {
             sql.append(" AND t.type = ?");
             params.add(type.toUpperCase());
         }
+    }
 
-        sql.append(" ORDER BY t.date DESC, t.id DESC");
+    private Transaction mapToTransaction(ResultSet rs) throws SQLException {
+        return new Transaction(
+            rs.getInt("id"),
+            dbManager.getDialect().getDate(rs, "date"),
+            rs.getLong("amount"),
+            rs.getString("type"),
+            rs.getInt("category_id"),
+            rs.getString("category_name"),
+            rs.getBoolean("is_future"),
+            rs.getBoolean("is_extraordinary")
+        );
+    }
 
-        try (Connection conn = DBManager.connect();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
-            
-            for (int i = 0; i < params.size(); i++) {
-                pstmt.setObject(i + 1, params.get(i));
+    /**
+     * 取引を更新し、月次集計から旧データを差し引いて新データを加算します。
+     */
+    public boolean updateTransaction(int id, LocalDate date, long amount, String type, int categoryId, boolean isFuture, boolean isExtraordinary) {
+        String sql = "UPDATE transactions SET date = ?, month = ?, amount = ?, type = ?, category_id = ?, is_future = ?, is_extraordinary = ? WHERE id = ?";
+        Set<String> touchedMonths = new HashSet<>();
+        try {
+            boolean updated = dbManager.inTransaction(conn -> {
+                Transaction before = findForRollup(conn, id);
+                if (before == null) {
+                    return false;
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setObject(1, dbManager.getDialect().dateValue(date));
+                    pstmt.setString(2, monthOf(date));
+                    pstmt.setLong(3, amount);
+                    pstmt.setString(4, type.toUpperCase());
+                    pstmt.setInt(5, categoryId);
+                    pstmt.setBoolean(6, isFuture);
+                    pstmt.setBoolean(7, isExtraordinary);
+                    pstmt.setInt(8, id);
+                    if (pstmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                applyToRollup(conn, before, -1);
+                applyToRollup(conn, new Transaction(date, amount, type, categoryId, isFuture, isExtraordinary), 1);
+                touchedMonths.add(monthOf(before.getDate()));
+                touchedMonths.add(monthOf(date));
+                return true;
+            });
+            if (updated) {
+                dataVersions.changed(DataVersions.Domain.LEDGER, touchedMonths);
             }
+            return updated;
+        } catch (SQLException e) {
+            System.err.println("データ更新エラー: " + e.getMessage());
+            return false;
+        }
+    }
 
+    /**
+     * 取引を削除し、月次集計からも差し引きます。
+     */
+    public boolean deleteTransaction(int id) {
+        String sql = "DELETE FROM transactions WHERE id = ?";
+        Set<String> touchedMonths = new HashSet<>();
+        try {
+            boolean deleted = dbManager.inTransaction(conn -> {
+                Transaction before = findForRollup(conn, id);
+                if (before == null) {
+                    return false;
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, id);
+                    if (pstmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                applyToRollup(conn, before, -1);
+                touchedMonths.add(monthOf(before.getDate()));
+                return true;
+            });
+            if (deleted) {
+                dataVersions.changed(DataVersions.Domain.LEDGER, touchedMonths);
+            }
+            return deleted;
+        } catch (SQLException e) {
+            System.err.println("データ削除エラー: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // 月次集計の差し引きに必要な項目だけを取得する (カテゴリ名は不要なのでJOINしない)
+    private Transaction findForRollup(Connection conn, int id) throws SQLException {
+        String sql = "SELECT date, amount, type, category_id, is_future, is_extraordinary FROM transactions WHERE id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, id);
             try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    transactions.add(new Transaction(
-                        rs.getInt("id"),
-                        LocalDate.parse(rs.getString("date")),
-                        rs.getDouble("amount"),
+                if (rs.next()) {
+                    return new Transaction(
+                        dbManager.getDialect().getDate(rs, "date"),
+                        rs.getLong("amount"),
                         rs.getString("type"),
                         rs.getInt("category_id"),
-                        rs.getString("category_name"),
                         rs.getBoolean("is_future"),
                         rs.getBoolean("is_extraordinary")
-                    ));
+                    );
                 }
             }
-        } catch (SQLException e) {
-            System.err.println("データ取得エラー: " + e.getMessage());
         }
-        return transactions;
+        return null;
     }
 
-    public boolean updateTransaction(int id, LocalDate date, double amount, String type, int categoryId, boolean isFuture, boolean isExtraordinary) {
-        String sql = "UPDATE transactions SET date = ?, amount = ?, type = ?, category_id = ?, is_future = ?, is_extraordinary = ? WHERE id = ?";
-        try (Connection conn = DBManager.connect();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    // 月次集計のキーとなる月 'YYYY-MM'
+    static String monthOf(LocalDate date) {
+        return date.toString().substring(0, 7);
+    }
 
-            pstmt.setString(1, date.toString());
-            pstmt.setDouble(2, amount);
-            pstmt.setString(3, type.toUpperCase());
-            pstmt.setInt(4, categoryId);
-            pstmt.setBoolean(5, isFuture);
-            pstmt.setBoolean(6, isExtraordinary);
-            pstmt.setInt(7, id);
+    /**
+     * 取引1件分の増減を月次集計(monthly_rollups)に反映します。
+     * 取引の書き込みと同じ接続・トランザクション内で呼び出してください。
+     * @param sign 加算なら 1、差し引きなら -1
+     */
+    private void applyToRollup(Connection conn, Transaction t, int sign) throws SQLException {
+        applyRollupDelta(conn, new MonthlyRollup(
+            monthOf(t.getDate()),
+            t.getCategoryId(),
+            t.getType().toUpperCase(),
+            t.getIsExtraordinary(),
+            t.getIsFuture(),
+            sign * t.getAmount(),
+            sign
+        ));
+    }
+
+    /**
+     * 月次集計の1行に、合計額と件数の差分を加算します。(行がなければ作成)
+     * 件数が減った結果0になった行は削除します。
+     */
+    void applyRollupDelta(Connection conn, MonthlyRollup delta) throws SQLException {
+        String upsert = dbManager.getDialect().upsert("monthly_rollups",
+                List.of("month", "category_id", "type", "is_extraordinary", "is_future", "total_amount", "tx_count"),
+                List.of("month", "category_id", "type", "is_extraordinary", "is_future"),
+                "total_amount = monthly_rollups.total_amount + excluded.total_amount, " +
+                "tx_count = monthly_rollups.tx_count + excluded.tx_count");
+        try (PreparedStatement pstmt = conn.prepareStatement(upsert)) {
+            pstmt.setString(1, delta.getMonth());
+            pstmt.setInt(2, delta.getCategoryId());
+            pstmt.setString(3, delta.getType());
+            pstmt.setBoolean(4, delta.getIsExtraordinary());
+            pstmt.setBoolean(5, delta.getIsFuture());
+            pstmt.setLong(6, delta.getTotalAmount());
+            pstmt.setInt(7, delta.getTxCount());
+            pstmt.executeUpdate();
+        }
+
+        if (delta.getTxCount() < 0) {
+            // 件数が0になった集計行は削除する
+            String cleanup = "DELETE FROM monthly_rollups WHERE month = ? AND category_id = ? AND type = ? " +
+                             "AND is_extraordinary = ? AND is_future = ? AND tx_count <= 0";
+            try (PreparedStatement pstmt = conn.prepareStatement(cleanup)) {
+                pstmt.setString(1, delta.getMonth());
+                pstmt.setInt(2, delta.getCategoryId());
+                pstmt.setString(3, delta.getType());
+                pstmt.setBoolean(4, delta.getIsExtraordinary());
+                pstmt.setBoolean(5, delta.getIsFuture());
+                pstmt.executeUpdate();
+            }
+        }
+    }
 
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+    /**
+     * 大量の取引を1つのトランザクションで登録するためのライターを開きます。
+     * 使い終わったら必ず close() してください。(commit() していなければロールバックされます)
+     */
+    public TransactionBulkWriter openBulkWriter() throws SQLException {
+        return new TransactionBulkWriter(this, dbManager.connect(), dbManager.getDialect());
+    }
+
+    // 一括登録のコミット後に TransactionBulkWriter から呼ばれる
+    void ledgerChanged(Set<String> months) {
+        dataVersions.changed(DataVersions.Domain.LEDGER, months);
+    }
+
+    /**
+     * 月次集計を取引テーブルから作り直します。(集計のずれを解消するための保守コマンド)
+     * @return 作り直した集計行の数
+     */
+    public int rebuildMonthlyRollups() {
+        String insert = "INSERT INTO monthly_rollups (month, category_id, type, is_extraordinary, is_future, total_amount, tx_count) " +
+                        "SELECT month, COALESCE(category_id, 0), type, " +
+                        "COALESCE(is_extraordinary, FALSE), COALESCE(is_future, FALSE), SUM(amount), COUNT(*) " +
+                        "FROM transactions GROUP BY 1, 2, 3, 4, 5";
+        try {
+            int rows = dbManager.inTransaction(conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("DELETE FROM monthly_rollups");
+                    return stmt.executeUpdate(insert);
+                }
+            });
+            dataVersions.bump(DataVersions.Domain.LEDGER);
+            return rows;
         } catch (SQLException e) {
-            System.err.println("データ更新エラー: " + e.getMessage());
-            return false;
+            System.err.println("月次集計の再構築エラー: " + e.getMessage());
+            return -1;
         }
     }
 
-    public boolean deleteTransaction(int id) {
-        String sql = "DELETE FROM transactions WHERE id = ?";
-        try (Connection conn = DBManager.connect();
+    /**
+     * 指定した月以降の月次集計行を取得します。(予測の入力データ用)
+     * @param fromMonth 'YYYY-MM' 形式の開始月
+     */
+    public List<MonthlyRollup> getMonthlyRollups(String fromMonth) {
+        List<MonthlyRollup> rollups = new ArrayList<>();
+        String sql = "SELECT month, category_id, type, is_extraordinary, is_future, total_amount, tx_count " +
+                     "FROM monthly_rollups WHERE month >= ? ORDER BY month";
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, id);
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+
+            pstmt.setString(1, fromMonth);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rollups.add(new MonthlyRollup(
+                        rs.getString("month"),
+                        rs.getInt("category_id"),
+                        rs.getString("type"),
+                        rs.getBoolean("is_extraordinary"),
+                        rs.getBoolean("is_future"),
+                        rs.getLong("total_amount"),
+                        rs.getInt("tx_count")
+                    ));
+                }
+            }
         } catch (SQLException e) {
-            System.err.println("データ削除エラー: " + e.getMessage());
-            return false;
+            System.err.println("月次集計取得エラー: " + e.getMessage());
         }
+        return rollups;
     }
     
-    public double calculateCurrentBalance() {
+    public long calculateCurrentBalance() {
         String sql = "SELECT " +
-                     "  COALESCE(SUM(CASE WHEN type = 'INCOME' THEN amount ELSE 0 END), 0) - " +
-                     "  COALESCE(SUM(CASE WHEN type = 'EXPENSE' THEN amount ELSE 0 END), 0) " +
-                     "FROM transactions " +
+                     "  COALESCE(SUM(CASE WHEN type = 'INCOME' THEN total_amount ELSE 0 END), 0) - " +
+                     "  COALESCE(SUM(CASE WHEN type = 'EXPENSE' THEN total_amount ELSE 0 END), 0) " +
+                     "FROM monthly_rollups " +
                      "WHERE is_future = FALSE";
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
             if (rs.next()) {
-                return rs.getDouble(1);
+                return rs.getLong(1);
             }
         } catch (SQLException e) {
             System.err.println("残高計算エラー: " + e.getMessage());
         }
-        return 0.0;
+        return 0;
     }
     
+    /**
+     * 期間内のカテゴリ別合計を取得します。
+     * 期間が月初〜月末のちょうど月単位であれば月次集計から、そうでなければ取引テーブルから集計します。
+     */
     public List<CategorySummary> getCategorySummary(LocalDate startDate, LocalDate endDate, String type) {
+        boolean wholeMonths = startDate.getDayOfMonth() == 1
+                && endDate.getDayOfMonth() == endDate.lengthOfMonth();
+        String sql;
+        if (wholeMonths) {
+            sql = "SELECT c.name AS category_name, SUM(r.total_amount) AS total_amount " +
+                  "FROM monthly_rollups r " +
+                  "JOIN categories c ON r.category_id = c.id " +
+                  "WHERE r.month BETWEEN ? AND ? AND r.type = ? AND r.is_future = FALSE " +
+                  "GROUP BY c.name " +
+                  "ORDER BY total_amount DESC";
+        } else {
+            sql = "SELECT c.name AS category_name, SUM(t.amount) AS total_amount " +
+                  "FROM transactions t " +
+                  "JOIN categories c ON t.category_id = c.id " +
+                  "WHERE t.date BETWEEN ? AND ? AND t.type = ? AND t.is_future = FALSE " +
+                  "GROUP BY c.name " +
+                  "ORDER BY total_amount DESC";
+        }
         List<CategorySummary> summaryList = new ArrayList<>();
-        String sql = "SELECT c.name AS category_name, SUM(t.amount) AS total_amount " +
-                     "FROM transactions t " +
-                     "JOIN categories c ON t.category_id = c.id " +
-                     "WHERE t.date BETWEEN ? AND ? AND t.type = ? AND t.is_future = FALSE " +
-                     "GROUP BY c.name " +
-                     "ORDER BY total_amount DESC";
-
-        try (Connection conn = DBManager.connect();
+
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setString(1, startDate.toString());
-            pstmt.setString(2, endDate.toString());
+            if (wholeMonths) {
+                pstmt.setString(1, startDate.toString().substring(0, 7));
+                pstmt.setString(2, endDate.toString().substring(0, 7));
+            } else {
+                pstmt.setObject(1, dbManager.getDialect().dateValue(startDate));
+                pstmt.setObject(2, dbManager.getDialect().dateValue(endDate));
+            }
             pstmt.setString(3, type.toUpperCase());
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
                     summaryList.add(new CategorySummary(
                         rs.getString("category_name"),
-                        rs.getDouble("total_amount")
+                        rs.getLong("total_amount")
                     ));
                 }
             }
@@ -174,23 +545,23 @@ public class TransactionDAO {
     public List<MonthlySummary> getMonthlySummary() {
         List<MonthlySummary> summaries = new ArrayList<>();
         String sql = "SELECT " +
-                     "  strftime('%Y-%m', date) AS month, " +
-                     "  SUM(CASE WHEN type = 'INCOME' THEN amount ELSE 0 END) AS totalIncome, " +
-                     "  SUM(CASE WHEN type = 'EXPENSE' THEN amount ELSE 0 END) AS totalExpense " +
-                     "FROM transactions " +
+                     "  month, " +
+                     "  SUM(CASE WHEN type = 'INCOME' THEN total_amount ELSE 0 END) AS totalIncome, " +
+                     "  SUM(CASE WHEN type = 'EXPENSE' THEN total_amount ELSE 0 END) AS totalExpense " +
+                     "FROM monthly_rollups " +
                      "WHERE is_future = FALSE " +
                      "GROUP BY month " +
                      "ORDER BY month DESC";
 
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
                 summaries.add(new MonthlySummary(
                     rs.getString("month"),
-                    rs.getDouble("totalIncome"),
-                    rs.getDouble("totalExpense")
+                    rs.getLong("totalIncome"),
+                    rs.getLong("totalExpense")
                 ));
             }
         } catch (SQLException e) {
@@ -199,23 +570,63 @@ public class TransactionDAO {
         return summaries;
     }
     
-    public List<Double> getPastThreeMonthsRegularNetProfits() {
-        String sql = "SELECT strftime('%Y-%m', date) AS month, " +
-                     "SUM(CASE WHEN type = 'INCOME' THEN amount ELSE -amount END) AS net_profit " +
-                     "FROM transactions " +
+    /**
+     * 指定した月だけの月次集計を取得します。(ライブ更新で、変更のあった月の合計を送るため)
+     */
+    public List<MonthlySummary> getMonthlySummary(Collection<String> months) {
+        List<MonthlySummary> summaries = new ArrayList<>();
+        if (months.isEmpty()) {
+            return summaries;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(months.size(), "?"));
+        String sql = "SELECT " +
+                     "  month, " +
+                     "  SUM(CASE WHEN type = 'INCOME' THEN total_amount ELSE 0 END) AS totalIncome, " +
+                     "  SUM(CASE WHEN type = 'EXPENSE' THEN total_amount ELSE 0 END) AS totalExpense " +
+                     "FROM monthly_rollups " +
+                     "WHERE is_future = FALSE AND month IN (" + placeholders + ") " +
+                     "GROUP BY month " +
+                     "ORDER BY month DESC";
+
+        try (Connection conn = dbManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            for (String month : months) {
+                pstmt.setString(i++, month);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(new MonthlySummary(
+                        rs.getString("month"),
+                        rs.getLong("totalIncome"),
+                        rs.getLong("totalExpense")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("月次集計エラー: " + e.getMessage());
+        }
+        return summaries;
+    }
+
+    public List<Long> getPastThreeMonthsRegularNetProfits() {
+        String sql = "SELECT month, " +
+                     "SUM(CASE WHEN type = 'INCOME' THEN total_amount ELSE -total_amount END) AS net_profit " +
+                     "FROM monthly_rollups " +
                      "WHERE is_future = FALSE AND is_extraordinary = FALSE " +
                      "GROUP BY month " +
                      "ORDER BY month DESC " +
                      "LIMIT 3";
         
-        List<Double> netProfits = new ArrayList<>();
+        List<Long> netProfits = new ArrayList<>();
 
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
-                netProfits.add(rs.getDouble("net_profit"));
+                netProfits.add(rs.getLong("net_profit"));
             }
         } catch (SQLException e) {
             System.err.println("過去3ヶ月純利益取得エラー: " + e.getMessage());
@@ -232,28 +643,16 @@ public class TransactionDAO {
      * @return 見つかった取引データ。見つからなければnull。
      */
     public Transaction getTransactionById(int id) {
-        String sql = "SELECT t.id, t.date, t.amount, t.type, t.category_id, c.name AS category_name, t.is_future, t.is_extraordinary " +
-                     "FROM transactions t " +
-                     "JOIN categories c ON t.category_id = c.id " +
-                     "WHERE t.id = ?";
+        String sql = SELECT_TRANSACTIONS + " WHERE t.id = ?";
 
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return new Transaction(
-                        rs.getInt("id"),
-                        LocalDate.parse(rs.getString("date")),
-                        rs.getDouble("amount"),
-                        rs.getString("type"),
-                        rs.getInt("category_id"),
-                        rs.getString("category_name"),
-                        rs.getBoolean("is_future"),
-                        rs.getBoolean("is_extraordinary")
-                    );
+                    return mapToTransaction(rs);
                 }
             }
         } catch (SQLException e) {
@@ -0,0 +1,39 @@
+package com.example.CashFlowWeb;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * 重複判定に使う取引のキー (日付 + 金額 + カテゴリ)。
+ * 明細インポートで、既に登録済みの取引を二重に登録しないために使います。
+ */
+public final class TransactionFingerprint {
+    private final LocalDate date;
+    private final long amount;
+    private final int categoryId;
+
+    public TransactionFingerprint(LocalDate date, long amount, int categoryId) {
+        this.date = date;
+        this.amount = amount;
+        this.categoryId = categoryId;
+    }
+
+    public static TransactionFingerprint of(Transaction t) {
+        return new TransactionFingerprint(t.getDate(), t.getAmount(), t.getCategoryId());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TransactionFingerprint)) return false;
+        TransactionFingerprint other = (TransactionFingerprint) o;
+        return categoryId == other.categoryId
+            && amount == other.amount
+            && date.equals(other.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(date, amount, categoryId);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.CashFlowWeb;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 取引の一括登録を行うクラス。
+ * 1行ずつ入力チェックを行い、正常な行だけを TransactionBulkWriter で1つのトランザクションにまとめて登録します。
+ */
+@Component
+public class TransactionIngestService {
+
+    // レスポンスに含めるエラー行の上限 (件数は rejected で全件分数えます)
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final TransactionDAO transactionDAO;
+    private final CategoryRegistry categoryRegistry;
+
+    public TransactionIngestService(TransactionDAO transactionDAO, CategoryRegistry categoryRegistry) {
+        this.transactionDAO = transactionDAO;
+        this.categoryRegistry = categoryRegistry;
+    }
+
+    /**
+     * 入力を読み切るまで登録を続けます。
+     * 読み込み中にエラーが発生した場合は、それまでの登録もすべてロールバックされます。
+     */
+    public BulkInsertResult ingest(TransactionSource source) throws IOException, SQLException {
+        long start = System.nanoTime();
+        int received = 0;
+        int rejected = 0;
+        List<BulkInsertResult.RowError> errors = new ArrayList<>();
+
+        try (TransactionBulkWriter writer = transactionDAO.openBulkWriter()) {
+            Transaction t;
+            while ((t = source.next()) != null) {
+                int row = received++;
+                String error = validate(t);
+                if (error != null) {
+                    rejected++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add(new BulkInsertResult.RowError(row, error));
+                    }
+                    continue;
+                }
+                writer.add(t);
+            }
+            int inserted = writer.commit();
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            return new BulkInsertResult(received, inserted, rejected, errors, elapsedMillis);
+        }
+    }
+
+    /**
+     * 登録前の入力チェック。
+     * @return エラー内容。問題なければ null
+     */
+    String validate(Transaction t) {
+        if (t == null) return "取引データが空です。";
+        if (t.getDate() == null) return "日付が指定されていません。";
+        if (t.getType() == null) return "収支区分が指定されていません。";
+        String type = t.getType().toUpperCase();
+        if (!type.equals("INCOME") && !type.equals("EXPENSE")) {
+            return "収支区分が不正です: " + t.getType();
+        }
+        if (t.getAmount() <= 0) {
+            return "金額は正の数で指定してください。";
+        }
+        if (categoryRegistry.getCategoryById(t.getCategoryId()) == null) {
+            return "カテゴリが存在しません: " + t.getCategoryId();
+        }
+        return null;
+    }
+
+    /**
+     * 登録する取引を1件ずつ供給する入力元。
+     */
+    @FunctionalInterface
+    public interface TransactionSource {
+        /**
+         * 次の取引を返します。入力の終わりでは null を返します。
+         */
+        Transaction next() throws IOException;
+
+        static TransactionSource of(Iterator<Transaction> iterator) {
+            return () -> iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+}
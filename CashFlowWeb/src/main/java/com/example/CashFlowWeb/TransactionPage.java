@@ -0,0 +1,23 @@
+package com.example.CashFlowWeb;
+
+import java.util.List;
+
+/**
+ * 取引一覧の1ページ分を保持するモデルクラス。
+ */
+public class TransactionPage {
+    private List<Transaction> items;
+    private String nextCursor; // 次ページ取得用のカーソル。最終ページの場合は null
+
+    public TransactionPage(List<Transaction> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // デフォルトコンストラクタ (JSON変換用)
+    public TransactionPage() {}
+
+    public List<Transaction> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean getHasNext() { return nextCursor != null; }
+}
@@ -15,6 +15,12 @@ import org.springframework.stereotype.Repository;
 @Repository // 👈 1. このクラスをSpringのBeanとして登録する
 public class UserDAO {
 
+    private final DBManager dbManager;
+
+    public UserDAO(DBManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
     /**
      * ユーザー名（username）を指定して、データベースからユーザー情報を検索します。
      * Spring Securityの認証処理（ログイン時）に使われます。
@@ -26,7 +32,7 @@ public class UserDAO {
         // ユーザー名は大文字小文字を区別しない（toLowerCase()）
         String sql = "SELECT id, username, password_hash, role FROM users WHERE LOWER(username) = LOWER(?)";
         
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, username);
@@ -59,7 +65,7 @@ public class UserDAO {
         // パスワードは、AuthController側でハッシュ化されてから渡される想定
         String sql = "INSERT INTO users(username, password_hash, role) VALUES(?, ?, ?)";
 
-        try (Connection conn = DBManager.connect();
+        try (Connection conn = dbManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, user.getUsername());
@@ -0,0 +1,29 @@
+package com.example.CashFlowWeb;
+
+/**
+ * 円の金額を3桁区切りの文字列にします。(例: -1234567 → "-1,234,567")
+ *
+ * DecimalFormat はスレッドセーフではなく、static で共有すると同時に呼ばれた際に結果が壊れるため、
+ * 金額 (long) に必要な処理だけを状態を持たない形で実装しています。
+ */
+public final class YenFormat {
+
+    private YenFormat() {}
+
+    public static String format(long yen) {
+        String digits = Long.toString(yen);
+        int start = yen < 0 ? 1 : 0;
+        int length = digits.length() - start;
+        if (length <= 3) {
+            return digits;
+        }
+        StringBuilder sb = new StringBuilder(digits.length() + (length - 1) / 3);
+        sb.append(digits, 0, start);
+        int head = length % 3 == 0 ? 3 : length % 3;
+        sb.append(digits, start, start + head);
+        for (int i = start + head; i < digits.length(); i += 3) {
+            sb.append(',').append(digits, i, i + 3);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.CashFlowWeb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregateCacheTest {
+
+	@TempDir
+	Path tempDir;
+
+	private TestDatabase db;
+	private TransactionDAO transactionDAO;
+	private AggregateCache aggregateCache;
+	private int foodCategoryId;
+
+	@BeforeEach
+	void setUp() {
+		db = TestDatabase.open(tempDir);
+
+		foodCategoryId = db.categoryId("食費", "EXPENSE");
+
+		transactionDAO = db.transactionDAO();
+		aggregateCache = new AggregateCache(db.dataVersions(), 100, 600);
+	}
+
+	@AfterEach
+	void tearDown() {
+		db.close();
+	}
+
+	private List<CategorySummary> categorySummary(LocalDate start, LocalDate end) {
+		return aggregateCache.get("summary/category|" + start + "|" + end,
+				AggregateCache.Scope.months(start, end, DataVersions.Domain.LEDGER),
+				() -> transactionDAO.getCategorySummary(start, end, "EXPENSE"));
+	}
+
+	private long total(List<CategorySummary> summaries) {
+		return summaries.stream().mapToLong(CategorySummary::getTotalAmount).sum();
+	}
+
+	@Test
+	void writesInvalidateOnlyTheTouchedMonths() {
+		LocalDate janStart = LocalDate.of(2024, 1, 1), janEnd = LocalDate.of(2024, 1, 31);
+		LocalDate febStart = LocalDate.of(2024, 2, 1), febEnd = LocalDate.of(2024, 2, 29);
+		transactionDAO.addTransaction(LocalDate.of(2024, 1, 10), 1000, "EXPENSE", foodCategoryId, false, false);
+		transactionDAO.addTransaction(LocalDate.of(2024, 2, 10), 2000, "EXPENSE", foodCategoryId, false, false);
+
+		assertEquals(1000, total(categorySummary(janStart, janEnd)));
+		assertEquals(2000, total(categorySummary(febStart, febEnd)));
+		assertEquals(1000, total(categorySummary(janStart, janEnd)));
+		assertEquals(1, aggregateCache.getStats().getHitCount());
+		assertEquals(2, aggregateCache.getStats().getLoadCount());
+
+		// 2月への追加で、2月の集計だけが破棄される
+		transactionDAO.addTransaction(LocalDate.of(2024, 2, 20), 500, "EXPENSE", foodCategoryId, false, false);
+		assertEquals(1, aggregateCache.getStats().getSize());
+		assertEquals(1000, total(categorySummary(janStart, janEnd)));
+		assertEquals(2500, total(categorySummary(febStart, febEnd)));
+		assertEquals(3, aggregateCache.getStats().getLoadCount());
+	}
+
+	@Test
+	void resultsLoadedDuringAWriteAreNotCached() {
+		LocalDate start = LocalDate.of(2024, 1, 1), end = LocalDate.of(2024, 1, 31);
+		List<CategorySummary> stale = aggregateCache.get("summary/category|" + start + "|" + end,
+				AggregateCache.Scope.months(start, end, DataVersions.Domain.LEDGER),
+				() -> {
+					List<CategorySummary> result = transactionDAO.getCategorySummary(start, end, "EXPENSE");
+					transactionDAO.addTransaction(LocalDate.of(2024, 1, 10), 1000, "EXPENSE", foodCategoryId, false, false);
+					return result;
+				});
+		assertEquals(0, total(stale));
+		assertEquals(0, aggregateCache.getStats().getSize());
+		assertEquals(1000, total(categorySummary(start, end)));
+	}
+}
@@ -0,0 +1,69 @@
+package com.example.CashFlowWeb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryRegistryTest {
+
+	@TempDir
+	Path tempDir;
+
+	private TestDatabase db;
+	private CategoryRegistry registry;
+
+	@BeforeEach
+	void setUp() {
+		db = TestDatabase.open(tempDir);
+		registry = db.categoryRegistry();
+	}
+
+	@AfterEach
+	void tearDown() {
+		db.close();
+	}
+
+	@Test
+	void writesAreVisibleWithoutReloadingAndHitsAreCounted() {
+		assertTrue(registry.getAllCategories().stream().anyMatch(c -> c.getName().equals("貯金")));
+
+		assertTrue(registry.addCategory(" 給与 ", "income"));
+		Category salary = registry.getAllCategories().stream()
+				.filter(c -> c.getName().equals("給与")).findFirst().orElseThrow();
+		assertEquals("INCOME", salary.getType());
+
+		assertTrue(registry.updateCategory(salary.getId(), "賞与", "INCOME"));
+		assertEquals("賞与", registry.getCategoryById(salary.getId()).getName());
+
+		assertTrue(registry.deleteCategory(salary.getId()));
+		assertNull(registry.getCategoryById(salary.getId()));
+
+		CacheStats stats = registry.getStats();
+		assertEquals(1, stats.getSize());
+		assertEquals(1, stats.getMissCount());
+	}
+
+	@Test
+	void missDoesNotRestoreACategoryDeletedWhileReading() {
+		// キャッシュにないカテゴリをDBから読んだ直後に、別の書き込みで削除される
+		CategoryRegistry[] racing = new CategoryRegistry[1];
+		racing[0] = new CategoryRegistry(new CategoryDAO(db.dbManager(), db.dataVersions()) {
+			@Override
+			public Category getCategoryById(int categoryId) {
+				Category read = super.getCategoryById(categoryId);
+				racing[0].deleteCategory(categoryId);
+				return read;
+			}
+		});
+		racing[0].initialize();
+		int id = new CategoryDAO(db.dbManager(), db.dataVersions()).addCategory("外食", "EXPENSE").getId();
+
+		assertNotNull(racing[0].getCategoryById(id));
+		assertTrue(racing[0].getAllCategories().stream().noneMatch(c -> c.getId() == id));
+	}
+}
@@ -0,0 +1,94 @@
+package com.example.CashFlowWeb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarLedgerTest {
+
+	@TempDir
+	Path tempDir;
+
+	private TestDatabase db;
+	private TransactionDAO transactionDAO;
+	private ColumnarLedger columnarLedger;
+	private int foodCategoryId;
+	private int salaryCategoryId;
+
+	@BeforeEach
+	void setUp() {
+		db = TestDatabase.open(tempDir);
+
+		foodCategoryId = db.categoryId("食費", "EXPENSE");
+		salaryCategoryId = db.categoryId("給与", "INCOME");
+
+		transactionDAO = db.transactionDAO();
+		columnarLedger = new ColumnarLedger(db.dbManager(), db.dataVersions(), true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		db.close();
+	}
+
+	private void assertSameAsRollups() {
+		ColumnarLedger.Columns columns = columnarLedger.snapshot();
+		assertEquals(transactionDAO.calculateCurrentBalance(), columns.balance());
+
+		List<MonthlySummary> expected = transactionDAO.getMonthlySummary();
+		List<MonthlySummary> actual = columns.monthlySummary();
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getMonth(), actual.get(i).getMonth());
+			assertEquals(expected.get(i).getTotalIncome(), actual.get(i).getTotalIncome());
+			assertEquals(expected.get(i).getTotalExpense(), actual.get(i).getTotalExpense());
+		}
+	}
+
+	@Test
+	void matchesMonthlyRollupsAndFollowsWrites() {
+		for (int m = 1; m <= 12; m++) {
+			transactionDAO.addTransaction(LocalDate.of(2023, m, 25), 300_000, "INCOME", salaryCategoryId, false, false);
+			transactionDAO.addTransaction(LocalDate.of(2023, m, 3), 1000 * m, "EXPENSE", foodCategoryId, false, m % 4 == 0);
+		}
+		transactionDAO.addTransaction(LocalDate.of(2024, 2, 29), 5000, "EXPENSE", foodCategoryId, true, false);
+		assertSameAsRollups();
+
+		// 読み込み後の書き込みは、その月だけ読み直して反映される
+		transactionDAO.addTransaction(LocalDate.of(2023, 6, 1), 777, "EXPENSE", foodCategoryId, false, false);
+		transactionDAO.addTransaction(LocalDate.of(2025, 1, 1), 50_000, "INCOME", salaryCategoryId, false, false);
+		Transaction first = transactionDAO.getFilteredTransactions(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31), null, "EXPENSE").get(0);
+		transactionDAO.updateTransaction(first.getId(), LocalDate.of(2023, 3, 15), 2500, "EXPENSE", foodCategoryId, false, true);
+		assertSameAsRollups();
+		assertEquals(27, columnarLedger.snapshot().size());
+
+		// 臨時でない行だけの月平均収支 (2023年は、臨時の4・8・12月の支出と、3月へ移した1月分を除く)
+		int from = (int) LocalDate.of(2023, 1, 1).toEpochDay();
+		int to = (int) LocalDate.of(2023, 12, 31).toEpochDay();
+		double regularNet = columnarLedger.snapshot().averageMonthlyNet(from, to, ColumnarLedger.EXTRAORDINARY, 0);
+		long regularExpense = 0;
+		for (int m = 2; m <= 12; m++) {
+			if (m % 4 != 0) regularExpense += 1000L * m;
+		}
+		assertEquals((12 * 300_000.0 - regularExpense - 777) / 12, regularNet, 1e-9);
+	}
+
+	@Test
+	void dateArithmeticMatchesJavaTime() {
+		for (LocalDate d = LocalDate.of(1899, 12, 1); d.isBefore(LocalDate.of(2101, 3, 1)); d = d.plusDays(1)) {
+			int day = (int) d.toEpochDay();
+			assertEquals(day, ColumnarLedger.daysFromCivil(d.getYear(), d.getMonthValue(), d.getDayOfMonth()));
+			int month = ColumnarLedger.monthIndexOfDay(day);
+			assertEquals(YearMonth.from(d).toString(), ColumnarLedger.monthKey(month));
+			assertEquals(d.withDayOfMonth(1).toEpochDay(), ColumnarLedger.firstDayOfMonth(month));
+		}
+	}
+}
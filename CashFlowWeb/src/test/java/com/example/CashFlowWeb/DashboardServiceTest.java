@@ -0,0 +1,63 @@
+package com.example.CashFlowWeb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardServiceTest {
+
+	@TempDir
+	Path tempDir;
+
+	private TestDatabase db;
+	private TransactionDAO transactionDAO;
+	private DashboardService dashboardService;
+	private int foodCategoryId;
+	private int salaryCategoryId;
+
+	@BeforeEach
+	void setUp() {
+		db = TestDatabase.open(tempDir);
+
+		CategoryRegistry categoryRegistry = db.categoryRegistry();
+		foodCategoryId = db.categoryId("食費", "EXPENSE");
+		salaryCategoryId = db.categoryId("給与", "INCOME");
+
+		transactionDAO = db.transactionDAO();
+		dashboardService = new DashboardService(transactionDAO, new GoalDAO(db.dbManager(), db.dataVersions()), categoryRegistry);
+	}
+
+	@AfterEach
+	void tearDown() {
+		dashboardService.shutdown();
+		db.close();
+	}
+
+	@Test
+	void matchesTheIndividualEndpoints() {
+		for (int m = 1; m <= 8; m++) {
+			transactionDAO.addTransaction(LocalDate.of(2024, m, 25), 300_000, "INCOME", salaryCategoryId, false, false);
+			transactionDAO.addTransaction(LocalDate.of(2024, m, 10), 1000 * m, "EXPENSE", foodCategoryId, false, false);
+		}
+		transactionDAO.addTransaction(LocalDate.of(2024, 9, 1), 50_000, "EXPENSE", foodCategoryId, true, false);
+
+		Dashboard dashboard = dashboardService.build(YearMonth.of(2024, 3));
+
+		assertEquals(transactionDAO.calculateCurrentBalance(), dashboard.getBalance());
+		assertEquals(DashboardService.SUMMARY_MONTHS, dashboard.getMonthlySummaries().size());
+		assertEquals("2024-08", dashboard.getLatestMonth().getMonth());
+		assertEquals(8000, dashboard.getLatestMonth().getTotalExpense());
+		assertEquals(transactionDAO.getCategorySummary(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), "EXPENSE").get(0).getTotalAmount(),
+			dashboard.getCategoryBreakdown().get(0).getTotalAmount());
+		assertEquals(DashboardService.RECENT_TRANSACTIONS, dashboard.getRecentTransactions().size());
+		assertEquals(LocalDate.of(2024, 9, 1), dashboard.getRecentTransactions().get(0).getDate());
+		assertTrue(dashboard.getGoals().isEmpty());
+	}
+}
@@ -0,0 +1,102 @@
+package com.example.CashFlowWeb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoalForecastServiceTest {
+
+	@TempDir
+	Path tempDir;
+
+	private TestDatabase db;
+	private TransactionDAO transactionDAO;
+	private GoalDAO goalDAO;
+	private GoalForecastService goalForecastService;
+	private int foodCategoryId;
+	private int salaryCategoryId;
+
+	@BeforeEach
+	void setUp() {
+		db = TestDatabase.open(tempDir);
+
+		foodCategoryId = db.categoryId("食費", "EXPENSE");
+		salaryCategoryId = db.categoryId("給与", "INCOME");
+
+		transactionDAO = db.transactionDAO();
+		goalDAO = new GoalDAO(db.dbManager(), db.dataVersions());
+		PredictionFeatureStore store = new PredictionFeatureStore(transactionDAO, new AssetDAO(db.dbManager(), db.dataVersions()),
+				new ColumnarLedger(db.dbManager(), db.dataVersions(), false), db.dataVersions());
+		goalForecastService = new GoalForecastService(goalDAO, store, new ProjectionEngine(true, 0));
+	}
+
+	@AfterEach
+	void tearDown() {
+		db.close();
+	}
+
+	private void addGoal(String name, long target, long current, YearMonth due) {
+		Goal goal = new Goal();
+		goal.setName(name);
+		goal.setTargetAmount(target);
+		goal.setCurrentAmount(current);
+		goal.setTargetDate(due != null ? due.atDay(1).toString() : null);
+		assertTrue(goalDAO.addGoal(goal));
+	}
+
+	@Test
+	void goalsAreFundedInTargetDateOrder() {
+		// 臨時支出がないため、毎月ほぼ10万円ずつ確実に増える
+		YearMonth now = YearMonth.now();
+		transactionDAO.addTransaction(now.minusMonths(1).atDay(25), 300_000, "INCOME", salaryCategoryId, false, false);
+		transactionDAO.addTransaction(now.minusMonths(1).atDay(10), 200_000, "EXPENSE", foodCategoryId, false, false);
+
+		addGoal("いつか", 100_000, 0, null);
+		addGoal("車", 500_000, 100_000, now.plusMonths(4));
+		addGoal("旅行", 300_000, 0, now.plusMonths(6));
+		addGoal("達成済み", 50_000, 50_000, now.minusMonths(2));
+
+		List<GoalForecast> list = goalForecastService.forecast(500, 1L);
+		assertEquals(4, list.size());
+		Map<String, GoalForecast> forecasts = list.stream().collect(Collectors.toMap(GoalForecast::getName, Function.identity()));
+
+		// 期日の早い「車」(残り40万円) → 「旅行」(30万円) → 日付なしの「いつか」(10万円) の順に積み立てる
+		GoalForecast car = forecasts.get("車");
+		assertEquals(1.0, car.getProbability());
+		assertEquals(now.plusMonths(4).toString(), car.getExpectedCompletionMonth());
+
+		GoalForecast trip = forecasts.get("旅行");
+		assertEquals(0.0, trip.getProbability());
+		assertEquals(now.plusMonths(7).toString(), trip.getExpectedCompletionMonth());
+
+		GoalForecast someday = forecasts.get("いつか");
+		assertNull(someday.getProbability());
+		assertEquals(now.plusMonths(8).toString(), someday.getExpectedCompletionMonth());
+
+		assertEquals(1.0, forecasts.get("達成済み").getProbability());
+	}
+
+	@Test
+	void targetsBeyondTheHorizonCountOnlyPathsReachedWithinIt() {
+		YearMonth now = YearMonth.now();
+		transactionDAO.addTransaction(now.minusMonths(1).atDay(25), 300_000, "INCOME", salaryCategoryId, false, false);
+		transactionDAO.addTransaction(now.minusMonths(1).atDay(10), 200_000, "EXPENSE", foodCategoryId, false, false);
+
+		// 予測期間 (50年) を超える目標日。毎月10万円の増加では予測期間内に届かない
+		addGoal("遠い将来", 100_000_000L, 0, now.plusYears(60));
+
+		GoalForecast far = goalForecastService.forecast(200, 1L).get(0);
+		assertEquals(0.0, far.getProbability());
+		assertNull(far.getExpectedCompletionMonth());
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.CashFlowWeb;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelSerializersTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	@Test
+	void formattedFieldsAreOnlyWrittenForTheFormattedView() throws Exception {
+		Transaction t = new Transaction(7, LocalDate.of(2024, 3, 1), 1_234_567, "EXPENSE", 2, "食費", false, true);
+
+		JsonNode slim = objectMapper.readTree(objectMapper.writeValueAsString(t));
+		assertEquals("2024-03-01", slim.get("date").asText());
+		assertEquals(1_234_567, slim.get("amount").asLong());
+		assertTrue(slim.get("isExtraordinary").asBoolean());
+		assertFalse(slim.has("formattedAmount"));
+
+		JsonNode formatted = objectMapper.readTree(
+				objectMapper.writerWithView(ModelSerializers.Formatted.class).writeValueAsString(t));
+		assertEquals("1,234,567円", formatted.get("formattedAmount").asText());
+
+		// 読み込みは従来どおり
+		Transaction read = objectMapper.readValue(objectMapper.writeValueAsString(t), Transaction.class);
+		assertEquals(1_234_567, read.getAmount());
+		assertEquals("食費", read.getCategoryName());
+	}
+
+	@Test
+	void assetValuesAreOptIn() throws Exception {
+		List<Asset> assets = List.of(new Asset(1, "投信", "ABC", 1.5, 10_000, 9_000, "FUND"));
+
+		JsonNode slim = objectMapper.readTree(objectMapper.writeValueAsString(assets)).get(0);
+		assertEquals(9_000, slim.get("currentPrice").asLong());
+		assertFalse(slim.has("currentValue"));
+
+		JsonNode formatted = objectMapper.readTree(
+				objectMapper.writerWithView(ModelSerializers.Formatted.class).writeValueAsString(assets)).get(0);
+		assertEquals(-1_500, formatted.get("gainLoss").asLong());
+		assertEquals("¥13,500", formatted.get("formattedCurrentValue").asText());
+		assertEquals("¥-1,500", formatted.get("formattedGainLoss").asText());
+	}
+
+	@Test
+	void yenFormatGroupsDigits() {
+		assertEquals("0", YenFormat.format(0));
+		assertEquals("999", YenFormat.format(999));
+		assertEquals("-999", YenFormat.format(-999));
+		assertEquals("1,000", YenFormat.format(1_000));
+		assertEquals("-12,345", YenFormat.format(-12_345));
+		assertEquals("123,456,789", YenFormat.format(123_456_789));
+		assertEquals("-9,223,372,036,854,775,808", YenFormat.format(Long.MIN_VALUE));
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.CashFlowWeb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PredictionFeatureStoreTest {
+
+	@TempDir
+	Path tempDir;
+
+	private TestDatabase db;
+	private TransactionDAO transactionDAO;
+	private AssetDAO assetDAO;
+	private PredictionFeatureStore store;
+	private int foodCategoryId;
+	private int salaryCategoryId;
+
+	@BeforeEach
+	void setUp() {
+		db = TestDatabase.open(tempDir);
+
+		foodCategoryId = db.categoryId("食費", "EXPENSE");
+		salaryCategoryId = db.categoryId("給与", "INCOME");
+
+		transactionDAO = db.transactionDAO();
+		assetDAO = new AssetDAO(db.dbManager(), db.dataVersions());
+		store = new PredictionFeatureStore(transactionDAO, assetDAO, new ColumnarLedger(db.dbManager(), db.dataVersions(), false), db.dataVersions());
+	}
+
+	@AfterEach
+	void tearDown() {
+		db.close();
+	}
+
+	@Test
+	void snapshotIsReusedUntilTheDataChanges() {
+		assertFalse(store.get().getHasData());
+
+		for (int i = 1; i <= 2; i++) {
+			YearMonth month = YearMonth.now().minusMonths(i);
+			transactionDAO.addTransaction(month.atDay(25), 300_000, "INCOME", salaryCategoryId, false, false);
+			transactionDAO.addTransaction(month.atDay(10), 100_000, "EXPENSE", foodCategoryId, false, false);
+		}
+		transactionDAO.addTransaction(YearMonth.now().minusMonths(1).atDay(5), 60_000, "EXPENSE", foodCategoryId, false, true);
+
+		PredictionFeatures features = store.get();
+		assertTrue(features.getHasData());
+		assertEquals(340_000, features.getCurrentCash());
+		assertEquals(200_000, features.getRegularMonthlyNet());
+		assertEquals(1, features.getExtraordinaryCount());
+		assertEquals(60_000, features.getEventAvgAmount());
+		assertEquals(PredictionFeatureStore.CASH_ANNUAL_RATE, features.getAnnualInterestRate());
+		// 変更がなければ作り直さない
+		assertSame(features, store.get());
+
+		assetDAO.addAsset(new Asset(0, "投信", "ABC", 10, 1_000, 1_200, "FUND"));
+		PredictionFeatures withPortfolio = store.get();
+		assertNotEquals(features.getVersion(), withPortfolio.getVersion());
+		assertEquals(352_000, withPortfolio.getTotalAssets());
+		assertEquals(PredictionFeatureStore.PORTFOLIO_ANNUAL_RATE, withPortfolio.getAnnualInterestRate());
+		assertNotEquals(features.defaultSeed(), withPortfolio.defaultSeed());
+	}
+}
@@ -0,0 +1,82 @@
+package com.example.CashFlowWeb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PredictionJobServiceTest {
+
+	private PredictionJobService service;
+
+	@AfterEach
+	void tearDown() {
+		service.shutdown();
+	}
+
+	private static void await(PredictionJob job) throws InterruptedException {
+		for (int i = 0; i < 500 && !job.isFinished(); i++) {
+			Thread.sleep(10);
+		}
+		assertTrue(job.isFinished());
+	}
+
+	@Test
+	void jobsAreLimitedPerUserAndOverall() throws InterruptedException {
+		// ワーカー1つ・待ち行列1件・1人2件まで
+		service = new PredictionJobService(1, 1, 2, 600);
+		CountDownLatch release = new CountDownLatch(1);
+
+		PredictionJob first = service.submit("alice", "predict", () -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "done";
+		});
+		PredictionJob second = service.submit("alice", "predict", () -> "queued");
+		assertThrows(IllegalStateException.class, () -> service.submit("alice", "predict", () -> "over"));
+		// 別のユーザーは登録できるが、待ち行列がいっぱい
+		assertThrows(RejectedExecutionException.class, () -> service.submit("bob", "predict", () -> "full"));
+
+		assertNull(service.get("bob", first.getId()));
+		release.countDown();
+		await(first);
+		await(second);
+		assertEquals(PredictionJob.State.COMPLETED, first.getState());
+		assertEquals("done", service.get("alice", first.getId()).getResult());
+		assertEquals("queued", second.getResult());
+
+		PredictionJob failed = service.submit("bob", "scenarios", () -> {
+			throw new IllegalArgumentException("範囲外");
+		});
+		await(failed);
+		assertEquals(PredictionJob.State.FAILED, failed.getState());
+		assertEquals("範囲外", failed.getMessage());
+
+		// Error で終わった予測も FAILED になり、上限に数えない
+		for (int i = 0; i < 2; i++) {
+			PredictionJob crashed = service.submit("carol", "predict", () -> {
+				throw new StackOverflowError();
+			});
+			await(crashed);
+			assertEquals(PredictionJob.State.FAILED, crashed.getState());
+		}
+		await(service.submit("carol", "predict", () -> "next"));
+	}
+
+	@Test
+	void finishedJobsExpire() throws InterruptedException {
+		service = new PredictionJobService(1, 1, 1, 0);
+		PredictionJob job = service.submit("alice", "predict", () -> 1);
+		await(job);
+		Thread.sleep(1);
+		assertNull(service.get("alice", job.getId()));
+		// 終了した予測は上限に数えない
+		assertNotNull(service.submit("alice", "predict", () -> 2));
+	}
+}
@@ -0,0 +1,95 @@
+package com.example.CashFlowWeb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ProjectionEngineTest {
+
+	private final ProjectionEngine engine = new ProjectionEngine(true, 0);
+
+	@Test
+	void sameSeedGivesSameBands() {
+		ProjectionModel model = new ProjectionModel(1_000_000, 50_000, 0.3, 80_000, 0.04 / 12);
+
+		ProjectionBands first = engine.simulate(model, 120, 10_000, 42L);
+		ProjectionBands second = engine.simulate(model, 120, 10_000, 42L);
+
+		assertArrayEquals(first.getP5(), second.getP5());
+		assertArrayEquals(first.getP50(), second.getP50());
+		assertArrayEquals(first.getP95(), second.getP95());
+	}
+
+	@Test
+	void bandsAreOrderedAndWidenOverTime() {
+		ProjectionModel model = new ProjectionModel(1_000_000, 50_000, 0.3, 80_000, 0.04 / 12);
+
+		ProjectionBands bands = engine.simulate(model, 24, 5_000, 7L);
+
+		assertEquals(1_000_000, bands.getP50()[0]);
+		for (int m = 0; m <= 24; m++) {
+			assertTrue(bands.getP5()[m] <= bands.getP50()[m]);
+			assertTrue(bands.getP50()[m] <= bands.getP95()[m]);
+		}
+		assertTrue(bands.getP95()[24] - bands.getP5()[24] > bands.getP95()[1] - bands.getP5()[1]);
+	}
+
+	@Test
+	void withoutEventsEveryPathFollowsTheDeterministicCurve() {
+		double rate = 0.001 / 12;
+		ProjectionModel model = new ProjectionModel(100_000, 10_000, 0.0, 0, rate);
+
+		ProjectionBands bands = engine.simulate(model, 12, 1_000, 1L);
+
+		// 利息は月ごとに円単位へ丸める
+		long expected = 100_000;
+		for (int m = 1; m <= 12; m++) {
+			expected += 10_000;
+			expected += Math.round(expected * rate);
+		}
+		assertEquals(expected, bands.getP5()[12]);
+		assertEquals(expected, bands.getP95()[12]);
+	}
+
+	@Test
+	void selectMatchesSortedOrder() {
+		SplittableRandom random = new SplittableRandom(3);
+		long[] values = new long[1_001];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextInt(50); // 重複値を多く含める
+		}
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+
+		for (double q : new double[] {0.05, 0.5, 0.95}) {
+			int k = ProjectionEngine.rank(q, values.length);
+			assertEquals(sorted[k], ProjectionEngine.select(values.clone(), 0, values.length - 1, k));
+		}
+	}
+
+	@Test
+	void vectorKernelMatchesTheScalarPath() {
+		assumeTrue(ProjectionEngine.vectorKernelAvailable(), "jdk.incubator.vector が読み込まれていない");
+		ProjectionEngine scalar = new ProjectionEngine(false, 0);
+		assertTrue(engine.usesVectorKernel());
+
+		// レーン数で割り切れないパス数、マイナスの資産・利率、一時的な支出、途中でスカラー処理に切り替わるほど大きな資産額を含める
+		long[] oneOffs = new long[37];
+		oneOffs[5] = -3_000_000;
+		for (ProjectionModel model : new ProjectionModel[] {
+				new ProjectionModel(1_000_000, 50_000, 0.3, 80_000, 0.04 / 12),
+				new ProjectionModel(-200_000, 30_001, 0.9, 333_333, -0.05 / 12, oneOffs),
+				new ProjectionModel(0, -1, 0.0, 0, 0.0),
+				new ProjectionModel(550_000_000_000_000L, 0, 0.5, 1_000_000_000, 0.01)}) {
+			long[][] expected = scalar.simulatePaths(model, 36, 1_001, 11L);
+			long[][] actual = engine.simulatePaths(model, 36, 1_001, 11L);
+			for (int m = 0; m <= 36; m++) {
+				assertArrayEquals(expected[m], actual[m], "month " + m);
+			}
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.CashFlowWeb;
+
+import java.util.Arrays;
+
+/**
+ * 資産予測シミュレーションの、スカラー処理と Vector API カーネルの速度比較。(テストとしては実行されません)
+ *
+ * 実行方法 (CashFlowWeb ディレクトリで):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *        com.example.CashFlowWeb.ProjectionKernelBenchmark
+ *
+ * 1コアあたりの差を見る場合は -Djava.util.concurrent.ForkJoinPool.common.parallelism=1 を付けてください。
+ */
+class ProjectionKernelBenchmark {
+
+	private static final int MONTHS = 48;
+	private static final int WARMUP = 5;
+	private static final int RUNS = 15;
+
+	public static void main(String[] args) {
+		if (!ProjectionEngine.vectorKernelAvailable()) {
+			System.out.println("jdk.incubator.vector が読み込まれていません (--add-modules jdk.incubator.vector を付けて実行してください)");
+			return;
+		}
+		ProjectionEngine scalar = new ProjectionEngine(false, 0);
+		ProjectionEngine vector = new ProjectionEngine(true, 0);
+		ProjectionModel model = new ProjectionModel(1_000_000, 50_000, 0.3, 80_000, 0.04 / 12);
+
+		System.out.printf("%8s %12s %12s %8s%n", "paths", "scalar(ms)", "vector(ms)", "speedup");
+		for (int paths : new int[] {10_000, 30_000, 100_000}) {
+			double s = medianMillis(scalar, model, paths);
+			double v = medianMillis(vector, model, paths);
+			System.out.printf("%8d %12.2f %12.2f %7.2fx%n", paths, s, v, s / v);
+		}
+	}
+
+	private static double medianMillis(ProjectionEngine engine, ProjectionModel model, int paths) {
+		long sink = 0;
+		for (int i = 0; i < WARMUP; i++) {
+			sink += engine.simulatePaths(model, MONTHS, paths, i)[MONTHS][0];
+		}
+		double[] times = new double[RUNS];
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			sink += engine.simulatePaths(model, MONTHS, paths, i)[MONTHS][0];
+			times[i] = (System.nanoTime() - start) / 1e6;
+		}
+		if (sink == 42) {
+			System.out.println(); // 結果を使い、計算が省かれないようにする
+		}
+		Arrays.sort(times);
+		return times[RUNS / 2];
+	}
+}
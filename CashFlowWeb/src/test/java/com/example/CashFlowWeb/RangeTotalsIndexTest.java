@@ -0,0 +1,94 @@
+package com.example.CashFlowWeb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RangeTotalsIndexTest {
+
+	@TempDir
+	Path tempDir;
+
+	private TestDatabase db;
+	private TransactionDAO transactionDAO;
+	private RangeTotalsIndex rangeTotalsIndex;
+	private int[] expenseCategoryIds;
+	private int salaryCategoryId;
+
+	@BeforeEach
+	void setUp() {
+		db = TestDatabase.open(tempDir);
+
+		CategoryRegistry categoryRegistry = db.categoryRegistry();
+		expenseCategoryIds = new int[] {
+			categoryRegistry.findOrCreate("食費", "EXPENSE").getId(),
+			categoryRegistry.findOrCreate("家賃", "EXPENSE").getId(),
+			categoryRegistry.findOrCreate("交通費", "EXPENSE").getId()
+		};
+		salaryCategoryId = db.categoryId("給与", "INCOME");
+
+		transactionDAO = db.transactionDAO();
+		rangeTotalsIndex = new RangeTotalsIndex(db.dbManager(), db.dataVersions(), categoryRegistry);
+	}
+
+	@AfterEach
+	void tearDown() {
+		db.close();
+	}
+
+	private static Map<String, Long> asMap(List<CategorySummary> summaries) {
+		Map<String, Long> map = new HashMap<>();
+		summaries.forEach(s -> map.put(s.getCategoryName(), s.getTotalAmount()));
+		return map;
+	}
+
+	private void assertMatchesDao(Random random, LocalDate origin) {
+		for (int i = 0; i < 50; i++) {
+			LocalDate start = origin.plusDays(random.nextInt(400));
+			LocalDate end = start.plusDays(random.nextInt(120));
+			for (String type : new String[] {"EXPENSE", "INCOME", "income", "TRANSFER"}) {
+				assertEquals(asMap(transactionDAO.getCategorySummary(start, end, type)),
+						asMap(rangeTotalsIndex.getCategorySummary(start, end, type)), start + "〜" + end + " " + type);
+			}
+		}
+	}
+
+	@Test
+	void rangeTotalsMatchTheTransactionTable() {
+		Random random = new Random(42);
+		LocalDate origin = LocalDate.of(2024, 1, 1);
+		for (int i = 0; i < 500; i++) {
+			LocalDate date = origin.plusDays(random.nextInt(366));
+			transactionDAO.addTransaction(date, 100 + random.nextInt(10_000), "EXPENSE",
+					expenseCategoryIds[random.nextInt(expenseCategoryIds.length)], random.nextInt(20) == 0, false);
+		}
+		for (int m = 1; m <= 12; m++) {
+			transactionDAO.addTransaction(LocalDate.of(2024, m, 25), 300_000, "INCOME", salaryCategoryId, false, false);
+		}
+		assertMatchesDao(random, origin.minusDays(10));
+
+		// 索引の作成後の追加・変更・削除は、その月の差分として反映される
+		List<Transaction> march = transactionDAO.getFilteredTransactions(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), null, "EXPENSE");
+		transactionDAO.updateTransaction(march.get(0).getId(), LocalDate.of(2024, 9, 9), 12_345, "EXPENSE", expenseCategoryIds[0], false, false);
+		transactionDAO.deleteTransaction(march.get(1).getId());
+		transactionDAO.addTransaction(LocalDate.of(2024, 11, 30), 999, "EXPENSE", expenseCategoryIds[2], false, false);
+		// 索引の範囲外 (作り直しになる)
+		transactionDAO.addTransaction(LocalDate.of(2019, 5, 5), 5000, "EXPENSE", expenseCategoryIds[1], false, false);
+		assertMatchesDao(random, origin.minusDays(10));
+		assertEquals(5000, rangeTotalsIndex.getRangeSummary(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 12, 31), null).getTotalExpense());
+
+		RangeSummary year = rangeTotalsIndex.getRangeSummary(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), salaryCategoryId);
+		assertEquals(12 * 300_000, year.getTotalIncome());
+		assertEquals(0, year.getTotalExpense());
+	}
+}
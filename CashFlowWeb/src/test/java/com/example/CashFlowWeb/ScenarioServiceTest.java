@@ -0,0 +1,77 @@
+package com.example.CashFlowWeb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScenarioServiceTest {
+
+	@TempDir
+	Path tempDir;
+
+	private TestDatabase db;
+	private TransactionDAO transactionDAO;
+	private ScenarioService scenarioService;
+	private int foodCategoryId;
+	private int salaryCategoryId;
+
+	@BeforeEach
+	void setUp() {
+		db = TestDatabase.open(tempDir);
+
+		foodCategoryId = db.categoryId("食費", "EXPENSE");
+		salaryCategoryId = db.categoryId("給与", "INCOME");
+
+		transactionDAO = db.transactionDAO();
+		PredictionFeatureStore store = new PredictionFeatureStore(transactionDAO, new AssetDAO(db.dbManager(), db.dataVersions()),
+				new ColumnarLedger(db.dbManager(), db.dataVersions(), false), db.dataVersions());
+		scenarioService = new ScenarioService(store, new ProjectionEngine(true, 0));
+	}
+
+	@AfterEach
+	void tearDown() {
+		db.close();
+	}
+
+	@Test
+	void scenariosShareTheBaselineAndSeed() {
+		YearMonth lastMonth = YearMonth.now().minusMonths(1);
+		transactionDAO.addTransaction(lastMonth.atDay(25), 300_000, "INCOME", salaryCategoryId, false, false);
+		transactionDAO.addTransaction(lastMonth.atDay(10), 200_000, "EXPENSE", foodCategoryId, false, false);
+		transactionDAO.addTransaction(lastMonth.atDay(5), 30_000, "EXPENSE", foodCategoryId, false, true);
+
+		ScenarioResponse response = scenarioService.evaluate(new ScenarioRequest(12, 500, 99L, List.of(
+				new ScenarioRequest.Scenario("変更なし", 0, null, null, null, null, null),
+				new ScenarioRequest.Scenario("家賃-2万円", 20_000, null, null, null, null, 24),
+				// 臨時支出も利息もなければ、どのパスも同じ値になる
+				new ScenarioRequest.Scenario("確定", 0, 0.0, null, 0.0, Map.of(3, -50_000L), 6))));
+
+		assertEquals(99L, response.getSeed());
+		assertEquals(3, response.getScenarios().size());
+		assertArrayEquals(response.getBaseline().getProjectionPoints(), response.getScenarios().get(0).getProjectionPoints());
+		assertEquals(120_000, response.getScenarios().get(1).getRegularMonthlyNet());
+		assertEquals(25, response.getScenarios().get(1).getProjectionPoints().length);
+
+		ScenarioResponse.Projection fixed = response.getScenarios().get(2);
+		long expected = 70_000 + 6 * 100_000 - 50_000;
+		assertEquals(expected, fixed.getLowerPoints()[6]);
+		assertEquals(expected, fixed.getUpperPoints()[6]);
+	}
+
+	@Test
+	void invalidScenariosAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> scenarioService.evaluate(new ScenarioRequest(12, 500, null, List.of(
+				new ScenarioRequest.Scenario("確率が範囲外", 0, 1.5, null, null, null, null)))));
+		assertThrows(IllegalArgumentException.class, () -> scenarioService.evaluate(new ScenarioRequest(12, 500, null, List.of(
+				new ScenarioRequest.Scenario("予測期間の外", 0, null, null, null, Map.of(13, -1L), null)))));
+		assertThrows(IllegalArgumentException.class, () -> scenarioService.evaluate(new ScenarioRequest(12, 500, null, List.of())));
+	}
+}
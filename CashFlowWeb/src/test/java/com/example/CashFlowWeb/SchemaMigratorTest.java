@@ -0,0 +1,113 @@
+package com.example.CashFlowWeb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest {
+
+	@TempDir
+	Path tempDir;
+
+	private TestDatabase db;
+
+	@BeforeEach
+	void setUp() {
+		db = TestDatabase.unmigrated(tempDir);
+	}
+
+	@AfterEach
+	void tearDown() {
+		db.close();
+	}
+
+	@Test
+	void textDatesAreMigratedToEpochDaysWithMonthKeys() throws SQLException {
+		// V5 より前の形式 (日付が 'YYYY-MM-DD' のTEXT) で作られたDB
+		try (Connection conn = db.dataSource().getConnection(); Statement stmt = conn.createStatement()) {
+			stmt.execute("CREATE TABLE categories (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, type TEXT NOT NULL CHECK(type IN ('INCOME', 'EXPENSE')))");
+			stmt.execute("CREATE TABLE transactions (id INTEGER PRIMARY KEY AUTOINCREMENT, date TEXT NOT NULL, amount REAL NOT NULL, type TEXT NOT NULL, category_id INTEGER, is_future BOOLEAN DEFAULT FALSE, is_extraordinary BOOLEAN DEFAULT FALSE, FOREIGN KEY (category_id) REFERENCES categories(id))");
+			stmt.execute("CREATE TABLE goals (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, target_amount REAL NOT NULL, current_amount REAL NOT NULL DEFAULT 0, target_date TEXT, image_url TEXT)");
+			stmt.execute("INSERT INTO categories (name, type) VALUES ('食費', 'EXPENSE')");
+			stmt.execute("INSERT INTO transactions (date, amount, type, category_id) VALUES ('1969-12-31', 100, 'EXPENSE', 1), ('2024-02-29', 2000, 'EXPENSE', 1), ('2024-03-01', 3000, 'EXPENSE', 1), ('2024-03-02', 999, 'EXPENSE', 1)");
+			stmt.execute("DELETE FROM transactions WHERE id = 4");
+			stmt.execute("INSERT INTO goals (name, target_amount, target_date) VALUES ('旅行', 100000, '2025-08-01'), ('未定', 5000, '')");
+		}
+
+		db.dbManager().initializeDatabase();
+		TransactionDAO transactionDAO = db.transactionDAO();
+
+		try (Connection conn = db.dataSource().getConnection(); Statement stmt = conn.createStatement();
+			 ResultSet rs = stmt.executeQuery("SELECT typeof(date), date, month FROM transactions WHERE id = 2")) {
+			assertTrue(rs.next());
+			assertEquals("integer", rs.getString(1));
+			assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), rs.getLong(2));
+			assertEquals("2024-02", rs.getString(3));
+		}
+
+		List<Transaction> all = transactionDAO.getAllTransactions();
+		assertEquals(List.of(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 2, 29), LocalDate.of(1969, 12, 31)),
+				all.stream().map(Transaction::getDate).toList());
+		assertEquals(1, transactionDAO.getFilteredTransactions(LocalDate.of(2024, 2, 29), LocalDate.of(2024, 2, 29), null, null).size());
+		assertEquals(5000, transactionDAO.getCategorySummary(LocalDate.of(2024, 2, 15), LocalDate.of(2024, 3, 15), "EXPENSE").get(0).getTotalAmount());
+
+		// 削除済みの ID は再利用されない
+		transactionDAO.addTransaction(LocalDate.of(2024, 3, 3), 10, "EXPENSE", 1, false, false);
+		assertEquals(5, transactionDAO.getFilteredTransactions(LocalDate.of(2024, 3, 3), LocalDate.of(2024, 3, 3), null, null).get(0).getId());
+
+		// 作り直した月次集計は保存された月キーから求める
+		transactionDAO.rebuildMonthlyRollups();
+		assertEquals(List.of("2024-03", "2024-02", "1969-12"),
+				transactionDAO.getMonthlySummary().stream().map(MonthlySummary::getMonth).toList());
+
+		List<Goal> goals = new GoalDAO(db.dbManager(), db.dataVersions()).getAllGoals();
+		assertNull(goals.get(0).getTargetDate());
+		assertEquals("2025-08-01", goals.get(1).getTargetDate());
+	}
+
+	@Test
+	void realAmountsAreRoundedToWholeYen() throws SQLException {
+		// V6 より前の形式 (金額が REAL) で、端数を含む金額・単価が保存されているDB
+		try (Connection conn = db.dataSource().getConnection(); Statement stmt = conn.createStatement()) {
+			stmt.execute("CREATE TABLE categories (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, type TEXT NOT NULL CHECK(type IN ('INCOME', 'EXPENSE')))");
+			stmt.execute("CREATE TABLE transactions (id INTEGER PRIMARY KEY AUTOINCREMENT, date TEXT NOT NULL, amount REAL NOT NULL, type TEXT NOT NULL, category_id INTEGER, is_future BOOLEAN DEFAULT FALSE, is_extraordinary BOOLEAN DEFAULT FALSE, FOREIGN KEY (category_id) REFERENCES categories(id))");
+			stmt.execute("INSERT INTO categories (name, type) VALUES ('食費', 'EXPENSE')");
+			stmt.execute("INSERT INTO transactions (date, amount, type, category_id) VALUES ('2024-03-01', 1500.5, 'EXPENSE', 1), ('2024-03-02', 0.4, 'EXPENSE', 1)");
+			stmt.execute("CREATE TABLE assets (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, ticker_symbol TEXT, quantity REAL NOT NULL, purchase_price REAL NOT NULL, current_price REAL, asset_type TEXT NOT NULL)");
+			stmt.execute("INSERT INTO assets (name, quantity, purchase_price, current_price, asset_type) VALUES ('投信', 12.5, 10234.56, 11000.25, 'FUND')");
+		}
+
+		db.dbManager().initializeDatabase();
+		TransactionDAO transactionDAO = db.transactionDAO();
+
+		try (Connection conn = db.dataSource().getConnection(); Statement stmt = conn.createStatement();
+			 ResultSet rs = stmt.executeQuery("SELECT typeof(amount), amount FROM transactions ORDER BY id")) {
+			assertTrue(rs.next());
+			assertEquals("integer", rs.getString(1));
+			assertEquals(1501, rs.getLong(2));
+			assertTrue(rs.next());
+			assertEquals(0, rs.getLong(2));
+		}
+		// 月次集計も丸めた金額から作り直される
+		assertEquals(1501, transactionDAO.getMonthlySummary().get(0).getTotalExpense());
+		assertEquals(-1501, transactionDAO.calculateCurrentBalance());
+
+		// 資産の単価は端数を残し、評価額だけを円単位に丸める
+		Asset asset = new AssetDAO(db.dbManager(), db.dataVersions()).getAllAssets().get(0);
+		assertEquals(10234.56, asset.getPurchasePrice());
+		assertEquals(11000.25, asset.getCurrentPrice());
+		assertEquals(127932, asset.getPurchaseValue());
+		assertEquals(137503, asset.getCurrentValue());
+	}
+}
@@ -0,0 +1,110 @@
+package com.example.CashFlowWeb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementImporterTest {
+
+	@TempDir
+	Path tempDir;
+
+	private TestDatabase db;
+	private TransactionDAO transactionDAO;
+	private CategoryRegistry categoryRegistry;
+	private StatementImporter importer;
+	private int foodCategoryId;
+
+	@BeforeEach
+	void setUp() {
+		db = TestDatabase.open(tempDir);
+
+		transactionDAO = db.transactionDAO();
+		categoryRegistry = db.categoryRegistry();
+		foodCategoryId = db.categoryId("食費", "EXPENSE");
+
+		CategoryRuleDAO ruleDAO = new CategoryRuleDAO(db.dbManager());
+		ruleDAO.addRule("スーパー", foodCategoryId, 10);
+
+		importer = new StatementImporter(transactionDAO, ruleDAO, categoryRegistry,
+			new TransactionIngestService(transactionDAO, categoryRegistry), 2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		importer.shutdown();
+		db.close();
+	}
+
+	@Test
+	void importsBankStatementAndSkipsRowsAlreadyInTheLedger() {
+		String csv = "取引日,摘要,出金額,入金額,残高\n" +
+			"2024/1/5,\"ABCスーパー, 駅前店\",\"1,200\",,98800\n" +
+			"2024/1/5,ABCスーパー,\"1,200\",,97600\n" +
+			"2024/1/25,給与,,250000,347600\n" +
+			"2024/13/1,不正な日付,100,,0\n";
+
+		ImportProgress first = importer.importCsv(stream(csv, StandardCharsets.UTF_8), StandardCharsets.UTF_8, -1);
+		assertEquals(ImportProgress.State.COMPLETED, first.getState());
+		assertEquals(3, first.getInserted());
+		assertEquals(1, first.getRejected());
+		assertEquals(4, first.getErrors().get(0).getRow());
+
+		List<Transaction> ledger = transactionDAO.getAllTransactions();
+		assertEquals(2, ledger.stream().filter(t -> t.getCategoryId() == foodCategoryId && t.getAmount() == 1200).count());
+		Transaction salary = ledger.stream().filter(t -> t.getType().equals("INCOME")).findFirst().orElseThrow();
+		assertEquals(StatementImporter.UNCATEGORIZED, salary.getCategoryName());
+		assertEquals(LocalDate.of(2024, 1, 25), salary.getDate());
+
+		// 同じ明細をもう一度取り込んでも二重に登録されない
+		ImportProgress second = importer.importCsv(stream(csv, StandardCharsets.UTF_8), StandardCharsets.UTF_8, -1);
+		assertEquals(0, second.getInserted());
+		assertEquals(3, second.getDuplicates());
+		assertEquals(3, transactionDAO.getAllTransactions().size());
+		assertEquals(second.getId(), importer.getRecentImports().get(0).getId());
+	}
+
+	@Test
+	void readsShiftJisAndRejectsUnknownLayouts() {
+		Charset sjis = Charset.forName("Shift_JIS");
+		ImportProgress ok = importer.importCsv(stream("日付,内容,金額\n2024-02-01,スーパー,-500\n", sjis), sjis, -1);
+		assertEquals(1, ok.getInserted());
+		assertEquals(foodCategoryId, transactionDAO.getAllTransactions().get(0).getCategoryId());
+
+		ImportProgress bad = importer.importCsv(stream("foo,bar\n1,2\n", StandardCharsets.UTF_8), StandardCharsets.UTF_8, -1);
+		assertEquals(ImportProgress.State.FAILED, bad.getState());
+		assertEquals(1, transactionDAO.getAllTransactions().size());
+	}
+
+	@Test
+	void keepsFlagsFromExportedCsv() {
+		String csv = TransactionCsv.HEADER + "\r\n" +
+			"1,2024-03-01,EXPENSE," + foodCategoryId + ",食費,3000,true,true\r\n" +
+			"2,2024-03-02,EXPENSE," + foodCategoryId + ",食費,800,false,false\r\n";
+
+		ImportProgress progress = importer.importCsv(stream(csv, StandardCharsets.UTF_8), StandardCharsets.UTF_8, -1);
+		assertEquals(2, progress.getInserted());
+
+		List<Transaction> ledger = transactionDAO.getAllTransactions();
+		Transaction planned = ledger.stream().filter(t -> t.getAmount() == 3000).findFirst().orElseThrow();
+		assertTrue(planned.getIsFuture());
+		assertTrue(planned.getIsExtraordinary());
+		Transaction actual = ledger.stream().filter(t -> t.getAmount() == 800).findFirst().orElseThrow();
+		assertFalse(actual.getIsFuture());
+		assertFalse(actual.getIsExtraordinary());
+	}
+
+	private static ByteArrayInputStream stream(String csv, Charset charset) {
+		return new ByteArrayInputStream(csv.getBytes(charset));
+	}
+}
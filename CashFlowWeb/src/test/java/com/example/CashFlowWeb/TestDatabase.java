@@ -0,0 +1,64 @@
+package com.example.CashFlowWeb;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.nio.file.Path;
+
+/**
+ * テスト用の一時SQLiteデータベース。
+ * 接続プール・DBManager・DataVersions をまとめて用意し、close() でプールを閉じます。
+ */
+final class TestDatabase implements AutoCloseable {
+
+	private final HikariDataSource dataSource;
+	private final DBManager dbManager;
+	private final DataVersions dataVersions = new DataVersions();
+	private CategoryRegistry categoryRegistry;
+
+	private TestDatabase(Path dir) {
+		HikariConfig config = new HikariConfig();
+		config.setJdbcUrl("jdbc:sqlite:" + dir.resolve("test.db"));
+		this.dataSource = new HikariDataSource(config);
+		this.dbManager = new DBManager(dataSource);
+	}
+
+	/** マイグレーション済みのデータベースを作ります。 */
+	static TestDatabase open(Path dir) {
+		TestDatabase db = new TestDatabase(dir);
+		db.dbManager.initializeDatabase();
+		return db;
+	}
+
+	/** マイグレーション前のデータベースを作ります。(古い形式のテーブルを用意してから initializeDatabase() を呼ぶテスト用) */
+	static TestDatabase unmigrated(Path dir) {
+		return new TestDatabase(dir);
+	}
+
+	HikariDataSource dataSource() { return dataSource; }
+	DBManager dbManager() { return dbManager; }
+	DataVersions dataVersions() { return dataVersions; }
+
+	/** 初期化済みのカテゴリキャッシュ (最初の呼び出しで作成) */
+	CategoryRegistry categoryRegistry() {
+		if (categoryRegistry == null) {
+			categoryRegistry = new CategoryRegistry(new CategoryDAO(dbManager, dataVersions));
+			categoryRegistry.initialize();
+		}
+		return categoryRegistry;
+	}
+
+	/** カテゴリのID (なければ作成) */
+	int categoryId(String name, String type) {
+		return categoryRegistry().findOrCreate(name, type).getId();
+	}
+
+	TransactionDAO transactionDAO() {
+		return new TransactionDAO(dbManager, dataVersions);
+	}
+
+	@Override
+	public void close() {
+		dataSource.close();
+	}
+}
@@ -0,0 +1,180 @@
+package com.example.CashFlowWeb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionDAOTest {
+
+	@TempDir
+	Path tempDir;
+
+	private TestDatabase db;
+	private TransactionDAO transactionDAO;
+	private int foodCategoryId;
+
+	@BeforeEach
+	void setUp() {
+		db = TestDatabase.open(tempDir);
+
+		foodCategoryId = db.categoryId("食費", "EXPENSE");
+
+		transactionDAO = db.transactionDAO();
+	}
+
+	@AfterEach
+	void tearDown() {
+		db.close();
+	}
+
+	@Test
+	void pagesWalkTheLedgerNewestFirstWithoutGapsOrDuplicates() {
+		// 同じ日付の取引を含めて 7 件登録する
+		LocalDate base = LocalDate.of(2024, 1, 1);
+		for (int i = 0; i < 7; i++) {
+			transactionDAO.addTransaction(base.plusDays(i / 2), 1000 + i, "EXPENSE", foodCategoryId, false, false);
+		}
+
+		List<Transaction> all = transactionDAO.getAllTransactions();
+		List<Transaction> paged = new ArrayList<>();
+		TransactionCursor cursor = null;
+		int pages = 0;
+		do {
+			TransactionPage page = transactionDAO.getTransactionPage(null, null, null, null, cursor, 3);
+			paged.addAll(page.getItems());
+			cursor = page.getHasNext() ? TransactionCursor.decode(page.getNextCursor()) : null;
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(3, pages);
+		assertEquals(all.stream().map(Transaction::getId).toList(), paged.stream().map(Transaction::getId).toList());
+	}
+
+	@Test
+	void addReturnsTheStoredRowWithItsId() {
+		Transaction first = transactionDAO.addTransaction(LocalDate.of(2024, 1, 1), 500, "expense", foodCategoryId, false, true);
+		Transaction second = transactionDAO.addTransaction(LocalDate.of(2024, 1, 2), 700, "EXPENSE", foodCategoryId, false, false);
+
+		assertNotEquals(first.getId(), second.getId());
+		assertEquals("EXPENSE", first.getType());
+		Transaction stored = transactionDAO.getTransactionById(first.getId());
+		assertEquals(500, stored.getAmount());
+		assertTrue(stored.getIsExtraordinary());
+	}
+
+	@Test
+	void lastPageHasNoCursor() {
+		transactionDAO.addTransaction(LocalDate.of(2024, 1, 1), 500, "EXPENSE", foodCategoryId, false, false);
+
+		TransactionPage page = transactionDAO.getTransactionPage(null, null, null, null, null, 5);
+
+		assertEquals(1, page.getItems().size());
+		assertNull(page.getNextCursor());
+	}
+
+	@Test
+	void cursorRoundTripsAndRejectsGarbage() {
+		TransactionCursor cursor = new TransactionCursor(LocalDate.of(2024, 3, 31), 42);
+		TransactionCursor decoded = TransactionCursor.decode(cursor.encode());
+
+		assertEquals(cursor.getDate(), decoded.getDate());
+		assertEquals(cursor.getId(), decoded.getId());
+		assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode("not-a-cursor"));
+	}
+
+	@Test
+	void aggregatesAreComputedInSql() {
+		transactionDAO.addTransaction(LocalDate.of(2024, 1, 10), 300000, "INCOME", foodCategoryId, false, false);
+		transactionDAO.addTransaction(LocalDate.of(2024, 1, 20), 1200, "EXPENSE", foodCategoryId, false, false);
+		transactionDAO.addTransaction(LocalDate.of(2024, 2, 5), 800, "EXPENSE", foodCategoryId, false, true);
+		transactionDAO.addTransaction(LocalDate.of(2024, 3, 1), 5000, "EXPENSE", foodCategoryId, true, false); // 未来の予定は除外
+
+		assertEquals(298000, transactionDAO.calculateCurrentBalance());
+
+		List<MonthlySummary> monthly = transactionDAO.getMonthlySummary();
+		assertEquals(List.of("2024-02", "2024-01"), monthly.stream().map(MonthlySummary::getMonth).toList());
+		assertEquals(300000, monthly.get(1).getTotalIncome());
+		assertEquals(1200, monthly.get(1).getTotalExpense());
+
+		List<CategorySummary> byCategory = transactionDAO.getCategorySummary(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 29), "EXPENSE");
+		assertEquals(1, byCategory.size());
+		assertEquals(2000, byCategory.get(0).getTotalAmount());
+	}
+
+	@Test
+	void rollupsFollowUpdatesAndDeletesAndMatchARebuild() {
+		transactionDAO.addTransaction(LocalDate.of(2024, 1, 10), 1000, "EXPENSE", foodCategoryId, false, false);
+		transactionDAO.addTransaction(LocalDate.of(2024, 1, 11), 2000, "EXPENSE", foodCategoryId, false, false);
+		int movedId = transactionDAO.getAllTransactions().get(0).getId();
+
+		// 2月の臨時支出に付け替え、もう1件は削除する
+		assertTrue(transactionDAO.updateTransaction(movedId, LocalDate.of(2024, 2, 1), 2500, "EXPENSE", foodCategoryId, false, true));
+		int deletedId = transactionDAO.getAllTransactions().get(1).getId();
+		assertTrue(transactionDAO.deleteTransaction(deletedId));
+		assertFalse(transactionDAO.deleteTransaction(deletedId));
+
+		List<MonthlyRollup> incremental = transactionDAO.getMonthlyRollups("2000-01");
+		assertEquals(1, incremental.size());
+		assertEquals("2024-02", incremental.get(0).getMonth());
+		assertTrue(incremental.get(0).getIsExtraordinary());
+		assertEquals(2500, incremental.get(0).getTotalAmount());
+		assertEquals(1, incremental.get(0).getTxCount());
+
+		assertEquals(1, transactionDAO.rebuildMonthlyRollups());
+		List<MonthlyRollup> rebuilt = transactionDAO.getMonthlyRollups("2000-01");
+		assertEquals(incremental.get(0).getTotalAmount(), rebuilt.get(0).getTotalAmount());
+		assertEquals(incremental.get(0).getTxCount(), rebuilt.get(0).getTxCount());
+	}
+
+	@Test
+	void bulkWriterCommitsAllRowsAndRollupsOrNothing() throws Exception {
+		int rows = TransactionBulkWriter.BATCH_SIZE * 2 + 10;
+		try (TransactionBulkWriter writer = transactionDAO.openBulkWriter()) {
+			for (int i = 0; i < rows; i++) {
+				writer.add(new Transaction(LocalDate.of(2024, 1 + i % 2, 1 + i % 28), 100, "EXPENSE", foodCategoryId, false, false));
+			}
+			assertEquals(rows, writer.commit());
+		}
+
+		// commit せずに閉じた分は残らない
+		try (TransactionBulkWriter writer = transactionDAO.openBulkWriter()) {
+			writer.add(new Transaction(LocalDate.of(2024, 3, 1), 100, "EXPENSE", foodCategoryId, false, false));
+		}
+
+		assertEquals(rows, transactionDAO.getAllTransactions().size());
+		List<MonthlyRollup> incremental = transactionDAO.getMonthlyRollups("2000-01");
+		assertEquals(2, incremental.size());
+		assertEquals(rows * 100L, incremental.stream().mapToLong(MonthlyRollup::getTotalAmount).sum());
+
+		assertEquals(2, transactionDAO.rebuildMonthlyRollups());
+		List<MonthlyRollup> rebuilt = transactionDAO.getMonthlyRollups("2000-01");
+		for (int i = 0; i < 2; i++) {
+			assertEquals(rebuilt.get(i).getTxCount(), incremental.get(i).getTxCount());
+		}
+	}
+
+	@Test
+	void exportStreamsFilteredRowsOldestFirstAsCsv() throws Exception {
+		transactionDAO.addTransaction(LocalDate.of(2024, 2, 1), 1500, "EXPENSE", foodCategoryId, false, false);
+		transactionDAO.addTransaction(LocalDate.of(2024, 1, 1), 1000, "EXPENSE", foodCategoryId, false, false);
+		transactionDAO.addTransaction(LocalDate.of(2023, 12, 31), 700, "EXPENSE", foodCategoryId, false, false);
+
+		StringWriter out = new StringWriter();
+		transactionDAO.exportTransactions(LocalDate.of(2024, 1, 1), null, null, null, t -> TransactionCsv.writeRow(out, t));
+
+		String[] lines = out.toString().split("\r\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[0].endsWith(",2024-01-01,EXPENSE," + foodCategoryId + ",食費,1000,false,false"));
+		assertTrue(lines[1].contains(",1500,"));
+		assertEquals("\"a,\"\"b\"\"\"", TransactionCsv.escape("a,\"b\""));
+	}
+}